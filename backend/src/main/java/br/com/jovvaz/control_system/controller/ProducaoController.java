@@ -1,12 +1,22 @@
 package br.com.jovvaz.control_system.controller;
 
+import br.com.jovvaz.control_system.dto.AlocacaoProducaoRequestDTO;
+import br.com.jovvaz.control_system.dto.CacheEstatisticasDTO;
+import br.com.jovvaz.control_system.dto.CapacidadeProducaoDTO;
+import br.com.jovvaz.control_system.dto.ExplosaoEstruturaDTO;
+import br.com.jovvaz.control_system.dto.FichaTecnicaResumoDTO;
+import br.com.jovvaz.control_system.dto.MrpResultadoDTO;
 import br.com.jovvaz.control_system.dto.OrdemProducaoRequestDTO;
 import br.com.jovvaz.control_system.dto.OrdemProducaoCreateDTO;
 import br.com.jovvaz.control_system.dto.OrdemProducaoDTO;
 import br.com.jovvaz.control_system.dto.OrdemProducaoStatusUpdateDTO;
+import br.com.jovvaz.control_system.dto.PaginaDTO;
+import br.com.jovvaz.control_system.dto.PlanoAlocacaoDTO;
+import br.com.jovvaz.control_system.dto.ViabilidadeProducaoDTO;
 import br.com.jovvaz.control_system.model.StatusOrdemProducao;
 import br.com.jovvaz.control_system.service.ProducaoService;
 import br.com.jovvaz.control_system.service.OrdemProducaoService;
+import br.com.jovvaz.control_system.service.PlanejamentoProducaoService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -14,11 +24,16 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import br.com.jovvaz.control_system.dto.ProdutoAcabadoRequestDTO;
 import br.com.jovvaz.control_system.model.FichaTecnica;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.context.request.WebRequest;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -49,10 +64,13 @@ public class ProducaoController {
 
     private final ProducaoService producaoService;
     private final OrdemProducaoService ordemProducaoService;
+    private final PlanejamentoProducaoService planejamentoProducaoService;
 
-    public ProducaoController(ProducaoService producaoService, OrdemProducaoService ordemProducaoService) {
+    public ProducaoController(ProducaoService producaoService, OrdemProducaoService ordemProducaoService,
+                              PlanejamentoProducaoService planejamentoProducaoService) {
         this.producaoService = producaoService;
         this.ordemProducaoService = ordemProducaoService;
+        this.planejamentoProducaoService = planejamentoProducaoService;
     }
 
     @PostMapping("/executar")
@@ -80,33 +98,104 @@ public class ProducaoController {
     @PostMapping("/verificar-viabilidade")
     public ResponseEntity<?> verificarViabilidade(@RequestBody OrdemProducaoRequestDTO dto) {
         try {
-            boolean viavel = producaoService.verificarViabilidadeProducao(
+            ViabilidadeProducaoDTO viabilidade = producaoService.verificarViabilidadeProducao(
                     dto.getProdutoAcabadoId(),
                     dto.getQuantidadeAProduzir()
             );
-            return ResponseEntity.ok().body(java.util.Map.of("viavel", viavel));
+            return ResponseEntity.ok(viabilidade);
         } catch (IllegalStateException | IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(java.util.Map.of("viavel", false, "erro", e.getMessage()));
         }
     }
 
     @GetMapping("/fichas-tecnicas")
-    public ResponseEntity<List<FichaTecnica>> listarFichasTecnicas() {
-        List<FichaTecnica> fichas = producaoService.listarFichasTecnicas();
-        return ResponseEntity.ok(fichas);
+    public ResponseEntity<List<FichaTecnicaResumoDTO>> listarFichasTecnicas(WebRequest request) {
+        String etag = producaoService.etagFichasTecnicas();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        List<FichaTecnicaResumoDTO> fichas = producaoService.listarFichasTecnicas();
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(fichas);
     }
 
     @GetMapping("/fichas-tecnicas/{produtoId}")
-    public ResponseEntity<?> buscarFichaTecnica(@PathVariable String produtoId) {
-        return producaoService.buscarFichaTecnicaPorProdutoId(produtoId)
-                .<ResponseEntity<?>>map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<FichaTecnicaResumoDTO> buscarFichaTecnica(@PathVariable String produtoId) {
+        return ResponseEntity.of(producaoService.buscarFichaTecnicaPorProdutoId(produtoId));
+    }
+
+    @GetMapping("/explosao/{produtoId}")
+    public ResponseEntity<?> explodirEstrutura(@PathVariable String produtoId,
+                                               @RequestParam(defaultValue = "1") double quantidade) {
+        try {
+            ExplosaoEstruturaDTO explosao = producaoService.explodirEstrutura(produtoId, quantidade);
+            return ResponseEntity.ok(explosao);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/capacidade")
+    public List<CapacidadeProducaoDTO> capacidadeProducao() {
+        return planejamentoProducaoService.calcularCapacidades();
+    }
+
+    @GetMapping("/mrp")
+    public ResponseEntity<?> mrp(@RequestParam(defaultValue = "true") boolean apenasFaltas) {
+        try {
+            MrpResultadoDTO resultado = planejamentoProducaoService.calcularMrp(apenasFaltas);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // Corpo opcional: sem ele, maximiza o número de ordens atendidas com pesos iguais
+    @PostMapping("/alocacao")
+    public ResponseEntity<?> planejarAlocacao(@RequestBody(required = false) AlocacaoProducaoRequestDTO dto) {
+        try {
+            PlanoAlocacaoDTO plano = planejamentoProducaoService.planejarAlocacao(
+                    dto != null ? dto.getObjetivo() : null,
+                    dto != null ? dto.getPesos() : null);
+            return ResponseEntity.ok(plano);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/cache/fichas-tecnicas")
+    public CacheEstatisticasDTO estatisticasCacheFichas() {
+        return producaoService.estatisticasCacheFichas();
     }
 
     // ====== Ordens de Produção (persistidas) ======
     @GetMapping("/ordens")
-    public ResponseEntity<List<OrdemProducaoDTO>> listarOrdens() {
-        return ResponseEntity.ok(ordemProducaoService.listar());
+    public ResponseEntity<List<OrdemProducaoDTO>> listarOrdens(WebRequest request) {
+        String etag = ordemProducaoService.etagOrdens();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(ordemProducaoService.listar());
+    }
+
+    // Kanban (filtro de status) e histórico (período), da mais recente para a mais antiga
+    @GetMapping("/ordens/pagina")
+    public ResponseEntity<PaginaDTO<OrdemProducaoDTO>> listarOrdensPaginadas(
+            @RequestParam(required = false) List<StatusOrdemProducao> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limite,
+            WebRequest request) {
+        String etag = ordemProducaoService.etagOrdens();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        try {
+            PaginaDTO<OrdemProducaoDTO> pagina = ordemProducaoService.listarPagina(status, dataInicio, dataFim, cursor, limite);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping("/ordens")
@@ -125,14 +214,27 @@ public class ProducaoController {
 
     @PatchMapping("/ordens/{id}/status")
     public ResponseEntity<?> atualizarStatus(@PathVariable String id, @RequestBody OrdemProducaoStatusUpdateDTO dto) {
+        StatusOrdemProducao novo;
+        try {
+            novo = StatusOrdemProducao.valueOf(dto.getStatus());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return ResponseEntity.badRequest().body("Status inválido: " + dto.getStatus());
+        }
         try {
-            StatusOrdemProducao novo = StatusOrdemProducao.valueOf(dto.getStatus());
+            if (novo == StatusOrdemProducao.EXECUTADA) {
+                // Execução assíncrona: a ordem segue EM_ANDAMENTO até a fila processá-la
+                return ResponseEntity.accepted().body(ordemProducaoService.enfileirarExecucao(id));
+            }
             OrdemProducaoDTO atualizada = ordemProducaoService.atualizarStatus(id, novo);
             return ResponseEntity.ok(atualizada);
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body("Status inválido: " + dto.getStatus());
+            // Ex.: ficha técnica ausente ao iniciar a ordem
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (jakarta.persistence.EntityNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            // Ordem em estado final, ou falta de estoque disponível ao iniciar (reserva) ou executar a ordem
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Erro interno no servidor: " + e.getMessage());
         }
@@ -145,6 +247,8 @@ public class ProducaoController {
             return ResponseEntity.noContent().build();
         } catch (jakarta.persistence.EntityNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Erro interno no servidor: " + e.getMessage());
         }
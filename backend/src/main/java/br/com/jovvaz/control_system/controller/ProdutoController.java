@@ -1,14 +1,26 @@
 package br.com.jovvaz.control_system.controller;
 
+import br.com.jovvaz.control_system.dto.CacheEstatisticasDTO;
+import br.com.jovvaz.control_system.dto.MovimentacaoLoteItemDTO;
+import br.com.jovvaz.control_system.dto.MovimentacaoLoteResultadoDTO;
+import br.com.jovvaz.control_system.dto.PaginaDTO;
 import br.com.jovvaz.control_system.dto.ProdutoEntradaDTO;
 import br.com.jovvaz.control_system.dto.ProdutoBaixaDTO;
 import br.com.jovvaz.control_system.dto.ProdutoRequestDTO;
 import br.com.jovvaz.control_system.model.Produto;
+import br.com.jovvaz.control_system.model.TipoProduto;
 import br.com.jovvaz.control_system.service.EstoqueService;
+import br.com.jovvaz.control_system.service.ExportacaoProdutosService;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,14 +30,63 @@ import java.util.Optional;
 public class ProdutoController {
 
     private final EstoqueService estoqueService;
+    private final ExportacaoProdutosService exportacaoProdutosService;
 
-    public ProdutoController(EstoqueService estoqueService) {
+    public ProdutoController(EstoqueService estoqueService, ExportacaoProdutosService exportacaoProdutosService) {
         this.estoqueService = estoqueService;
+        this.exportacaoProdutosService = exportacaoProdutosService;
     }
 
+    // ETag lida antes da consulta: com If-None-Match igual responde 304 sem ir ao banco nem serializar
     @GetMapping
-    public List<Produto> listarTodosOsProdutos() {
-        return estoqueService.buscarTodos();
+    public ResponseEntity<List<Produto>> listarTodosOsProdutos(WebRequest request) {
+        String etag = estoqueService.etagCatalogo();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(estoqueService.buscarTodos());
+    }
+
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaDTO<Produto>> listarPagina(@RequestParam(required = false) TipoProduto tipo,
+                                                           @RequestParam(required = false) String prefixo,
+                                                           @RequestParam(defaultValue = "false") boolean estoqueBaixo,
+                                                           @RequestParam(defaultValue = "nome") String ordenacao,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "50") int limite,
+                                                           WebRequest request) {
+        String etag = estoqueService.etagCatalogo();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        try {
+            PaginaDTO<Produto> pagina = estoqueService.listarPagina(tipo, prefixo, estoqueBaixo, ordenacao, cursor, limite);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Catálogo completo em JSON lines (padrão) ou CSV, escrito enquanto é lido do banco
+    @GetMapping("/exportacao")
+    public ResponseEntity<StreamingResponseBody> exportarCatalogo(@RequestParam(defaultValue = "jsonl") String formato) {
+        ExportacaoProdutosService.Formato formatoExportacao;
+        try {
+            formatoExportacao = ExportacaoProdutosService.formato(formato);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean csv = formatoExportacao == ExportacaoProdutosService.Formato.CSV;
+        StreamingResponseBody corpo = saida -> exportacaoProdutosService.exportar(formatoExportacao, saida);
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType("text/csv;charset=UTF-8") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"produtos." + (csv ? "csv" : "jsonl") + "\"")
+                .body(corpo);
+    }
+
+    @GetMapping("/cache/estatisticas")
+    public CacheEstatisticasDTO estatisticasCache() {
+        return estoqueService.estatisticasCacheProdutos();
     }
 
     @GetMapping("/{id}")
@@ -50,6 +111,9 @@ public class ProdutoController {
             return ResponseEntity.ok(atualizado);
         } catch (EntityNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Produto alterado por outra requisição (ex.: movimentação de estoque) durante a edição
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException | IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
@@ -63,7 +127,7 @@ public class ProdutoController {
                     dto.getQuantidade()
             );
             return ResponseEntity.ok(produtoAtualizado);
-        } catch (IllegalArgumentException e) {
+        } catch (IllegalArgumentException | EntityNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
     }
@@ -76,8 +140,21 @@ public class ProdutoController {
                     dto.getQuantidade()
             );
             return ResponseEntity.ok(produtoAtualizado);
-        } catch (IllegalArgumentException e) {
+        } catch (IllegalArgumentException | EntityNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            // Estoque insuficiente para a baixa
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/movimentacoes/lote")
+    public ResponseEntity<?> aplicarMovimentacoesEmLote(@RequestBody List<MovimentacaoLoteItemDTO> itens) {
+        try {
+            List<MovimentacaoLoteResultadoDTO> resultados = estoqueService.aplicarMovimentacoesEmLote(itens);
+            return ResponseEntity.ok(resultados);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
@@ -1,64 +1,134 @@
 package br.com.jovvaz.control_system.controller;
 
+import br.com.jovvaz.control_system.dto.CrescimentoDTO;
 import br.com.jovvaz.control_system.dto.DashboardResumoDTO;
+import br.com.jovvaz.control_system.dto.MetricasResumoDTO;
 import br.com.jovvaz.control_system.dto.MovimentacaoEstoqueDTO;
-import br.com.jovvaz.control_system.model.Produto;
-import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import br.com.jovvaz.control_system.dto.PaginaDTO;
+import br.com.jovvaz.control_system.dto.ProducaoPeriodoDTO;
+import br.com.jovvaz.control_system.model.AgrupamentoPeriodo;
+import br.com.jovvaz.control_system.model.TipoMovimentacao;
+import br.com.jovvaz.control_system.service.MetricasDashboard;
+import br.com.jovvaz.control_system.service.MovimentacaoEstoqueService;
+import br.com.jovvaz.control_system.service.OrdemProducaoService;
+import br.com.jovvaz.control_system.service.ResumoPeriodoService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.ArrayList;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/relatorios")
 public class RelatoriosController {
 
-    private final ProdutoRepository produtoRepository;
+    // Quantidade de lançamentos devolvidos pelo histórico resumido
+    private static final int LIMITE_MOVIMENTACOES_RECENTES = 200;
 
-    public RelatoriosController(ProdutoRepository produtoRepository) {
-        this.produtoRepository = produtoRepository;
+    private final MetricasDashboard metricasDashboard;
+    private final MovimentacaoEstoqueService movimentacaoEstoqueService;
+    private final ResumoPeriodoService resumoPeriodoService;
+    private final OrdemProducaoService ordemProducaoService;
+
+    public RelatoriosController(MetricasDashboard metricasDashboard, MovimentacaoEstoqueService movimentacaoEstoqueService,
+                                ResumoPeriodoService resumoPeriodoService, OrdemProducaoService ordemProducaoService) {
+        this.metricasDashboard = metricasDashboard;
+        this.movimentacaoEstoqueService = movimentacaoEstoqueService;
+        this.resumoPeriodoService = resumoPeriodoService;
+        this.ordemProducaoService = ordemProducaoService;
     }
 
     /**
-     * Endpoint simples para métricas do dashboard.
-     * Por enquanto retorna valores estáticos/derivados, até que haja persistência própria para relatórios.
+     * Métricas do dashboard, lidas dos contadores mantidos em memória.
+     * Alertas de estoque usam o estoque mínimo de cada produto, ou 10 quando não configurado.
+     * Crescimentos comparam as últimas 24 horas com o período anterior, somando os resumos por hora.
      */
     @GetMapping("/dashboard")
     public DashboardResumoDTO dashboard() {
-        List<Produto> produtos = produtoRepository.findAll();
-
-        int alertasEstoque = (int) produtos.stream()
-                .filter(p -> p.getQuantidadeEmEstoque() <= 10)
-                .count();
+        int alertasEstoque = metricasDashboard.produtosEstoqueBaixo();
 
-        // Crescimentos estáticos por ora; podem ser ajustados conforme regras reais
-        double crescimentoProdutos = 0.0;
-        double crescimentoEstoque = 0.0;
-        double crescimentoProducao = 0.0;
+        CrescimentoDTO crescimento = resumoPeriodoService.crescimentoUltimas24Horas(
+                metricasDashboard.totalProdutos(), metricasDashboard.saldoTotal());
+        // Produtos não têm preço no cadastro: não há valor de estoque para comparar
         double crescimentoValor = 0.0;
 
-        // Ordens de produção não são persistidas no momento; retornamos 0
-        int ordensProducao = 0;
+        // Ordens abertas: pendentes e em andamento
+        int ordensProducao = (int) metricasDashboard.ordensAbertas();
 
-        return new DashboardResumoDTO(
-                crescimentoProdutos,
-                crescimentoEstoque,
-                crescimentoProducao,
+        DashboardResumoDTO resumo = new DashboardResumoDTO(
+                crescimento.getProdutos(),
+                crescimento.getEstoque(),
+                crescimento.getProducao(),
                 crescimentoValor,
                 alertasEstoque,
                 ordensProducao
         );
+        Map<String, Long> porStatus = new LinkedHashMap<>();
+        metricasDashboard.ordensPorStatus().forEach((status, total) -> porStatus.put(status.name(), total));
+        resumo.setOrdensPorStatus(porStatus);
+        return resumo;
+    }
+
+    /**
+     * Resumo do estoque e da produção: contadores em memória e a produção do dia lida do resumo diário.
+     * Produtos não têm preço no cadastro, então o valor do estoque é 0.
+     */
+    @GetMapping("/metricas")
+    public MetricasResumoDTO metricas() {
+        return new MetricasResumoDTO(
+                metricasDashboard.totalProdutos(),
+                metricasDashboard.produtosEstoqueBaixo(),
+                resumoPeriodoService.producaoDoDia(),
+                0.0
+        );
     }
 
     /**
-     * Histórico de movimentações de estoque.
-     * Como ainda não há entidade/tabela de movimentações, retorna lista vazia.
+     * Histórico de movimentações de estoque: os lançamentos mais recentes do livro-razão.
      */
     @GetMapping("/movimentacoes-historicas")
     public List<MovimentacaoEstoqueDTO> movimentacoesHistoricas() {
-        // Retorna lista vazia por ora. No futuro, popular a partir de uma tabela de movimentações.
-        return new ArrayList<>();
+        return movimentacaoEstoqueService.listarRecentes(LIMITE_MOVIMENTACOES_RECENTES);
+    }
+
+    /**
+     * Histórico de movimentações filtrado por produto, tipo e período (datas ISO-8601 com hora, inclusivas),
+     * paginado por cursor: o proximoCursor da resposta vai no parâmetro cursor da página seguinte.
+     */
+    @GetMapping("/movimentacoes")
+    public ResponseEntity<PaginaDTO<MovimentacaoEstoqueDTO>> movimentacoes(
+            @RequestParam(required = false) String produtoId,
+            @RequestParam(required = false) List<TipoMovimentacao> tipo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dataFim,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limite) {
+        try {
+            return ResponseEntity.ok(movimentacaoEstoqueService.listarPagina(produtoId, tipo, dataInicio, dataFim, cursor, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Histórico de produção: unidades produzidas por produto e por dia, semana ou mês (ordens executadas),
+     * agregadas no banco. Período em datas ISO-8601 com hora, inclusivas.
+     */
+    @GetMapping("/producao")
+    public ResponseEntity<List<ProducaoPeriodoDTO>> producao(
+            @RequestParam(defaultValue = "DIA") AgrupamentoPeriodo agrupamento,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dataFim) {
+        try {
+            return ResponseEntity.ok(ordemProducaoService.relatorioProducao(agrupamento, dataInicio, dataFim));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
-}
\ No newline at end of file
+}
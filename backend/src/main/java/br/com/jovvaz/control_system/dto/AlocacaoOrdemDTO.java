@@ -0,0 +1,44 @@
+package br.com.jovvaz.control_system.dto;
+
+// Uma ordem no plano de alocação: posição na sequência quando atendida, material limitante quando não
+public class AlocacaoOrdemDTO {
+    private Integer posicao;
+    private String ordemId;
+    private String produtoAcabadoId;
+    private String produtoNome;
+    private double quantidade;
+    private String status;
+    private String materialLimitanteId;
+    private String materialLimitanteNome;
+
+    public AlocacaoOrdemDTO() {}
+
+    public AlocacaoOrdemDTO(Integer posicao, String ordemId, String produtoAcabadoId, String produtoNome, double quantidade,
+                            String status, String materialLimitanteId, String materialLimitanteNome) {
+        this.posicao = posicao;
+        this.ordemId = ordemId;
+        this.produtoAcabadoId = produtoAcabadoId;
+        this.produtoNome = produtoNome;
+        this.quantidade = quantidade;
+        this.status = status;
+        this.materialLimitanteId = materialLimitanteId;
+        this.materialLimitanteNome = materialLimitanteNome;
+    }
+
+    public Integer getPosicao() { return posicao; }
+    public void setPosicao(Integer posicao) { this.posicao = posicao; }
+    public String getOrdemId() { return ordemId; }
+    public void setOrdemId(String ordemId) { this.ordemId = ordemId; }
+    public String getProdutoAcabadoId() { return produtoAcabadoId; }
+    public void setProdutoAcabadoId(String produtoAcabadoId) { this.produtoAcabadoId = produtoAcabadoId; }
+    public String getProdutoNome() { return produtoNome; }
+    public void setProdutoNome(String produtoNome) { this.produtoNome = produtoNome; }
+    public double getQuantidade() { return quantidade; }
+    public void setQuantidade(double quantidade) { this.quantidade = quantidade; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getMaterialLimitanteId() { return materialLimitanteId; }
+    public void setMaterialLimitanteId(String materialLimitanteId) { this.materialLimitanteId = materialLimitanteId; }
+    public String getMaterialLimitanteNome() { return materialLimitanteNome; }
+    public void setMaterialLimitanteNome(String materialLimitanteNome) { this.materialLimitanteNome = materialLimitanteNome; }
+}
@@ -0,0 +1,16 @@
+package br.com.jovvaz.control_system.dto;
+
+import java.util.Map;
+
+// Parâmetros do plano de alocação: objetivo (ORDENS ou UNIDADES) e pesos opcionais por ordem (padrão 1)
+public class AlocacaoProducaoRequestDTO {
+    private String objetivo;
+    private Map<String, Double> pesos;
+
+    public AlocacaoProducaoRequestDTO() {}
+
+    public String getObjetivo() { return objetivo; }
+    public void setObjetivo(String objetivo) { this.objetivo = objetivo; }
+    public Map<String, Double> getPesos() { return pesos; }
+    public void setPesos(Map<String, Double> pesos) { this.pesos = pesos; }
+}
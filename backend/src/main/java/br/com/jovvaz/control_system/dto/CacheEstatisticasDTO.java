@@ -0,0 +1,28 @@
+package br.com.jovvaz.control_system.dto;
+
+// Contadores de um cache em memória
+public class CacheEstatisticasDTO {
+    private long acertos;
+    private long falhas;
+    private long tamanho;
+    private double taxaAcerto;
+
+    public CacheEstatisticasDTO() {}
+
+    public CacheEstatisticasDTO(long acertos, long falhas, long tamanho) {
+        this.acertos = acertos;
+        this.falhas = falhas;
+        this.tamanho = tamanho;
+        long total = acertos + falhas;
+        this.taxaAcerto = total == 0 ? 0.0 : (double) acertos / total;
+    }
+
+    public long getAcertos() { return acertos; }
+    public void setAcertos(long acertos) { this.acertos = acertos; }
+    public long getFalhas() { return falhas; }
+    public void setFalhas(long falhas) { this.falhas = falhas; }
+    public long getTamanho() { return tamanho; }
+    public void setTamanho(long tamanho) { this.tamanho = tamanho; }
+    public double getTaxaAcerto() { return taxaAcerto; }
+    public void setTaxaAcerto(double taxaAcerto) { this.taxaAcerto = taxaAcerto; }
+}
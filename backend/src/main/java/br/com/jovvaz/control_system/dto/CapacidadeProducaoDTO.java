@@ -0,0 +1,32 @@
+package br.com.jovvaz.control_system.dto;
+
+// Quanto é possível produzir de um produto acabado com o estoque atual, e qual componente limita
+public class CapacidadeProducaoDTO {
+    private String produtoAcabadoId;
+    private String produtoNome;
+    private Double quantidadeMaxima; // nulo quando a ficha não tem componentes (sem limite)
+    private String componenteLimitanteId;
+    private String componenteLimitanteNome;
+
+    public CapacidadeProducaoDTO() {}
+
+    public CapacidadeProducaoDTO(String produtoAcabadoId, String produtoNome, Double quantidadeMaxima,
+                                 String componenteLimitanteId, String componenteLimitanteNome) {
+        this.produtoAcabadoId = produtoAcabadoId;
+        this.produtoNome = produtoNome;
+        this.quantidadeMaxima = quantidadeMaxima;
+        this.componenteLimitanteId = componenteLimitanteId;
+        this.componenteLimitanteNome = componenteLimitanteNome;
+    }
+
+    public String getProdutoAcabadoId() { return produtoAcabadoId; }
+    public void setProdutoAcabadoId(String produtoAcabadoId) { this.produtoAcabadoId = produtoAcabadoId; }
+    public String getProdutoNome() { return produtoNome; }
+    public void setProdutoNome(String produtoNome) { this.produtoNome = produtoNome; }
+    public Double getQuantidadeMaxima() { return quantidadeMaxima; }
+    public void setQuantidadeMaxima(Double quantidadeMaxima) { this.quantidadeMaxima = quantidadeMaxima; }
+    public String getComponenteLimitanteId() { return componenteLimitanteId; }
+    public void setComponenteLimitanteId(String componenteLimitanteId) { this.componenteLimitanteId = componenteLimitanteId; }
+    public String getComponenteLimitanteNome() { return componenteLimitanteNome; }
+    public void setComponenteLimitanteNome(String componenteLimitanteNome) { this.componenteLimitanteNome = componenteLimitanteNome; }
+}
@@ -0,0 +1,31 @@
+package br.com.jovvaz.control_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// Linha de componente da listagem de fichas técnicas, montada por consulta com construtor (JPQL)
+public class ComponenteFichaResumoDTO {
+    @JsonIgnore // Usado apenas para agrupar as linhas por ficha
+    private String fichaTecnicaId;
+    private Long id;
+    private MateriaPrimaResumoDTO materiaPrima;
+    private double quantidade;
+
+    public ComponenteFichaResumoDTO() {}
+
+    public ComponenteFichaResumoDTO(String fichaTecnicaId, Long id, String materiaPrimaId, String materiaPrimaNome,
+                                    String materiaPrimaUnidade, double materiaPrimaEstoque, double quantidade) {
+        this.fichaTecnicaId = fichaTecnicaId;
+        this.id = id;
+        this.materiaPrima = new MateriaPrimaResumoDTO(materiaPrimaId, materiaPrimaNome, materiaPrimaUnidade, materiaPrimaEstoque);
+        this.quantidade = quantidade;
+    }
+
+    public String getFichaTecnicaId() { return fichaTecnicaId; }
+    public void setFichaTecnicaId(String fichaTecnicaId) { this.fichaTecnicaId = fichaTecnicaId; }
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public MateriaPrimaResumoDTO getMateriaPrima() { return materiaPrima; }
+    public void setMateriaPrima(MateriaPrimaResumoDTO materiaPrima) { this.materiaPrima = materiaPrima; }
+    public double getQuantidade() { return quantidade; }
+    public void setQuantidade(double quantidade) { this.quantidade = quantidade; }
+}
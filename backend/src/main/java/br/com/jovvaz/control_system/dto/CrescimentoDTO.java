@@ -0,0 +1,23 @@
+package br.com.jovvaz.control_system.dto;
+
+// Variação percentual das últimas 24 horas em relação ao período anterior
+public class CrescimentoDTO {
+    private double produtos;
+    private double estoque;
+    private double producao;
+
+    public CrescimentoDTO() {}
+
+    public CrescimentoDTO(double produtos, double estoque, double producao) {
+        this.produtos = produtos;
+        this.estoque = estoque;
+        this.producao = producao;
+    }
+
+    public double getProdutos() { return produtos; }
+    public void setProdutos(double produtos) { this.produtos = produtos; }
+    public double getEstoque() { return estoque; }
+    public void setEstoque(double estoque) { this.estoque = estoque; }
+    public double getProducao() { return producao; }
+    public void setProducao(double producao) { this.producao = producao; }
+}
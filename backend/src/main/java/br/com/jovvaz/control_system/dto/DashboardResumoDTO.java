@@ -1,5 +1,7 @@
 package br.com.jovvaz.control_system.dto;
 
+import java.util.Map;
+
 /**
  * DTO simples para métricas do dashboard utilizadas no frontend.
  */
@@ -10,6 +12,7 @@ public class DashboardResumoDTO {
     private double crescimentoValor;
     private int alertasEstoque;
     private int ordensProducao;
+    private Map<String, Long> ordensPorStatus;
 
     public DashboardResumoDTO() {}
 
@@ -44,4 +47,7 @@ public class DashboardResumoDTO {
 
     public int getOrdensProducao() { return ordensProducao; }
     public void setOrdensProducao(int ordensProducao) { this.ordensProducao = ordensProducao; }
+
+    public Map<String, Long> getOrdensPorStatus() { return ordensPorStatus; }
+    public void setOrdensPorStatus(Map<String, Long> ordensPorStatus) { this.ordensPorStatus = ordensPorStatus; }
 }
\ No newline at end of file
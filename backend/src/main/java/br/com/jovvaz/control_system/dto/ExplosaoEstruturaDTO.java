@@ -0,0 +1,25 @@
+package br.com.jovvaz.control_system.dto;
+
+import java.util.List;
+
+// Estrutura de um produto achatada em itens de estoque (matérias-primas e subconjuntos sem ficha)
+public class ExplosaoEstruturaDTO {
+    private String produtoAcabadoId;
+    private double quantidade;
+    private List<NecessidadeMateriaPrimaDTO> itens;
+
+    public ExplosaoEstruturaDTO() {}
+
+    public ExplosaoEstruturaDTO(String produtoAcabadoId, double quantidade, List<NecessidadeMateriaPrimaDTO> itens) {
+        this.produtoAcabadoId = produtoAcabadoId;
+        this.quantidade = quantidade;
+        this.itens = itens;
+    }
+
+    public String getProdutoAcabadoId() { return produtoAcabadoId; }
+    public void setProdutoAcabadoId(String produtoAcabadoId) { this.produtoAcabadoId = produtoAcabadoId; }
+    public double getQuantidade() { return quantidade; }
+    public void setQuantidade(double quantidade) { this.quantidade = quantidade; }
+    public List<NecessidadeMateriaPrimaDTO> getItens() { return itens; }
+    public void setItens(List<NecessidadeMateriaPrimaDTO> itens) { this.itens = itens; }
+}
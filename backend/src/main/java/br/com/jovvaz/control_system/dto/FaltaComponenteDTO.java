@@ -0,0 +1,36 @@
+package br.com.jovvaz.control_system.dto;
+
+// Matéria-prima sem saldo suficiente para a quantidade solicitada
+public class FaltaComponenteDTO {
+    private String materiaPrimaId;
+    private String materiaPrimaNome;
+    private String unidadeMedida;
+    private double necessario;
+    private double disponivel;
+    private double faltante;
+
+    public FaltaComponenteDTO() {}
+
+    public FaltaComponenteDTO(String materiaPrimaId, String materiaPrimaNome, String unidadeMedida,
+                              double necessario, double disponivel) {
+        this.materiaPrimaId = materiaPrimaId;
+        this.materiaPrimaNome = materiaPrimaNome;
+        this.unidadeMedida = unidadeMedida;
+        this.necessario = necessario;
+        this.disponivel = disponivel;
+        this.faltante = necessario - disponivel;
+    }
+
+    public String getMateriaPrimaId() { return materiaPrimaId; }
+    public void setMateriaPrimaId(String materiaPrimaId) { this.materiaPrimaId = materiaPrimaId; }
+    public String getMateriaPrimaNome() { return materiaPrimaNome; }
+    public void setMateriaPrimaNome(String materiaPrimaNome) { this.materiaPrimaNome = materiaPrimaNome; }
+    public String getUnidadeMedida() { return unidadeMedida; }
+    public void setUnidadeMedida(String unidadeMedida) { this.unidadeMedida = unidadeMedida; }
+    public double getNecessario() { return necessario; }
+    public void setNecessario(double necessario) { this.necessario = necessario; }
+    public double getDisponivel() { return disponivel; }
+    public void setDisponivel(double disponivel) { this.disponivel = disponivel; }
+    public double getFaltante() { return faltante; }
+    public void setFaltante(double faltante) { this.faltante = faltante; }
+}
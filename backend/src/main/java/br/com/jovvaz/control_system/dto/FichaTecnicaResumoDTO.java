@@ -0,0 +1,25 @@
+package br.com.jovvaz.control_system.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Ficha técnica na listagem: mesmo formato da entidade, mas só com os campos que a tela usa
+public class FichaTecnicaResumoDTO {
+    private String id;
+    private ProdutoResumoDTO produtoAcabado;
+    private List<ComponenteFichaResumoDTO> componentes = new ArrayList<>();
+
+    public FichaTecnicaResumoDTO() {}
+
+    public FichaTecnicaResumoDTO(String id, String produtoId, String produtoNome, String produtoDesc, String produtoUnidade) {
+        this.id = id;
+        this.produtoAcabado = new ProdutoResumoDTO(produtoId, produtoNome, produtoDesc, produtoUnidade);
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public ProdutoResumoDTO getProdutoAcabado() { return produtoAcabado; }
+    public void setProdutoAcabado(ProdutoResumoDTO produtoAcabado) { this.produtoAcabado = produtoAcabado; }
+    public List<ComponenteFichaResumoDTO> getComponentes() { return componentes; }
+    public void setComponentes(List<ComponenteFichaResumoDTO> componentes) { this.componentes = componentes; }
+}
@@ -0,0 +1,27 @@
+package br.com.jovvaz.control_system.dto;
+
+// Componente de uma ficha técnica na listagem: o saldo alimenta o aviso de estoque insuficiente na tela de ordens
+public class MateriaPrimaResumoDTO {
+    private String id;
+    private String nome;
+    private String unidadeMedida;
+    private double quantidadeEmEstoque;
+
+    public MateriaPrimaResumoDTO() {}
+
+    public MateriaPrimaResumoDTO(String id, String nome, String unidadeMedida, double quantidadeEmEstoque) {
+        this.id = id;
+        this.nome = nome;
+        this.unidadeMedida = unidadeMedida;
+        this.quantidadeEmEstoque = quantidadeEmEstoque;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+    public String getUnidadeMedida() { return unidadeMedida; }
+    public void setUnidadeMedida(String unidadeMedida) { this.unidadeMedida = unidadeMedida; }
+    public double getQuantidadeEmEstoque() { return quantidadeEmEstoque; }
+    public void setQuantidadeEmEstoque(double quantidadeEmEstoque) { this.quantidadeEmEstoque = quantidadeEmEstoque; }
+}
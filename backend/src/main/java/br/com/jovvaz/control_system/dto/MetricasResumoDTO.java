@@ -0,0 +1,27 @@
+package br.com.jovvaz.control_system.dto;
+
+// Resumo de métricas do estoque e da produção
+public class MetricasResumoDTO {
+    private int totalProdutos;
+    private int produtosEstoqueBaixo;
+    private double producaoDiaria;
+    private double valorTotalEstoque;
+
+    public MetricasResumoDTO() {}
+
+    public MetricasResumoDTO(int totalProdutos, int produtosEstoqueBaixo, double producaoDiaria, double valorTotalEstoque) {
+        this.totalProdutos = totalProdutos;
+        this.produtosEstoqueBaixo = produtosEstoqueBaixo;
+        this.producaoDiaria = producaoDiaria;
+        this.valorTotalEstoque = valorTotalEstoque;
+    }
+
+    public int getTotalProdutos() { return totalProdutos; }
+    public void setTotalProdutos(int totalProdutos) { this.totalProdutos = totalProdutos; }
+    public int getProdutosEstoqueBaixo() { return produtosEstoqueBaixo; }
+    public void setProdutosEstoqueBaixo(int produtosEstoqueBaixo) { this.produtosEstoqueBaixo = produtosEstoqueBaixo; }
+    public double getProducaoDiaria() { return producaoDiaria; }
+    public void setProducaoDiaria(double producaoDiaria) { this.producaoDiaria = producaoDiaria; }
+    public double getValorTotalEstoque() { return valorTotalEstoque; }
+    public void setValorTotalEstoque(double valorTotalEstoque) { this.valorTotalEstoque = valorTotalEstoque; }
+}
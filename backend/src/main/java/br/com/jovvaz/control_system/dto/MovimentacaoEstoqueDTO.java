@@ -9,7 +9,7 @@ public class MovimentacaoEstoqueDTO {
     private String id;
     private String produtoId;
     private String produtoNome;
-    private String tipo; // ENTRADA | SAIDA | PRODUCAO
+    private String tipo; // ENTRADA | SAIDA | PRODUCAO (categoria derivada de TipoMovimentacao)
     private double quantidade;
     private Instant data;
     private String observacao;
@@ -0,0 +1,17 @@
+package br.com.jovvaz.control_system.dto;
+
+import br.com.jovvaz.control_system.model.TipoMovimentacao;
+
+// Uma linha de um lote de movimentações (ex.: item de uma nota de recebimento)
+public class MovimentacaoLoteItemDTO {
+    private String produtoId;
+    private TipoMovimentacao tipo; // ENTRADA soma; SAIDA_VENDA subtrai; AJUSTE aceita quantidade com sinal
+    private double quantidade;
+
+    public String getProdutoId() { return produtoId; }
+    public void setProdutoId(String produtoId) { this.produtoId = produtoId; }
+    public TipoMovimentacao getTipo() { return tipo; }
+    public void setTipo(TipoMovimentacao tipo) { this.tipo = tipo; }
+    public double getQuantidade() { return quantidade; }
+    public void setQuantidade(double quantidade) { this.quantidade = quantidade; }
+}
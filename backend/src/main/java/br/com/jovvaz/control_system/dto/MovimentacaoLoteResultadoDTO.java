@@ -0,0 +1,39 @@
+package br.com.jovvaz.control_system.dto;
+
+// Resultado de uma linha do lote, na mesma posição em que foi enviada
+public class MovimentacaoLoteResultadoDTO {
+    private int linha;
+    private String produtoId;
+    private boolean sucesso;
+    private Double quantidadeEmEstoque; // saldo após aplicar a linha; nulo quando falhou
+    private String erro;
+
+    public MovimentacaoLoteResultadoDTO() {}
+
+    public MovimentacaoLoteResultadoDTO(int linha, String produtoId, boolean sucesso, Double quantidadeEmEstoque, String erro) {
+        this.linha = linha;
+        this.produtoId = produtoId;
+        this.sucesso = sucesso;
+        this.quantidadeEmEstoque = quantidadeEmEstoque;
+        this.erro = erro;
+    }
+
+    public static MovimentacaoLoteResultadoDTO sucesso(int linha, String produtoId, double quantidadeEmEstoque) {
+        return new MovimentacaoLoteResultadoDTO(linha, produtoId, true, quantidadeEmEstoque, null);
+    }
+
+    public static MovimentacaoLoteResultadoDTO falha(int linha, String produtoId, String erro) {
+        return new MovimentacaoLoteResultadoDTO(linha, produtoId, false, null, erro);
+    }
+
+    public int getLinha() { return linha; }
+    public void setLinha(int linha) { this.linha = linha; }
+    public String getProdutoId() { return produtoId; }
+    public void setProdutoId(String produtoId) { this.produtoId = produtoId; }
+    public boolean isSucesso() { return sucesso; }
+    public void setSucesso(boolean sucesso) { this.sucesso = sucesso; }
+    public Double getQuantidadeEmEstoque() { return quantidadeEmEstoque; }
+    public void setQuantidadeEmEstoque(Double quantidadeEmEstoque) { this.quantidadeEmEstoque = quantidadeEmEstoque; }
+    public String getErro() { return erro; }
+    public void setErro(String erro) { this.erro = erro; }
+}
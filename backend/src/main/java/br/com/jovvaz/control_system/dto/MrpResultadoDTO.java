@@ -0,0 +1,21 @@
+package br.com.jovvaz.control_system.dto;
+
+import java.util.List;
+
+// Resultado do MRP: necessidades líquidas de itens de estoque para todas as ordens em aberto
+public class MrpResultadoDTO {
+    private int ordensAbertas;
+    private List<NecessidadeMateriaPrimaDTO> necessidades;
+
+    public MrpResultadoDTO() {}
+
+    public MrpResultadoDTO(int ordensAbertas, List<NecessidadeMateriaPrimaDTO> necessidades) {
+        this.ordensAbertas = ordensAbertas;
+        this.necessidades = necessidades;
+    }
+
+    public int getOrdensAbertas() { return ordensAbertas; }
+    public void setOrdensAbertas(int ordensAbertas) { this.ordensAbertas = ordensAbertas; }
+    public List<NecessidadeMateriaPrimaDTO> getNecessidades() { return necessidades; }
+    public void setNecessidades(List<NecessidadeMateriaPrimaDTO> necessidades) { this.necessidades = necessidades; }
+}
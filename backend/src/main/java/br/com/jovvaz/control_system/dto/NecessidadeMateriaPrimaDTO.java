@@ -0,0 +1,36 @@
+package br.com.jovvaz.control_system.dto;
+
+// Necessidade total de um item de estoque frente ao saldo atual
+public class NecessidadeMateriaPrimaDTO {
+    private String materiaPrimaId;
+    private String materiaPrimaNome;
+    private String unidadeMedida;
+    private double quantidadeNecessaria;
+    private double quantidadeEmEstoque;
+    private double faltante; // zero quando o estoque cobre a necessidade
+
+    public NecessidadeMateriaPrimaDTO() {}
+
+    public NecessidadeMateriaPrimaDTO(String materiaPrimaId, String materiaPrimaNome, String unidadeMedida,
+                                      double quantidadeNecessaria, double quantidadeEmEstoque) {
+        this.materiaPrimaId = materiaPrimaId;
+        this.materiaPrimaNome = materiaPrimaNome;
+        this.unidadeMedida = unidadeMedida;
+        this.quantidadeNecessaria = quantidadeNecessaria;
+        this.quantidadeEmEstoque = quantidadeEmEstoque;
+        this.faltante = Math.max(0.0, quantidadeNecessaria - quantidadeEmEstoque);
+    }
+
+    public String getMateriaPrimaId() { return materiaPrimaId; }
+    public void setMateriaPrimaId(String materiaPrimaId) { this.materiaPrimaId = materiaPrimaId; }
+    public String getMateriaPrimaNome() { return materiaPrimaNome; }
+    public void setMateriaPrimaNome(String materiaPrimaNome) { this.materiaPrimaNome = materiaPrimaNome; }
+    public String getUnidadeMedida() { return unidadeMedida; }
+    public void setUnidadeMedida(String unidadeMedida) { this.unidadeMedida = unidadeMedida; }
+    public double getQuantidadeNecessaria() { return quantidadeNecessaria; }
+    public void setQuantidadeNecessaria(double quantidadeNecessaria) { this.quantidadeNecessaria = quantidadeNecessaria; }
+    public double getQuantidadeEmEstoque() { return quantidadeEmEstoque; }
+    public void setQuantidadeEmEstoque(double quantidadeEmEstoque) { this.quantidadeEmEstoque = quantidadeEmEstoque; }
+    public double getFaltante() { return faltante; }
+    public void setFaltante(double faltante) { this.faltante = faltante; }
+}
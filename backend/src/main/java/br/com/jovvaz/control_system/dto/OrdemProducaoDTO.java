@@ -1,5 +1,7 @@
 package br.com.jovvaz.control_system.dto;
 
+import br.com.jovvaz.control_system.model.StatusOrdemProducao;
+
 import java.time.LocalDateTime;
 
 public class OrdemProducaoDTO {
@@ -9,6 +11,7 @@ public class OrdemProducaoDTO {
     private double quantidadeProduzida;
     private String status;
     private LocalDateTime dataExecucao;
+    private String motivoFalha;
 
     public OrdemProducaoDTO() {}
 
@@ -21,6 +24,13 @@ public class OrdemProducaoDTO {
         this.dataExecucao = dataExecucao;
     }
 
+    // Usado pelas consultas com construtor (JPQL)
+    public OrdemProducaoDTO(String id, String produtoAcabadoId, String produtoNome, double quantidadeProduzida,
+                            StatusOrdemProducao status, LocalDateTime dataExecucao, String motivoFalha) {
+        this(id, produtoAcabadoId, produtoNome, quantidadeProduzida, status.name(), dataExecucao);
+        this.motivoFalha = motivoFalha;
+    }
+
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
     public String getProdutoAcabadoId() { return produtoAcabadoId; }
@@ -33,4 +43,6 @@ public class OrdemProducaoDTO {
     public void setStatus(String status) { this.status = status; }
     public LocalDateTime getDataExecucao() { return dataExecucao; }
     public void setDataExecucao(LocalDateTime dataExecucao) { this.dataExecucao = dataExecucao; }
+    public String getMotivoFalha() { return motivoFalha; }
+    public void setMotivoFalha(String motivoFalha) { this.motivoFalha = motivoFalha; }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package br.com.jovvaz.control_system.dto;
+
+import java.util.List;
+
+// Página de uma listagem paginada por cursor; proximoCursor é nulo na última página
+public class PaginaDTO<T> {
+    private List<T> itens;
+    private String proximoCursor;
+
+    public PaginaDTO() {}
+
+    public PaginaDTO(List<T> itens, String proximoCursor) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+    }
+
+    public List<T> getItens() { return itens; }
+    public void setItens(List<T> itens) { this.itens = itens; }
+    public String getProximoCursor() { return proximoCursor; }
+    public void setProximoCursor(String proximoCursor) { this.proximoCursor = proximoCursor; }
+}
@@ -0,0 +1,38 @@
+package br.com.jovvaz.control_system.dto;
+
+import java.util.List;
+
+// Plano de alocação de matérias-primas entre as ordens em aberto
+public class PlanoAlocacaoDTO {
+    private String objetivo;
+    private int ordensAbertas;
+    private int ordensAtendidas;
+    private double unidadesAtendidas;
+    private List<AlocacaoOrdemDTO> sequencia;
+    private List<AlocacaoOrdemDTO> naoAtendidas;
+
+    public PlanoAlocacaoDTO() {}
+
+    public PlanoAlocacaoDTO(String objetivo, int ordensAbertas, double unidadesAtendidas,
+                            List<AlocacaoOrdemDTO> sequencia, List<AlocacaoOrdemDTO> naoAtendidas) {
+        this.objetivo = objetivo;
+        this.ordensAbertas = ordensAbertas;
+        this.ordensAtendidas = sequencia.size();
+        this.unidadesAtendidas = unidadesAtendidas;
+        this.sequencia = sequencia;
+        this.naoAtendidas = naoAtendidas;
+    }
+
+    public String getObjetivo() { return objetivo; }
+    public void setObjetivo(String objetivo) { this.objetivo = objetivo; }
+    public int getOrdensAbertas() { return ordensAbertas; }
+    public void setOrdensAbertas(int ordensAbertas) { this.ordensAbertas = ordensAbertas; }
+    public int getOrdensAtendidas() { return ordensAtendidas; }
+    public void setOrdensAtendidas(int ordensAtendidas) { this.ordensAtendidas = ordensAtendidas; }
+    public double getUnidadesAtendidas() { return unidadesAtendidas; }
+    public void setUnidadesAtendidas(double unidadesAtendidas) { this.unidadesAtendidas = unidadesAtendidas; }
+    public List<AlocacaoOrdemDTO> getSequencia() { return sequencia; }
+    public void setSequencia(List<AlocacaoOrdemDTO> sequencia) { this.sequencia = sequencia; }
+    public List<AlocacaoOrdemDTO> getNaoAtendidas() { return naoAtendidas; }
+    public void setNaoAtendidas(List<AlocacaoOrdemDTO> naoAtendidas) { this.naoAtendidas = naoAtendidas; }
+}
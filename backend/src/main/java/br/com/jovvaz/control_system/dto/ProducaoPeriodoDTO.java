@@ -0,0 +1,33 @@
+package br.com.jovvaz.control_system.dto;
+
+import java.time.LocalDate;
+
+// Unidades produzidas de um produto acabado em um período (dia, semana ou mês iniciado em "periodo")
+public class ProducaoPeriodoDTO {
+    private LocalDate periodo;
+    private String produtoId;
+    private String produtoNome;
+    private double quantidade;
+    private long ordens;
+
+    public ProducaoPeriodoDTO() {}
+
+    public ProducaoPeriodoDTO(LocalDate periodo, String produtoId, String produtoNome, double quantidade, long ordens) {
+        this.periodo = periodo;
+        this.produtoId = produtoId;
+        this.produtoNome = produtoNome;
+        this.quantidade = quantidade;
+        this.ordens = ordens;
+    }
+
+    public LocalDate getPeriodo() { return periodo; }
+    public void setPeriodo(LocalDate periodo) { this.periodo = periodo; }
+    public String getProdutoId() { return produtoId; }
+    public void setProdutoId(String produtoId) { this.produtoId = produtoId; }
+    public String getProdutoNome() { return produtoNome; }
+    public void setProdutoNome(String produtoNome) { this.produtoNome = produtoNome; }
+    public double getQuantidade() { return quantidade; }
+    public void setQuantidade(double quantidade) { this.quantidade = quantidade; }
+    public long getOrdens() { return ordens; }
+    public void setOrdens(long ordens) { this.ordens = ordens; }
+}
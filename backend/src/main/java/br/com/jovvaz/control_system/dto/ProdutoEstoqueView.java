@@ -0,0 +1,9 @@
+package br.com.jovvaz.control_system.dto;
+
+// Projeção enxuta de produto com o saldo atual, usada nas verificações de produção
+public interface ProdutoEstoqueView {
+    String getId();
+    String getNome();
+    String getUnidadeMedida();
+    double getQuantidadeEmEstoque();
+}
@@ -0,0 +1,46 @@
+package br.com.jovvaz.control_system.dto;
+
+import br.com.jovvaz.control_system.model.TipoProduto;
+
+// Linha da exportação do catálogo; montada direto na consulta, sem passar pelo contexto de persistência
+public class ProdutoExportacaoDTO {
+    private String id;
+    private String nome;
+    private String desc;
+    private String unidadeMedida;
+    private TipoProduto tipo;
+    private double quantidadeEmEstoque;
+    private Double estoqueMinimo;
+    private Double estoqueRecomendado;
+
+    public ProdutoExportacaoDTO() {}
+
+    public ProdutoExportacaoDTO(String id, String nome, String desc, String unidadeMedida, TipoProduto tipo,
+                                double quantidadeEmEstoque, Double estoqueMinimo, Double estoqueRecomendado) {
+        this.id = id;
+        this.nome = nome;
+        this.desc = desc;
+        this.unidadeMedida = unidadeMedida;
+        this.tipo = tipo;
+        this.quantidadeEmEstoque = quantidadeEmEstoque;
+        this.estoqueMinimo = estoqueMinimo;
+        this.estoqueRecomendado = estoqueRecomendado;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+    public String getDesc() { return desc; }
+    public void setDesc(String desc) { this.desc = desc; }
+    public String getUnidadeMedida() { return unidadeMedida; }
+    public void setUnidadeMedida(String unidadeMedida) { this.unidadeMedida = unidadeMedida; }
+    public TipoProduto getTipo() { return tipo; }
+    public void setTipo(TipoProduto tipo) { this.tipo = tipo; }
+    public double getQuantidadeEmEstoque() { return quantidadeEmEstoque; }
+    public void setQuantidadeEmEstoque(double quantidadeEmEstoque) { this.quantidadeEmEstoque = quantidadeEmEstoque; }
+    public Double getEstoqueMinimo() { return estoqueMinimo; }
+    public void setEstoqueMinimo(Double estoqueMinimo) { this.estoqueMinimo = estoqueMinimo; }
+    public Double getEstoqueRecomendado() { return estoqueRecomendado; }
+    public void setEstoqueRecomendado(Double estoqueRecomendado) { this.estoqueRecomendado = estoqueRecomendado; }
+}
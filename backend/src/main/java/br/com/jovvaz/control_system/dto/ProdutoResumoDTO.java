@@ -0,0 +1,27 @@
+package br.com.jovvaz.control_system.dto;
+
+// Dados do produto acabado exibidos na listagem de fichas técnicas
+public class ProdutoResumoDTO {
+    private String id;
+    private String nome;
+    private String desc;
+    private String unidadeMedida;
+
+    public ProdutoResumoDTO() {}
+
+    public ProdutoResumoDTO(String id, String nome, String desc, String unidadeMedida) {
+        this.id = id;
+        this.nome = nome;
+        this.desc = desc;
+        this.unidadeMedida = unidadeMedida;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+    public String getDesc() { return desc; }
+    public void setDesc(String desc) { this.desc = desc; }
+    public String getUnidadeMedida() { return unidadeMedida; }
+    public void setUnidadeMedida(String unidadeMedida) { this.unidadeMedida = unidadeMedida; }
+}
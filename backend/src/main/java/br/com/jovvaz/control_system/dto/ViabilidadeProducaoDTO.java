@@ -0,0 +1,29 @@
+package br.com.jovvaz.control_system.dto;
+
+import java.util.List;
+
+// Resultado da verificação de viabilidade: viável quando não há nenhuma falta
+public class ViabilidadeProducaoDTO {
+    private String produtoAcabadoId;
+    private double quantidadeAProduzir;
+    private boolean viavel;
+    private List<FaltaComponenteDTO> faltas;
+
+    public ViabilidadeProducaoDTO() {}
+
+    public ViabilidadeProducaoDTO(String produtoAcabadoId, double quantidadeAProduzir, List<FaltaComponenteDTO> faltas) {
+        this.produtoAcabadoId = produtoAcabadoId;
+        this.quantidadeAProduzir = quantidadeAProduzir;
+        this.faltas = faltas;
+        this.viavel = faltas.isEmpty();
+    }
+
+    public String getProdutoAcabadoId() { return produtoAcabadoId; }
+    public void setProdutoAcabadoId(String produtoAcabadoId) { this.produtoAcabadoId = produtoAcabadoId; }
+    public double getQuantidadeAProduzir() { return quantidadeAProduzir; }
+    public void setQuantidadeAProduzir(double quantidadeAProduzir) { this.quantidadeAProduzir = quantidadeAProduzir; }
+    public boolean isViavel() { return viavel; }
+    public void setViavel(boolean viavel) { this.viavel = viavel; }
+    public List<FaltaComponenteDTO> getFaltas() { return faltas; }
+    public void setFaltas(List<FaltaComponenteDTO> faltas) { this.faltas = faltas; }
+}
@@ -0,0 +1,16 @@
+package br.com.jovvaz.control_system.model;
+
+// Período de agrupamento dos relatórios, com a unidade correspondente de date_trunc
+public enum AgrupamentoPeriodo {
+    DIA("day"),
+    SEMANA("week"),
+    MES("month");
+
+    private final String unidade;
+
+    AgrupamentoPeriodo(String unidade) {
+        this.unidade = unidade;
+    }
+
+    public String getUnidade() { return unidade; }
+}
@@ -0,0 +1,31 @@
+package br.com.jovvaz.control_system.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Contador persistente de IDs numéricos. Cada instância da aplicação arrenda blocos
+ * avançando {@code proximo}; o lock de linha do UPDATE garante blocos disjuntos entre instâncias.
+ */
+@Entity
+@Table(name = "contadores_id")
+public class ContadorId {
+
+    @Id
+    @Column(length = 50)
+    private String nome;
+
+    // Primeiro valor ainda não arrendado
+    @Column(nullable = false)
+    private long proximo;
+
+    public ContadorId() {}
+
+    public ContadorId(String nome, long proximo) {
+        this.nome = nome;
+        this.proximo = proximo;
+    }
+
+    public String getNome() { return nome; }
+
+    public long getProximo() { return proximo; }
+}
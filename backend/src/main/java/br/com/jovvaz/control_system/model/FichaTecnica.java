@@ -1,27 +1,51 @@
 package br.com.jovvaz.control_system.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
 import java.util.ArrayList;
 import java.util.List;
 
+// Associações carregadas sob demanda; cada caso de uso escolhe o que buscar junto pelo grafo de entidade
 @Entity
 @Table(name = "fichas_tecnicas")
-public class FichaTecnica {
+@NamedEntityGraphs({
+        // Listagem de entidades: apenas o produto acabado (componentes, se tocados, vêm em lote)
+        @NamedEntityGraph(name = "FichaTecnica.listagem", attributeNodes = @NamedAttributeNode("produtoAcabado")),
+        // Edição e consulta individual: a ficha completa em uma consulta
+        @NamedEntityGraph(name = "FichaTecnica.edicao", attributeNodes = {
+                @NamedAttributeNode("produtoAcabado"),
+                @NamedAttributeNode(value = "componentes", subgraph = "componentes")
+        }, subgraphs = @NamedSubgraph(name = "componentes", attributeNodes = @NamedAttributeNode("materiaPrima"))),
+        // Exclusão: só as linhas de componentes
+        @NamedEntityGraph(name = "FichaTecnica.componentes", attributeNodes = @NamedAttributeNode("componentes"))
+})
+public class FichaTecnica implements Persistable<String> {
 
     @Id
     private String id;
 
     // Relação: Uma Ficha Técnica é para UM Produto Acabado
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "produto_acabado_id")
     private Produto produtoAcabado;
 
     // --- ESTA É A NOVA PARTE ---
     // Relação: Uma Ficha Técnica tem MUITOS Componentes
-    @OneToMany(mappedBy = "fichaTecnica", cascade = CascadeType.ALL, fetch = FetchType.EAGER, orphanRemoval = true)
+    @OneToMany(mappedBy = "fichaTecnica", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private List<FichaTecnicaComponente> componentes = new ArrayList<>();
     // --- FIM DA NOVA PARTE ---
 
+    // Incrementada pelo serviço a cada edição: trocar só os componentes não altera a linha da ficha, então não é @Version.
+    // Começa no instante da criação, para que uma ficha recriada com o mesmo ID não repita a versão da anterior
+    @Column(name = "versao", nullable = false, columnDefinition = "bigint default 0")
+    private long versao;
+
+    // O ID é atribuído ("FT-" + produto): sem esta marca, o save faria um SELECT para decidir entre INSERT e merge
+    @Transient
+    private boolean nova;
+
     // Construtores
     public FichaTecnica() {
     }
@@ -29,21 +53,49 @@ public class FichaTecnica {
     public FichaTecnica(Produto produtoAcabado) {
         this.id = "FT-" + produtoAcabado.getId(); // Cria um ID para a ficha
         this.produtoAcabado = produtoAcabado;
+        this.nova = true;
+        this.versao = System.currentTimeMillis();
     }
 
     // --- ESTE É O NOVO MÉTODO ---
-    // Método para adicionar um componente à lista
-    public void adicionarComponente(Produto materiaPrima, double quantidade) {
-        if (materiaPrima.getTipo() != TipoProduto.MATERIA_PRIMA) {
-            throw new IllegalArgumentException("Componente deve ser uma Matéria-Prima.");
+    // Método para adicionar um componente à lista.
+    // O componente pode ser uma matéria-prima ou outro produto acabado (subconjunto, ex.: um recheio).
+    // Ciclos indiretos são validados pelo serviço de explosão de estrutura.
+    public void adicionarComponente(Produto componenteProduto, double quantidade) {
+        if (componenteProduto.getTipo() != TipoProduto.MATERIA_PRIMA && componenteProduto.getTipo() != TipoProduto.PRODUTO_ACABADO) {
+            throw new IllegalArgumentException("Componente deve ser uma Matéria-Prima ou um Produto Acabado.");
         }
-        FichaTecnicaComponente componente = new FichaTecnicaComponente(this, materiaPrima, quantidade);
+        if (produtoAcabado != null && componenteProduto.getId().equals(produtoAcabado.getId())) {
+            throw new IllegalArgumentException("Um produto não pode ser componente da própria ficha técnica.");
+        }
+        FichaTecnicaComponente componente = new FichaTecnicaComponente(this, componenteProduto, quantidade);
         this.componentes.add(componente);
     }
     // --- FIM DO NOVO MÉTODO ---
 
 
+    public long getVersao() {
+        return versao;
+    }
+
+    public void incrementarVersao() {
+        versao++;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nova = false;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return nova;
+    }
+
     // Getters e Setters
+    @Override
     public String getId() {
         return id;
     }
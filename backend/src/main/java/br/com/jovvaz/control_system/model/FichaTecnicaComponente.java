@@ -7,18 +7,20 @@ import jakarta.persistence.*;
 @Table(name = "ficha_tecnica_componentes")
 public class FichaTecnicaComponente {
 
+    // Sequence com alocação em blocos de 50, como no livro-razão: os componentes da ficha saem em um INSERT em batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ficha_tecnica_componentes_seq")
+    @SequenceGenerator(name = "ficha_tecnica_componentes_seq", sequenceName = "ficha_tecnica_componentes_seq", allocationSize = 50)
     private Long id;
 
     // Relação: Muitos componentes pertencem a UMA Ficha Técnica
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ficha_tecnica_id")
     @JsonIgnore // Evita referência circular na serialização JSON
     private FichaTecnica fichaTecnica;
 
-    // Relação: O componente é UM Produto (Matéria-Prima)
-    @ManyToOne
+    // Relação: O componente é UM Produto (Matéria-Prima ou subconjunto Produto Acabado)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "materia_prima_id")
     private Produto materiaPrima;
 
@@ -0,0 +1,15 @@
+package br.com.jovvaz.control_system.model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+// Tamanho do período agregado nas tabelas de resumo
+public enum GranularidadeResumo {
+    HORA,
+    DIA;
+
+    // Início do período que contém o instante
+    public LocalDateTime inicio(LocalDateTime instante) {
+        return this == HORA ? instante.truncatedTo(ChronoUnit.HOURS) : instante.truncatedTo(ChronoUnit.DAYS);
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.jovvaz.control_system.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lançamento do livro-razão de estoque. Registros são apenas inseridos, nunca alterados.
+ * A quantidade é o efeito no saldo: positiva para entradas, negativa para saídas.
+ */
+@Entity
+@Immutable
+@Table(name = "movimentacoes_estoque", indexes = {
+        @Index(name = "idx_movimentacoes_produto_data_id", columnList = "produto_id, data, id"),
+        @Index(name = "idx_movimentacoes_data_id", columnList = "data, id")
+})
+public class MovimentacaoEstoque {
+
+    // Sequence com alocação em blocos de 50: IDs obtidos sem ida ao banco a cada insert, permitindo batch
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimentacoes_estoque_seq")
+    @SequenceGenerator(name = "movimentacoes_estoque_seq", sequenceName = "movimentacoes_estoque_seq", allocationSize = 50)
+    private Long id;
+
+    // Sem FK: o histórico permanece mesmo após a exclusão do produto
+    @Column(name = "produto_id", nullable = false, updatable = false)
+    private String produtoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20, updatable = false)
+    private TipoMovimentacao tipo;
+
+    @Column(nullable = false, updatable = false)
+    private double quantidade;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime data;
+
+    @Column(updatable = false)
+    private String observacao;
+
+    public MovimentacaoEstoque() {}
+
+    public MovimentacaoEstoque(String produtoId, TipoMovimentacao tipo, double quantidade, LocalDateTime data, String observacao) {
+        this.produtoId = produtoId;
+        this.tipo = tipo;
+        this.quantidade = quantidade;
+        this.data = data;
+        this.observacao = observacao;
+    }
+
+    public Long getId() { return id; }
+
+    public String getProdutoId() { return produtoId; }
+
+    public TipoMovimentacao getTipo() { return tipo; }
+
+    public double getQuantidade() { return quantidade; }
+
+    public LocalDateTime getData() { return data; }
+
+    public String getObservacao() { return observacao; }
+}
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ordem_producao")
+@Table(name = "ordem_producao", indexes = {
+        @Index(name = "idx_ordem_status_data", columnList = "status, data_execucao, id"),
+        @Index(name = "idx_ordem_data", columnList = "data_execucao, id")
+})
 public class OrdemProducao {
 
     @Id
@@ -25,6 +28,14 @@ public class OrdemProducao {
     @Column(name = "data_execucao", nullable = false)
     private LocalDateTime dataExecucao;
 
+    // Enfileirada para execução assíncrona e ainda não processada
+    @Column(name = "execucao_pendente", nullable = false, columnDefinition = "boolean default false")
+    private boolean execucaoPendente;
+
+    // Motivo da última tentativa de execução que falhou
+    @Column(name = "motivo_falha", length = 500)
+    private String motivoFalha;
+
     public OrdemProducao() {}
 
     public OrdemProducao(String id, Produto produtoAcabado, double quantidadeProduzida, StatusOrdemProducao status, LocalDateTime dataExecucao) {
@@ -49,4 +60,10 @@ public class OrdemProducao {
 
     public LocalDateTime getDataExecucao() { return dataExecucao; }
     public void setDataExecucao(LocalDateTime dataExecucao) { this.dataExecucao = dataExecucao; }
+
+    public boolean isExecucaoPendente() { return execucaoPendente; }
+    public void setExecucaoPendente(boolean execucaoPendente) { this.execucaoPendente = execucaoPendente; }
+
+    public String getMotivoFalha() { return motivoFalha; }
+    public void setMotivoFalha(String motivoFalha) { this.motivoFalha = motivoFalha; }
 }
\ No newline at end of file
@@ -28,6 +28,11 @@ public class Produto {
     @Column(name = "estoque_recomendado")
     private Double estoqueRecomendado; // pode ser nulo quando não configurado
 
+    // Controle de concorrência otimista: atualizações atômicas de estoque também incrementam a versão
+    @Version
+    @Column(name = "versao", nullable = false, columnDefinition = "bigint default 0")
+    private Long versao;
+
     public Produto() {
     }
 
@@ -117,4 +122,18 @@ public class Produto {
     public void setEstoqueRecomendado(Double estoqueRecomendado) {
         this.estoqueRecomendado = estoqueRecomendado;
     }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    // Cópia desanexada (cache de leitura): alterar a cópia não afeta o original nem o que está em cache
+    public Produto copia() {
+        Produto copia = new Produto(id, nome, desc, tipo, unidadeMedida);
+        copia.quantidadeEmEstoque = quantidadeEmEstoque;
+        copia.estoqueMinimo = estoqueMinimo;
+        copia.estoqueRecomendado = estoqueRecomendado;
+        copia.versao = versao;
+        return copia;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package br.com.jovvaz.control_system.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Quantidade de um componente comprometida por uma ordem de produção aberta.
+ * Existe enquanto a ordem está pendente/em andamento; é apagada ao cancelar, excluir ou executar a ordem.
+ */
+@Entity
+@Immutable
+@Table(name = "reservas_estoque", indexes = {
+        @Index(name = "idx_reservas_ordem", columnList = "ordem_id"),
+        @Index(name = "idx_reservas_produto", columnList = "produto_id")
+})
+public class ReservaEstoque {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservas_estoque_seq")
+    @SequenceGenerator(name = "reservas_estoque_seq", sequenceName = "reservas_estoque_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "ordem_id", nullable = false, length = 50, updatable = false)
+    private String ordemId;
+
+    @Column(name = "produto_id", nullable = false, updatable = false)
+    private String produtoId;
+
+    @Column(nullable = false, updatable = false)
+    private double quantidade;
+
+    public ReservaEstoque() {}
+
+    public ReservaEstoque(String ordemId, String produtoId, double quantidade) {
+        this.ordemId = ordemId;
+        this.produtoId = produtoId;
+        this.quantidade = quantidade;
+    }
+
+    public Long getId() { return id; }
+
+    public String getOrdemId() { return ordemId; }
+
+    public String getProdutoId() { return produtoId; }
+
+    public double getQuantidade() { return quantidade; }
+}
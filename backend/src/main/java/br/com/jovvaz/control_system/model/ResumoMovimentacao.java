@@ -0,0 +1,97 @@
+package br.com.jovvaz.control_system.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Unidades movimentadas por produto e tipo de lançamento em um período (hora ou dia).
+ * Mantido junto com cada lançamento do livro-razão; entradas e saídas são somadas em valor absoluto.
+ */
+@Entity
+@IdClass(ResumoMovimentacao.Chave.class)
+@Table(name = "resumo_movimentacoes")
+public class ResumoMovimentacao {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 4)
+    private GranularidadeResumo granularidade;
+
+    @Id
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+
+    @Id
+    @Column(name = "produto_id", nullable = false)
+    private String produtoId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoMovimentacao tipo;
+
+    @Column(nullable = false)
+    private double entradas;
+
+    @Column(nullable = false)
+    private double saidas;
+
+    @Column(nullable = false)
+    private long lancamentos;
+
+    public ResumoMovimentacao() {}
+
+    public GranularidadeResumo getGranularidade() { return granularidade; }
+
+    public LocalDateTime getInicio() { return inicio; }
+
+    public String getProdutoId() { return produtoId; }
+
+    public TipoMovimentacao getTipo() { return tipo; }
+
+    public double getEntradas() { return entradas; }
+
+    public double getSaidas() { return saidas; }
+
+    public long getLancamentos() { return lancamentos; }
+
+    public static class Chave implements Serializable {
+        private GranularidadeResumo granularidade;
+        private LocalDateTime inicio;
+        private String produtoId;
+        private TipoMovimentacao tipo;
+
+        public Chave() {}
+
+        public Chave(GranularidadeResumo granularidade, LocalDateTime inicio, String produtoId, TipoMovimentacao tipo) {
+            this.granularidade = granularidade;
+            this.inicio = inicio;
+            this.produtoId = produtoId;
+            this.tipo = tipo;
+        }
+
+        public GranularidadeResumo getGranularidade() { return granularidade; }
+
+        public LocalDateTime getInicio() { return inicio; }
+
+        public String getProdutoId() { return produtoId; }
+
+        public TipoMovimentacao getTipo() { return tipo; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Chave outra)) return false;
+            return granularidade == outra.granularidade && Objects.equals(inicio, outra.inicio)
+                    && Objects.equals(produtoId, outra.produtoId) && tipo == outra.tipo;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(granularidade, inicio, produtoId, tipo);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.jovvaz.control_system.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Unidades produzidas por produto acabado em um período (hora ou dia), e quantas execuções vieram de ordens.
+ * Mantido na mesma transação de cada execução de produção.
+ */
+@Entity
+@IdClass(ResumoProducao.Chave.class)
+@Table(name = "resumo_producao")
+public class ResumoProducao {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 4)
+    private GranularidadeResumo granularidade;
+
+    @Id
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+
+    @Id
+    @Column(name = "produto_id", nullable = false)
+    private String produtoId;
+
+    @Column(nullable = false)
+    private double quantidade;
+
+    @Column(nullable = false)
+    private long ordens;
+
+    public ResumoProducao() {}
+
+    public GranularidadeResumo getGranularidade() { return granularidade; }
+
+    public LocalDateTime getInicio() { return inicio; }
+
+    public String getProdutoId() { return produtoId; }
+
+    public double getQuantidade() { return quantidade; }
+
+    public long getOrdens() { return ordens; }
+
+    public static class Chave implements Serializable {
+        private GranularidadeResumo granularidade;
+        private LocalDateTime inicio;
+        private String produtoId;
+
+        public Chave() {}
+
+        public Chave(GranularidadeResumo granularidade, LocalDateTime inicio, String produtoId) {
+            this.granularidade = granularidade;
+            this.inicio = inicio;
+            this.produtoId = produtoId;
+        }
+
+        public GranularidadeResumo getGranularidade() { return granularidade; }
+
+        public LocalDateTime getInicio() { return inicio; }
+
+        public String getProdutoId() { return produtoId; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Chave outra)) return false;
+            return granularidade == outra.granularidade && Objects.equals(inicio, outra.inicio)
+                    && Objects.equals(produtoId, outra.produtoId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(granularidade, inicio, produtoId);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package br.com.jovvaz.control_system.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Produtos cadastrados e excluídos em um período (hora ou dia). Com o total atual,
+ * dá a contagem de produtos no início de qualquer período sem varrer o cadastro.
+ */
+@Entity
+@IdClass(ResumoProdutos.Chave.class)
+@Table(name = "resumo_produtos")
+public class ResumoProdutos {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 4)
+    private GranularidadeResumo granularidade;
+
+    @Id
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+
+    @Column(nullable = false)
+    private long criados;
+
+    @Column(nullable = false)
+    private long excluidos;
+
+    public ResumoProdutos() {}
+
+    public GranularidadeResumo getGranularidade() { return granularidade; }
+
+    public LocalDateTime getInicio() { return inicio; }
+
+    public long getCriados() { return criados; }
+
+    public long getExcluidos() { return excluidos; }
+
+    public static class Chave implements Serializable {
+        private GranularidadeResumo granularidade;
+        private LocalDateTime inicio;
+
+        public Chave() {}
+
+        public Chave(GranularidadeResumo granularidade, LocalDateTime inicio) {
+            this.granularidade = granularidade;
+            this.inicio = inicio;
+        }
+
+        public GranularidadeResumo getGranularidade() { return granularidade; }
+
+        public LocalDateTime getInicio() { return inicio; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Chave outra)) return false;
+            return granularidade == outra.granularidade && Objects.equals(inicio, outra.inicio);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(granularidade, inicio);
+        }
+    }
+}
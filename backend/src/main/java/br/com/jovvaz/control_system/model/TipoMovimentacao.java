@@ -4,6 +4,7 @@ package br.com.jovvaz.control_system.model;
 
 public enum TipoMovimentacao {
     ENTRADA,
+    ENTRADA_PRODUCAO,
     SAIDA_PRODUCAO,
     SAIDA_VENDA,
     AJUSTE
@@ -0,0 +1,25 @@
+package br.com.jovvaz.control_system.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Versão persistente de uma coleção exibida em listagens com ETag. Incrementada na transação que altera a coleção,
+ * pouco antes do commit; todas as instâncias leem o mesmo valor.
+ */
+@Entity
+@Table(name = "versoes_colecoes")
+public class VersaoColecao {
+
+    @Id
+    @Column(length = 50)
+    private String colecao;
+
+    @Column(nullable = false)
+    private long versao;
+
+    public VersaoColecao() {}
+
+    public String getColecao() { return colecao; }
+
+    public long getVersao() { return versao; }
+}
@@ -1,23 +1,62 @@
 package br.com.jovvaz.control_system.preferences;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The global record is served from memory and read again from the database once the snapshot is older than the TTL,
+ * so an update made through another instance is picked up within that time.
+ * A missing row is answered with the defaults without being persisted; only updates write.
+ */
 @Service
 public class SystemPreferenceService {
     private static final String GLOBAL_ID = "GLOBAL";
     private final SystemPreferenceRepository repository;
+    private final long ttlNanos;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
 
-    public SystemPreferenceService(SystemPreferenceRepository repository) {
+    public SystemPreferenceService(SystemPreferenceRepository repository,
+                                   @Value("${app.cache.preferencias.ttl-ms:30000}") long ttlMs) {
         this.repository = repository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
     }
 
     public SystemPreference getGlobal() {
-        return repository.findById(GLOBAL_ID).orElseGet(() -> repository.save(new SystemPreference(GLOBAL_ID, true)));
+        Snapshot current = snapshot.get();
+        if (current == null || current.expired(ttlNanos)) {
+            SystemPreference loaded = repository.findById(GLOBAL_ID)
+                    .map(SystemPreferenceService::copy)
+                    .orElseGet(() -> new SystemPreference(GLOBAL_ID, true));
+            // An update that finished meanwhile has already set a newer snapshot: keep it
+            snapshot.compareAndSet(current, new Snapshot(loaded));
+            current = snapshot.get();
+        }
+        return copy(current.value());
     }
 
-    public SystemPreference updateGlobal(SystemPreference payload) {
+    public synchronized SystemPreference updateGlobal(SystemPreference payload) {
         SystemPreference current = repository.findById(GLOBAL_ID).orElseGet(() -> new SystemPreference(GLOBAL_ID, true));
         current.setVoiceOnNewOrder(payload.isVoiceOnNewOrder());
-        return repository.save(current);
+        SystemPreference saved = repository.save(current);
+        snapshot.set(new Snapshot(copy(saved)));
+        return saved;
+    }
+
+    private record Snapshot(SystemPreference value, long loadedAt) {
+        Snapshot(SystemPreference value) {
+            this(value, System.nanoTime());
+        }
+
+        boolean expired(long ttlNanos) {
+            return System.nanoTime() - loadedAt >= ttlNanos;
+        }
+    }
+
+    // Callers get their own instance: the snapshot is never exposed for mutation
+    private static SystemPreference copy(SystemPreference source) {
+        return new SystemPreference(source.getId(), source.isVoiceOnNewOrder());
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,10 @@
 package br.com.jovvaz.control_system.preferences;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/user-preferences")
 @CrossOrigin(origins = "${CORS_ALLOWED_ORIGINS:http://localhost:5173}")
@@ -12,6 +15,16 @@ public class UserPreferenceController {
         this.service = service;
     }
 
+    // Bulk read: GET /api/user-preferences?ids=a,b,c
+    @GetMapping
+    public ResponseEntity<List<UserPreference>> getMany(@RequestParam List<String> ids) {
+        try {
+            return ResponseEntity.ok(service.getAll(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{userId}")
     public UserPreference get(@PathVariable String userId) {
         return service.get(userId);
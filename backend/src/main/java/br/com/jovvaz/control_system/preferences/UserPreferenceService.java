@@ -1,25 +1,112 @@
 package br.com.jovvaz.control_system.preferences;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Preferences are served from a bounded in-memory map (least recently used entries are evicted).
+ * Entries older than the TTL are read again from the database, so updates made through another instance
+ * are picked up within that time.
+ * Users without a row get the defaults, which are cached but not persisted; only updates write.
+ * A load that raced with an update is not cached (generation check), so a stale row never overwrites a newer value.
+ * Updates are serialized so the snapshot follows the order in which rows were written.
+ */
 @Service
 public class UserPreferenceService {
+    private static final int MAX_BULK_IDS = 500;
+
     private final UserPreferenceRepository repository;
+    private final int capacity;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> snapshot;
+    private long generation;
 
-    public UserPreferenceService(UserPreferenceRepository repository) {
+    public UserPreferenceService(UserPreferenceRepository repository,
+                                 @Value("${app.cache.preferencias.capacidade:10000}") int capacity,
+                                 @Value("${app.cache.preferencias.ttl-ms:30000}") long ttlMs) {
         this.repository = repository;
+        this.capacity = Math.max(1, capacity);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.snapshot = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UserPreferenceService.this.capacity;
+            }
+        };
     }
 
     public UserPreference get(String userId) {
-        return repository.findById(userId).orElseGet(() -> {
-            UserPreference pref = new UserPreference(userId, true);
-            return repository.save(pref);
-        });
+        return getAll(List.of(userId)).get(0);
     }
 
-    public UserPreference update(String userId, UserPreference payload) {
+    /**
+     * Preferences for each id, in the order given (duplicates collapsed). Misses are loaded with a single query.
+     */
+    public List<UserPreference> getAll(Collection<String> userIds) {
+        Set<String> ids = new LinkedHashSet<>(userIds);
+        if (ids.size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_IDS + " ids per request.");
+        }
+        Map<String, Boolean> values = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        long loadGeneration;
+        synchronized (snapshot) {
+            long now = System.nanoTime();
+            for (String id : ids) {
+                Entry entry = snapshot.get(id);
+                if (entry != null && now - entry.loadedAt() < ttlNanos) {
+                    values.put(id, entry.voiceOnNewOrder());
+                } else {
+                    missing.add(id);
+                }
+            }
+            loadGeneration = generation;
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, Boolean> loaded = new HashMap<>();
+            for (String id : missing) {
+                loaded.put(id, Boolean.TRUE);
+            }
+            for (UserPreference pref : repository.findAllById(missing)) {
+                loaded.put(pref.getUserId(), pref.isVoiceOnNewOrder());
+            }
+            values.putAll(loaded);
+            synchronized (snapshot) {
+                if (generation == loadGeneration) {
+                    long now = System.nanoTime();
+                    loaded.forEach((id, voice) -> snapshot.put(id, new Entry(voice, now)));
+                }
+            }
+        }
+
+        List<UserPreference> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            result.add(new UserPreference(id, values.get(id)));
+        }
+        return result;
+    }
+
+    public synchronized UserPreference update(String userId, UserPreference payload) {
         UserPreference current = repository.findById(userId).orElseGet(() -> new UserPreference(userId, true));
         current.setVoiceOnNewOrder(payload.isVoiceOnNewOrder());
-        return repository.save(current);
+        UserPreference saved = repository.save(current);
+        synchronized (snapshot) {
+            generation++;
+            snapshot.put(userId, new Entry(saved.isVoiceOnNewOrder(), System.nanoTime()));
+        }
+        return saved;
     }
-}
\ No newline at end of file
+
+    private record Entry(boolean voiceOnNewOrder, long loadedAt) {}
+}
@@ -0,0 +1,25 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.model.ContadorId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ContadorIdRepository extends JpaRepository<ContadorId, String> {
+
+    // Avança o contador em um bloco; retorna 0 quando o contador ainda não existe
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ContadorId c set c.proximo = c.proximo + :bloco where c.nome = :nome")
+    int avancar(@Param("nome") String nome, @Param("bloco") long bloco);
+
+    // INSERT explícito: falha com violação de PK se outra instância criou o contador antes (nunca sobrescreve)
+    @Modifying
+    @Query(value = "insert into contadores_id (nome, proximo) values (:nome, :proximo)", nativeQuery = true)
+    int criar(@Param("nome") String nome, @Param("proximo") long proximo);
+
+    @Query("select c.proximo from ContadorId c where c.nome = :nome")
+    Long findProximo(@Param("nome") String nome);
+}
@@ -1,17 +1,74 @@
 package br.com.jovvaz.control_system.repository;
 
+import br.com.jovvaz.control_system.dto.ComponenteFichaResumoDTO;
+import br.com.jovvaz.control_system.dto.FichaTecnicaResumoDTO;
 import br.com.jovvaz.control_system.model.FichaTecnica;
 import br.com.jovvaz.control_system.model.Produto;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface FichaTecnicaRepository extends JpaRepository<FichaTecnica, String> {
 
+    @Override
+    @EntityGraph("FichaTecnica.listagem")
+    List<FichaTecnica> findAll();
 
-
+    // Edição e consulta por produto: ficha, produto acabado, componentes e matérias-primas em uma consulta
+    @EntityGraph("FichaTecnica.edicao")
     Optional<FichaTecnica> findByProdutoAcabadoId(String produtoAcabadoId);
 
+    @EntityGraph("FichaTecnica.componentes")
     Optional<FichaTecnica> findByProdutoAcabado(Produto produtoAcabado);
 
-}
\ No newline at end of file
+    // Componentes da ficha (id, tipo, quantidade) somados por produto e ordenados por ID, para compilação em memória,
+    // seguidos do ID e da versão da ficha. Nenhuma linha: ficha inexistente. Componente nulo: ficha sem componentes.
+    @Query("select mp.id, mp.tipo, sum(c.quantidade), f.id, f.versao " +
+            "from FichaTecnica f left join f.componentes c left join c.materiaPrima mp " +
+            "where f.produtoAcabado.id = :produtoAcabadoId " +
+            "group by mp.id, mp.tipo, f.id, f.versao order by mp.id")
+    List<Object[]> findComponentesAgregados(@Param("produtoAcabadoId") String produtoAcabadoId);
+
+    // Versão gravada da ficha, pela chave primária; vazio se a ficha foi excluída
+    @Query("select f.versao from FichaTecnica f where f.id = :id")
+    Optional<Long> findVersaoById(@Param("id") String id);
+
+    // Fichas que usam o produto como componente passam a valer outra versão (ex.: o tipo do componente mudou)
+    @Modifying(flushAutomatically = true)
+    @Query("update FichaTecnica f set f.versao = f.versao + 1 where f.id in " +
+            "(select c.fichaTecnica.id from FichaTecnicaComponente c where c.materiaPrima.id = :componenteId)")
+    int incrementarVersaoDasFichasComComponente(@Param("componenteId") String componenteId);
+
+    // Todas as fichas em uma consulta: (produtoAcabadoId, componenteId, quantidade) agrupado e ordenado por ficha
+    @Query("select f.produtoAcabado.id, mp.id, sum(c.quantidade) " +
+            "from FichaTecnica f left join f.componentes c left join c.materiaPrima mp " +
+            "group by f.produtoAcabado.id, mp.id order by f.produtoAcabado.id, mp.id")
+    List<Object[]> findTodosComponentesAgregados();
+
+    // Listagem de fichas em duas consultas fixas (fichas e linhas de componentes), sem carregar entidades
+    @Query("select new br.com.jovvaz.control_system.dto.FichaTecnicaResumoDTO(f.id, pa.id, pa.nome, pa.desc, pa.unidadeMedida) " +
+            "from FichaTecnica f left join f.produtoAcabado pa order by f.id")
+    List<FichaTecnicaResumoDTO> findResumos();
+
+    @Query("select new br.com.jovvaz.control_system.dto.ComponenteFichaResumoDTO(f.id, c.id, mp.id, mp.nome, " +
+            "mp.unidadeMedida, mp.quantidadeEmEstoque, c.quantidade) " +
+            "from FichaTecnicaComponente c join c.fichaTecnica f join c.materiaPrima mp order by f.id, c.id")
+    List<ComponenteFichaResumoDTO> findResumosComponentes();
+
+    // Consulta individual no mesmo formato da listagem: a ficha e suas linhas de componentes, também em duas consultas
+    @Query("select new br.com.jovvaz.control_system.dto.FichaTecnicaResumoDTO(f.id, pa.id, pa.nome, pa.desc, pa.unidadeMedida) " +
+            "from FichaTecnica f join f.produtoAcabado pa where pa.id = :produtoAcabadoId")
+    Optional<FichaTecnicaResumoDTO> findResumoPorProdutoAcabadoId(@Param("produtoAcabadoId") String produtoAcabadoId);
+
+    @Query("select new br.com.jovvaz.control_system.dto.ComponenteFichaResumoDTO(f.id, c.id, mp.id, mp.nome, " +
+            "mp.unidadeMedida, mp.quantidadeEmEstoque, c.quantidade) " +
+            "from FichaTecnicaComponente c join c.fichaTecnica f join c.materiaPrima mp " +
+            "where f.produtoAcabado.id = :produtoAcabadoId order by c.id")
+    List<ComponenteFichaResumoDTO> findResumosComponentesPorProdutoAcabadoId(@Param("produtoAcabadoId") String produtoAcabadoId);
+
+}
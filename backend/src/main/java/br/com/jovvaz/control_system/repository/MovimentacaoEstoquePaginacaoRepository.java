@@ -0,0 +1,25 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.model.TipoMovimentacao;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Histórico de movimentações paginado por cursor (keyset), do lançamento mais recente para o mais antigo
+public interface MovimentacaoEstoquePaginacaoRepository {
+
+    /**
+     * Próxima página de lançamentos após o cursor (exclusivo). Cada linha é {MovimentacaoEstoque, nome do produto}.
+     *
+     * @param produtoId  filtro opcional de produto
+     * @param tipos      filtro opcional de tipo (vazio ou nulo: todos)
+     * @param inicio     data mínima do lançamento (inclusiva), ou nulo
+     * @param fim        data máxima do lançamento (inclusiva), ou nulo
+     * @param aposData   data do último lançamento da página anterior, ou nulo na primeira página
+     * @param aposId     ID do último lançamento da página anterior
+     * @param limite     quantidade máxima de itens
+     */
+    List<Object[]> buscarPagina(String produtoId, Collection<TipoMovimentacao> tipos, LocalDateTime inicio,
+                                LocalDateTime fim, LocalDateTime aposData, Long aposId, int limite);
+}
@@ -0,0 +1,65 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.model.TipoMovimentacao;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Uma consulta por página, montada só com os filtros informados. Com produto, a varredura é um range em
+ * idx_movimentacoes_produto_data_id; sem produto, em idx_movimentacoes_data_id (V15). Os dois índices cobrem
+ * todas as colunas do lançamento: a página sai de um index-only scan, sem visitar a tabela.
+ */
+class MovimentacaoEstoquePaginacaoRepositoryImpl implements MovimentacaoEstoquePaginacaoRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> buscarPagina(String produtoId, Collection<TipoMovimentacao> tipos, LocalDateTime inicio,
+                                       LocalDateTime fim, LocalDateTime aposData, Long aposId, int limite) {
+        // Left join: o produto pode ter sido excluído
+        StringBuilder jpql = new StringBuilder("select m, p.nome from MovimentacaoEstoque m " +
+                "left join Produto p on p.id = m.produtoId where 1 = 1");
+        boolean filtrarTipo = tipos != null && !tipos.isEmpty();
+        if (produtoId != null) {
+            jpql.append(" and m.produtoId = :produtoId");
+        }
+        if (filtrarTipo) {
+            jpql.append(" and m.tipo in :tipos");
+        }
+        if (inicio != null) {
+            jpql.append(" and m.data >= :inicio");
+        }
+        if (fim != null) {
+            jpql.append(" and m.data <= :fim");
+        }
+        if (aposData != null) {
+            jpql.append(" and (m.data < :aposData or (m.data = :aposData and m.id < :aposId))");
+        }
+        jpql.append(" order by m.data desc, m.id desc");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        if (produtoId != null) {
+            query.setParameter("produtoId", produtoId);
+        }
+        if (filtrarTipo) {
+            query.setParameter("tipos", tipos);
+        }
+        if (inicio != null) {
+            query.setParameter("inicio", inicio);
+        }
+        if (fim != null) {
+            query.setParameter("fim", fim);
+        }
+        if (aposData != null) {
+            query.setParameter("aposData", aposData);
+            query.setParameter("aposId", aposId);
+        }
+        return query.setMaxResults(limite).getResultList();
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.model.MovimentacaoEstoque;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MovimentacaoEstoqueRepository extends JpaRepository<MovimentacaoEstoque, Long>, MovimentacaoEstoquePaginacaoRepository {
+
+    // Últimos lançamentos com o nome do produto (left join: o produto pode ter sido excluído)
+    @Query("select m, p.nome from MovimentacaoEstoque m left join Produto p on p.id = m.produtoId " +
+            "order by m.data desc, m.id desc")
+    List<Object[]> findRecentesComNomeProduto(Pageable pageable);
+}
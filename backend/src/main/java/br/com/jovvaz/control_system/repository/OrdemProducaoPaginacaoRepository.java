@@ -0,0 +1,25 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.dto.OrdemProducaoDTO;
+import br.com.jovvaz.control_system.model.StatusOrdemProducao;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Listagem de ordens paginada por cursor (keyset), da mais recente para a mais antiga
+public interface OrdemProducaoPaginacaoRepository {
+
+    /**
+     * Próxima página de ordens após o cursor (exclusivo), já com o nome do produto.
+     *
+     * @param status     filtro opcional de status (vazio ou nulo: todos)
+     * @param inicio     data de execução mínima (inclusiva), ou nulo
+     * @param fim        data de execução máxima (exclusiva), ou nulo
+     * @param aposData   data de execução do último item da página anterior, ou nulo na primeira página
+     * @param aposId     ID do último item da página anterior
+     * @param limite     quantidade máxima de itens
+     */
+    List<OrdemProducaoDTO> buscarPagina(Collection<StatusOrdemProducao> status, LocalDateTime inicio, LocalDateTime fim,
+                                        LocalDateTime aposData, String aposId, int limite);
+}
@@ -0,0 +1,59 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.dto.OrdemProducaoDTO;
+import br.com.jovvaz.control_system.model.StatusOrdemProducao;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Uma consulta por página com join no produto (sem N+1), montada só com os filtros informados.
+ * Com filtro de status a varredura usa idx_ordem_status_data; sem ele, idx_ordem_data (V13).
+ */
+class OrdemProducaoPaginacaoRepositoryImpl implements OrdemProducaoPaginacaoRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrdemProducaoDTO> buscarPagina(Collection<StatusOrdemProducao> status, LocalDateTime inicio,
+                                               LocalDateTime fim, LocalDateTime aposData, String aposId, int limite) {
+        StringBuilder jpql = new StringBuilder("select new br.com.jovvaz.control_system.dto.OrdemProducaoDTO(" +
+                "o.id, p.id, p.nome, o.quantidadeProduzida, o.status, o.dataExecucao, o.motivoFalha) " +
+                "from OrdemProducao o join o.produtoAcabado p where 1 = 1");
+        boolean filtrarStatus = status != null && !status.isEmpty();
+        if (filtrarStatus) {
+            jpql.append(" and o.status in :status");
+        }
+        if (inicio != null) {
+            jpql.append(" and o.dataExecucao >= :inicio");
+        }
+        if (fim != null) {
+            jpql.append(" and o.dataExecucao < :fim");
+        }
+        if (aposData != null) {
+            jpql.append(" and (o.dataExecucao < :aposData or (o.dataExecucao = :aposData and o.id < :aposId))");
+        }
+        jpql.append(" order by o.dataExecucao desc, o.id desc");
+
+        TypedQuery<OrdemProducaoDTO> query = entityManager.createQuery(jpql.toString(), OrdemProducaoDTO.class);
+        if (filtrarStatus) {
+            query.setParameter("status", status);
+        }
+        if (inicio != null) {
+            query.setParameter("inicio", inicio);
+        }
+        if (fim != null) {
+            query.setParameter("fim", fim);
+        }
+        if (aposData != null) {
+            query.setParameter("aposData", aposData);
+            query.setParameter("aposId", aposId);
+        }
+        return query.setMaxResults(limite).getResultList();
+    }
+}
@@ -0,0 +1,21 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.dto.ProducaoPeriodoDTO;
+import br.com.jovvaz.control_system.model.AgrupamentoPeriodo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Relatórios agregados sobre as ordens executadas
+public interface OrdemProducaoRelatorioRepository {
+
+    /**
+     * Unidades produzidas por produto e período das ordens EXECUTADA, agregadas no banco.
+     * Semanas começam na segunda-feira.
+     *
+     * @param agrupamento tamanho do período
+     * @param inicio      data de execução mínima (inclusiva), ou nulo
+     * @param fim         data de execução máxima (inclusiva), ou nulo
+     */
+    List<ProducaoPeriodoDTO> somarProducaoPorPeriodo(AgrupamentoPeriodo agrupamento, LocalDateTime inicio, LocalDateTime fim);
+}
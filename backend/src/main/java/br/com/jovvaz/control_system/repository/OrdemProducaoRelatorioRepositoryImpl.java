@@ -0,0 +1,66 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.dto.ProducaoPeriodoDTO;
+import br.com.jovvaz.control_system.model.AgrupamentoPeriodo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GROUP BY no banco: só as linhas agregadas (produto × período) chegam à aplicação.
+ * A varredura é um range em idx_ordem_status_data, que inclui produto e quantidade (V16): index-only scan.
+ * A unidade de date_trunc vem do enum (literal fixo), igual no SELECT e no GROUP BY.
+ */
+class OrdemProducaoRelatorioRepositoryImpl implements OrdemProducaoRelatorioRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProducaoPeriodoDTO> somarProducaoPorPeriodo(AgrupamentoPeriodo agrupamento, LocalDateTime inicio, LocalDateTime fim) {
+        String periodo = "cast(date_trunc('" + agrupamento.getUnidade() + "', o.data_execucao) as date)";
+        StringBuilder sql = new StringBuilder("select t.periodo, t.produto_acabado_id, p.nome, t.quantidade, t.ordens from (" +
+                "select " + periodo + " as periodo, o.produto_acabado_id, " +
+                "sum(o.quantidade_produzida) as quantidade, count(*) as ordens " +
+                "from ordem_producao o where o.status = 'EXECUTADA'");
+        if (inicio != null) {
+            sql.append(" and o.data_execucao >= :inicio");
+        }
+        if (fim != null) {
+            sql.append(" and o.data_execucao <= :fim");
+        }
+        sql.append(" group by ").append(periodo).append(", o.produto_acabado_id")
+                .append(") t join produtos p on p.id = t.produto_acabado_id order by t.periodo, p.nome, t.produto_acabado_id");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        if (inicio != null) {
+            query.setParameter("inicio", inicio);
+        }
+        if (fim != null) {
+            query.setParameter("fim", fim);
+        }
+        List<?> linhas = query.getResultList();
+        List<ProducaoPeriodoDTO> resultado = new ArrayList<>(linhas.size());
+        for (Object item : linhas) {
+            Object[] linha = (Object[]) item;
+            resultado.add(new ProducaoPeriodoDTO(
+                    paraData(linha[0]),
+                    (String) linha[1],
+                    (String) linha[2],
+                    ((Number) linha[3]).doubleValue(),
+                    ((Number) linha[4]).longValue()
+            ));
+        }
+        return resultado;
+    }
+
+    // Conforme a versão do Hibernate, colunas DATE de consultas nativas vêm como java.sql.Date ou LocalDate
+    private static LocalDate paraData(Object valor) {
+        return valor instanceof java.sql.Date data ? data.toLocalDate() : (LocalDate) valor;
+    }
+}
@@ -1,9 +1,48 @@
 package br.com.jovvaz.control_system.repository;
 
+import br.com.jovvaz.control_system.dto.OrdemProducaoDTO;
 import br.com.jovvaz.control_system.model.OrdemProducao;
+import br.com.jovvaz.control_system.model.StatusOrdemProducao;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface OrdemProducaoRepository extends JpaRepository<OrdemProducao, String> {
-}
\ No newline at end of file
+public interface OrdemProducaoRepository extends JpaRepository<OrdemProducao, String>, OrdemProducaoPaginacaoRepository,
+        OrdemProducaoRelatorioRepository {
+
+    // Listagem completa em uma consulta, com o nome do produto via join
+    @Query("select new br.com.jovvaz.control_system.dto.OrdemProducaoDTO(o.id, p.id, p.nome, o.quantidadeProduzida, " +
+            "o.status, o.dataExecucao, o.motivoFalha) from OrdemProducao o join o.produtoAcabado p " +
+            "order by o.dataExecucao desc, o.id desc")
+    List<OrdemProducaoDTO> findListagem();
+
+    // Apenas (produtoAcabadoId, quantidade) das ordens: sem join e sem carregar entidades
+    @Query("select o.produtoAcabado.id, o.quantidadeProduzida from OrdemProducao o where o.status in :status")
+    List<Object[]> findDemandaPorStatus(@Param("status") Collection<StatusOrdemProducao> status);
+
+    // (id, produtoAcabadoId, quantidade, status) das ordens, das mais antigas para as mais novas
+    @Query("select o.id, o.produtoAcabado.id, o.quantidadeProduzida, o.status from OrdemProducao o " +
+            "where o.status in :status order by o.dataExecucao, o.id")
+    List<Object[]> findResumoPorStatus(@Param("status") Collection<StatusOrdemProducao> status);
+
+    // (status, quantidade de ordens)
+    @Query("select o.status, count(o) from OrdemProducao o group by o.status")
+    List<Object[]> findContagemPorStatus();
+
+    // Ordens que estavam na fila quando a aplicação parou
+    @Query("select o.id from OrdemProducao o where o.execucaoPendente = true")
+    List<String> findIdsComExecucaoPendente();
+
+    // Trava a ordem durante a execução assíncrona
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from OrdemProducao o where o.id = :id")
+    Optional<OrdemProducao> findParaExecucao(@Param("id") String id);
+}
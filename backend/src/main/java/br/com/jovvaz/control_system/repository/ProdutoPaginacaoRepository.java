@@ -0,0 +1,24 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.model.Produto;
+import br.com.jovvaz.control_system.model.TipoProduto;
+
+import java.util.List;
+
+// Listagem paginada por cursor (keyset), com a consulta montada conforme os filtros informados
+public interface ProdutoPaginacaoRepository {
+
+    /**
+     * Próxima página de produtos após o cursor (exclusivo).
+     *
+     * @param tipo         filtro opcional por tipo
+     * @param prefixoNome  filtro opcional pelo início do nome, sem diferenciar maiúsculas
+     * @param estoqueBaixo apenas produtos com saldo até o estoque mínimo (ou até o limite padrão quando não configurado)
+     * @param porNome      ordena por nome em minúsculas e ID; caso contrário apenas por ID
+     * @param aposChave    nome em minúsculas do último item da página anterior (apenas com porNome), ou nulo
+     * @param aposId       ID do último item da página anterior, ou nulo na primeira página
+     * @param limite       quantidade máxima de itens
+     */
+    List<Produto> buscarPagina(TipoProduto tipo, String prefixoNome, boolean estoqueBaixo, boolean porNome,
+                               String aposChave, String aposId, int limite);
+}
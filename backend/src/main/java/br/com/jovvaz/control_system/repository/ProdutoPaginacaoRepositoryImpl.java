@@ -0,0 +1,64 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.model.Produto;
+import br.com.jovvaz.control_system.model.TipoProduto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Monta apenas os predicados dos filtros presentes: sem "(:param is null or ...)", o plano sempre casa com
+ * um dos índices de V12 e cada página é uma varredura de intervalo que começa no cursor, com custo
+ * independente da profundidade. O limite de estoque baixo é literal para casar com o índice parcial.
+ */
+class ProdutoPaginacaoRepositoryImpl implements ProdutoPaginacaoRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Produto> buscarPagina(TipoProduto tipo, String prefixoNome, boolean estoqueBaixo, boolean porNome,
+                                      String aposChave, String aposId, int limite) {
+        StringBuilder jpql = new StringBuilder("select p from Produto p where 1 = 1");
+        if (tipo != null) {
+            jpql.append(" and p.tipo = :tipo");
+        }
+        String prefixo = prefixoNome != null && !prefixoNome.isEmpty() ? prefixoNome.toLowerCase(Locale.ROOT) : null;
+        if (prefixo != null) {
+            // O limite inferior posiciona a varredura no índice; o like garante o casamento exato do prefixo
+            jpql.append(" and lower(p.nome) >= :prefixo and lower(p.nome) like :padrao escape '\\'");
+        }
+        if (estoqueBaixo) {
+            jpql.append(" and p.quantidadeEmEstoque <= coalesce(p.estoqueMinimo, 10)");
+        }
+        if (aposId != null) {
+            jpql.append(porNome
+                    ? " and (lower(p.nome) > :aposChave or (lower(p.nome) = :aposChave and p.id > :aposId))"
+                    : " and p.id > :aposId");
+        }
+        jpql.append(porNome ? " order by lower(p.nome), p.id" : " order by p.id");
+
+        TypedQuery<Produto> query = entityManager.createQuery(jpql.toString(), Produto.class);
+        if (tipo != null) {
+            query.setParameter("tipo", tipo);
+        }
+        if (prefixo != null) {
+            query.setParameter("prefixo", prefixo);
+            query.setParameter("padrao", escaparLike(prefixo) + "%");
+        }
+        if (aposId != null) {
+            query.setParameter("aposId", aposId);
+            if (porNome) {
+                query.setParameter("aposChave", aposChave != null ? aposChave : "");
+            }
+        }
+        return query.setMaxResults(limite).getResultList();
+    }
+
+    private static String escaparLike(String valor) {
+        return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
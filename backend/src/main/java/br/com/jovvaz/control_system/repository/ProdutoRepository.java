@@ -1,9 +1,89 @@
 package br.com.jovvaz.control_system.repository;
 
+import br.com.jovvaz.control_system.dto.ProdutoEstoqueView;
+import br.com.jovvaz.control_system.dto.ProdutoExportacaoDTO;
 import br.com.jovvaz.control_system.model.Produto;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface ProdutoRepository extends JpaRepository<Produto, String> {
-}
\ No newline at end of file
+public interface ProdutoRepository extends JpaRepository<Produto, String>, ProdutoPaginacaoRepository {
+
+    // Movimentações atômicas: um único UPDATE, sem carregar a entidade antes.
+    // A versão é incrementada para que edições concorrentes via entidade falhem no lock otimista.
+    // O contexto de persistência não é limpo: instâncias de Produto já carregadas na transação ficam com o saldo
+    // anterior, e quem precisar do valor gravado relê o produto.
+    @Modifying(flushAutomatically = true)
+    @Query("update Produto p set p.quantidadeEmEstoque = p.quantidadeEmEstoque + :quantidade, p.versao = p.versao + 1 " +
+            "where p.id = :id")
+    int incrementarEstoque(@Param("id") String id, @Param("quantidade") double quantidade);
+
+    // Só decrementa se houver saldo suficiente; retorna 0 quando o produto não existe ou o estoque não basta
+    @Modifying(flushAutomatically = true)
+    @Query("update Produto p set p.quantidadeEmEstoque = p.quantidadeEmEstoque - :quantidade, p.versao = p.versao + 1 " +
+            "where p.id = :id and p.quantidadeEmEstoque >= :quantidade")
+    int decrementarEstoqueSeDisponivel(@Param("id") String id, @Param("quantidade") double quantidade);
+
+    // Baixa fora da produção: o que está reservado para ordens abertas não pode sair (saldo - reservado >= quantidade).
+    // Retorna 0 quando o produto não existe ou o disponível não basta
+    @Modifying(flushAutomatically = true)
+    @Query("update Produto p set p.quantidadeEmEstoque = p.quantidadeEmEstoque - :quantidade, p.versao = p.versao + 1 " +
+            "where p.id = :id and p.quantidadeEmEstoque - coalesce((select sum(r.quantidade) from ReservaEstoque r " +
+            "where r.produtoId = :id), 0) >= :quantidade")
+    int decrementarEstoqueNaoReservado(@Param("id") String id, @Param("quantidade") double quantidade);
+
+    // Trava as linhas (SELECT ... FOR UPDATE) em ordem crescente de ID.
+    // Lotes concorrentes sempre travam na mesma ordem, evitando deadlocks.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Produto p where p.id in :ids order by p.id")
+    List<Produto> findAllParaAtualizacao(@Param("ids") Collection<String> ids);
+
+    @Query("select p.id as id, p.nome as nome, p.unidadeMedida as unidadeMedida, p.quantidadeEmEstoque as quantidadeEmEstoque " +
+            "from Produto p where p.id in :ids")
+    List<ProdutoEstoqueView> findEstoques(@Param("ids") Collection<String> ids);
+
+    @Query("select p.id from Produto p")
+    List<String> findTodosIds();
+
+    // Quantidade de produtos e soma das versões: muda a cada movimentação de saldo (ETag do catálogo)
+    @Query("select count(p), coalesce(sum(p.versao), 0) from Produto p")
+    List<Object[]> findAssinaturaVersoes();
+
+    // Versão gravada de cada produto: reconciliação do cache de produtos com o banco
+    @Query("select p.id, p.versao from Produto p")
+    List<Object[]> findVersoes();
+
+    // (id, saldo, estoque mínimo) de todos os produtos, para os contadores do dashboard
+    @Query("select p.id, p.quantidadeEmEstoque, p.estoqueMinimo from Produto p")
+    List<Object[]> findNiveisEstoque();
+
+    @Query("select p.id, p.quantidadeEmEstoque, p.estoqueMinimo from Produto p where p.id in :ids")
+    List<Object[]> findNiveisEstoque(@Param("ids") Collection<String> ids);
+
+    @Query("select p.id as id, p.nome as nome, p.unidadeMedida as unidadeMedida, p.quantidadeEmEstoque as quantidadeEmEstoque " +
+            "from Produto p")
+    List<ProdutoEstoqueView> findTodosEstoques();
+
+    // Cursor somente leitura para a exportação: as linhas chegam do banco em blocos do fetch size
+    // e viram DTOs, sem entidades acumulando no contexto de persistência. Exige transação aberta.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select new br.com.jovvaz.control_system.dto.ProdutoExportacaoDTO(p.id, p.nome, p.desc, p.unidadeMedida, " +
+            "p.tipo, p.quantidadeEmEstoque, p.estoqueMinimo, p.estoqueRecomendado) from Produto p order by p.id")
+    Stream<ProdutoExportacaoDTO> streamExportacao();
+}
@@ -0,0 +1,31 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.model.ReservaEstoque;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReservaEstoqueRepository extends JpaRepository<ReservaEstoque, Long> {
+
+    List<ReservaEstoque> findByOrdemId(String ordemId);
+
+    boolean existsByOrdemId(String ordemId);
+
+    // DELETE direto, sem carregar as entidades
+    @Modifying(flushAutomatically = true)
+    @Query("delete from ReservaEstoque r where r.ordemId = :ordemId")
+    int deleteByOrdemId(@Param("ordemId") String ordemId);
+
+    // Total reservado por produto: (produtoId, soma)
+    @Query("select r.produtoId, sum(r.quantidade) from ReservaEstoque r group by r.produtoId")
+    List<Object[]> findTotaisPorProduto();
+
+    @Query("select r.produtoId, sum(r.quantidade) from ReservaEstoque r where r.produtoId in :produtoIds group by r.produtoId")
+    List<Object[]> findTotaisPorProdutos(@Param("produtoIds") Collection<String> produtoIds);
+}
@@ -0,0 +1,39 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.model.GranularidadeResumo;
+import br.com.jovvaz.control_system.model.ResumoMovimentacao;
+import br.com.jovvaz.control_system.model.TipoMovimentacao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ResumoMovimentacaoRepository extends JpaRepository<ResumoMovimentacao, ResumoMovimentacao.Chave> {
+
+    // Soma ao período; retorna 0 quando a linha do período ainda não existe
+    @Modifying
+    @Query("update ResumoMovimentacao r set r.entradas = r.entradas + :entradas, r.saidas = r.saidas + :saidas, " +
+            "r.lancamentos = r.lancamentos + :lancamentos " +
+            "where r.granularidade = :granularidade and r.inicio = :inicio and r.produtoId = :produtoId and r.tipo = :tipo")
+    int acumular(@Param("granularidade") GranularidadeResumo granularidade, @Param("inicio") LocalDateTime inicio,
+                 @Param("produtoId") String produtoId, @Param("tipo") TipoMovimentacao tipo,
+                 @Param("entradas") double entradas, @Param("saidas") double saidas, @Param("lancamentos") long lancamentos);
+
+    // Linha zerada do período; não faz nada se outra transação já a criou
+    @Modifying
+    @Query(value = "insert into resumo_movimentacoes (granularidade, inicio, produto_id, tipo, entradas, saidas, lancamentos) " +
+            "values (:granularidade, :inicio, :produtoId, :tipo, 0, 0, 0) on conflict do nothing", nativeQuery = true)
+    int criarSeAusente(@Param("granularidade") String granularidade, @Param("inicio") LocalDateTime inicio,
+                       @Param("produtoId") String produtoId, @Param("tipo") String tipo);
+
+    // Totais de entradas e saídas nos períodos em [inicio, fim), percorrendo a chave primária
+    @Query("select coalesce(sum(r.entradas), 0), coalesce(sum(r.saidas), 0) from ResumoMovimentacao r " +
+            "where r.granularidade = :granularidade and r.inicio >= :inicio and r.inicio < :fim")
+    List<Object[]> somarPeriodo(@Param("granularidade") GranularidadeResumo granularidade,
+                                @Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+}
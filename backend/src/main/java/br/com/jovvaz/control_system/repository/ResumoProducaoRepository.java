@@ -0,0 +1,35 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.model.GranularidadeResumo;
+import br.com.jovvaz.control_system.model.ResumoProducao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ResumoProducaoRepository extends JpaRepository<ResumoProducao, ResumoProducao.Chave> {
+
+    // Soma ao período; retorna 0 quando a linha do período ainda não existe
+    @Modifying
+    @Query("update ResumoProducao r set r.quantidade = r.quantidade + :quantidade, r.ordens = r.ordens + :ordens " +
+            "where r.granularidade = :granularidade and r.inicio = :inicio and r.produtoId = :produtoId")
+    int acumular(@Param("granularidade") GranularidadeResumo granularidade, @Param("inicio") LocalDateTime inicio,
+                 @Param("produtoId") String produtoId, @Param("quantidade") double quantidade, @Param("ordens") long ordens);
+
+    // Linha zerada do período; não faz nada se outra transação já a criou
+    @Modifying
+    @Query(value = "insert into resumo_producao (granularidade, inicio, produto_id, quantidade, ordens) " +
+            "values (:granularidade, :inicio, :produtoId, 0, 0) on conflict do nothing", nativeQuery = true)
+    int criarSeAusente(@Param("granularidade") String granularidade, @Param("inicio") LocalDateTime inicio,
+                       @Param("produtoId") String produtoId);
+
+    // Unidades produzidas nos períodos em [inicio, fim), somando todos os produtos
+    @Query("select coalesce(sum(r.quantidade), 0) from ResumoProducao r " +
+            "where r.granularidade = :granularidade and r.inicio >= :inicio and r.inicio < :fim")
+    double somarPeriodo(@Param("granularidade") GranularidadeResumo granularidade,
+                        @Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+}
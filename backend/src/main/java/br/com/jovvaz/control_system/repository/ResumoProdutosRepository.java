@@ -0,0 +1,34 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.model.GranularidadeResumo;
+import br.com.jovvaz.control_system.model.ResumoProdutos;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ResumoProdutosRepository extends JpaRepository<ResumoProdutos, ResumoProdutos.Chave> {
+
+    // Soma ao período; retorna 0 quando a linha do período ainda não existe
+    @Modifying
+    @Query("update ResumoProdutos r set r.criados = r.criados + :criados, r.excluidos = r.excluidos + :excluidos " +
+            "where r.granularidade = :granularidade and r.inicio = :inicio")
+    int acumular(@Param("granularidade") GranularidadeResumo granularidade, @Param("inicio") LocalDateTime inicio,
+                 @Param("criados") long criados, @Param("excluidos") long excluidos);
+
+    // Linha zerada do período; não faz nada se outra transação já a criou
+    @Modifying
+    @Query(value = "insert into resumo_produtos (granularidade, inicio, criados, excluidos) " +
+            "values (:granularidade, :inicio, 0, 0) on conflict do nothing", nativeQuery = true)
+    int criarSeAusente(@Param("granularidade") String granularidade, @Param("inicio") LocalDateTime inicio);
+
+    // Saldo de cadastros (criados - excluídos) nos períodos em [inicio, fim)
+    @Query("select coalesce(sum(r.criados - r.excluidos), 0) from ResumoProdutos r " +
+            "where r.granularidade = :granularidade and r.inicio >= :inicio and r.inicio < :fim")
+    long somarVariacao(@Param("granularidade") GranularidadeResumo granularidade,
+                       @Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+}
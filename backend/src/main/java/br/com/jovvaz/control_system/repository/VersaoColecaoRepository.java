@@ -0,0 +1,27 @@
+package br.com.jovvaz.control_system.repository;
+
+import br.com.jovvaz.control_system.model.VersaoColecao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface VersaoColecaoRepository extends JpaRepository<VersaoColecao, String> {
+
+    // Retorna quantas coleções existiam; as ausentes são criadas com criarSeAusente
+    @Modifying(flushAutomatically = true)
+    @Query("update VersaoColecao v set v.versao = v.versao + 1 where v.colecao in :colecoes")
+    int incrementar(@Param("colecoes") Collection<String> colecoes);
+
+    @Modifying
+    @Query(value = "insert into versoes_colecoes (colecao, versao) values (:colecao, 1) on conflict do nothing", nativeQuery = true)
+    int criarSeAusente(@Param("colecao") String colecao);
+
+    @Query("select v.colecao, v.versao from VersaoColecao v where v.colecao in :colecoes")
+    List<Object[]> findVersoes(@Param("colecoes") Collection<String> colecoes);
+}
@@ -0,0 +1,198 @@
+package br.com.jovvaz.control_system.service;
+
+/**
+ * Escolhe quais ordens atender quando as matérias-primas não bastam para todas (mochila multidimensional).
+ * Heurística gulosa sobre arrays primitivos: cada ordem recebe uma nota valor / custo, onde o custo pondera
+ * o consumo de cada material pela sua escassez (demanda total / saldo). As ordens são aceitas em ordem de nota
+ * enquanto couberem. Algumas ponderações diferentes são tentadas e fica o plano de maior valor.
+ * Custo: O(k · (nnz + n log n)), com n ordens, nnz linhas de consumo e k ponderações.
+ *
+ * O consumo da ordem i ocupa as posições [inicio[i], inicio[i + 1]) de {@code material}/{@code consumo}.
+ * Ordens fixas (já em execução) são aceitas primeiro, na ordem dada, e consomem o saldo antes das demais.
+ * Ordens não fixas com valor zero não são planejadas: ficam fora do plano, sem material limitante.
+ */
+final class AlocadorMateriais {
+
+    private static final double TOLERANCIA = 1e-9;
+
+    private AlocadorMateriais() {
+    }
+
+    static final class Resultado {
+        // Índices das ordens aceitas, na sequência de execução
+        final int[] sequencia;
+        // Por ordem: material que impediu o atendimento, ou -1 se aceita
+        final int[] limitante;
+        final double valorTotal;
+
+        private Resultado(int[] sequencia, int[] limitante, double valorTotal) {
+            this.sequencia = sequencia;
+            this.limitante = limitante;
+            this.valorTotal = valorTotal;
+        }
+    }
+
+    static Resultado alocar(double[] estoque, int[] inicio, int[] material, double[] consumo,
+                            double[] valor, boolean[] fixa) {
+        int n = valor.length;
+        double[] saldoBase = new double[estoque.length];
+        for (int j = 0; j < estoque.length; j++) {
+            saldoBase[j] = Math.max(0.0, estoque[j]);
+        }
+
+        // Ordens fixas consomem primeiro
+        int[] limitante = new int[n];
+        int[] sequenciaFixas = new int[n];
+        int fixasAceitas = 0;
+        double valorFixas = 0.0;
+        boolean[] candidata = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            limitante[i] = -1;
+            if (!fixa[i]) {
+                candidata[i] = true;
+                continue;
+            }
+            int falta = primeiroFaltante(saldoBase, inicio, material, consumo, i);
+            if (falta >= 0) {
+                limitante[i] = falta;
+            } else {
+                consumir(saldoBase, inicio, material, consumo, i);
+                sequenciaFixas[fixasAceitas++] = i;
+                valorFixas += valor[i];
+            }
+        }
+
+        // Ordens que não cabem nem sozinhas ficam de fora de todas as tentativas
+        int[] candidatas = new int[n];
+        int totalCandidatas = 0;
+        double[] demanda = new double[estoque.length];
+        for (int i = 0; i < n; i++) {
+            if (!candidata[i] || !(valor[i] > 0)) {
+                continue;
+            }
+            int falta = primeiroFaltante(saldoBase, inicio, material, consumo, i);
+            if (falta >= 0) {
+                limitante[i] = falta;
+                continue;
+            }
+            candidatas[totalCandidatas++] = i;
+            for (int k = inicio[i]; k < inicio[i + 1]; k++) {
+                demanda[material[k]] += consumo[k];
+            }
+        }
+
+        // Escassez por material: quanto a demanda excede o saldo (0 quando há para todos)
+        double[] escassez = new double[estoque.length];
+        for (int j = 0; j < estoque.length; j++) {
+            if (demanda[j] > saldoBase[j] + TOLERANCIA) {
+                escassez[j] = demanda[j] / Math.max(saldoBase[j], TOLERANCIA);
+            }
+        }
+
+        int[] melhorSequencia = null;
+        int melhorTamanho = 0;
+        double melhorValor = -1.0;
+        double[] nota = new double[n];
+        double[] saldo = new double[estoque.length];
+        int[] ordem = new int[totalCandidatas];
+        int[] aceitas = new int[totalCandidatas];
+        int[] auxiliar = new int[totalCandidatas];
+
+        // 0: consumo ponderado pela escassez; 1: consumo relativo ao saldo; 2: apenas valor (desempate por idade)
+        for (int ponderacao = 0; ponderacao < 3; ponderacao++) {
+            for (int c = 0; c < totalCandidatas; c++) {
+                int i = candidatas[c];
+                double custo = 0.0;
+                if (ponderacao < 2) {
+                    for (int k = inicio[i]; k < inicio[i + 1]; k++) {
+                        int j = material[k];
+                        double relativo = consumo[k] / Math.max(saldoBase[j], TOLERANCIA);
+                        custo += ponderacao == 0 ? relativo * escassez[j] : relativo;
+                    }
+                }
+                if (ponderacao == 2) {
+                    nota[i] = valor[i];
+                } else {
+                    nota[i] = custo > 0 ? valor[i] / custo : Double.POSITIVE_INFINITY;
+                }
+                ordem[c] = i;
+            }
+            ordenarDecrescente(ordem, totalCandidatas, nota, auxiliar);
+
+            System.arraycopy(saldoBase, 0, saldo, 0, saldo.length);
+            int total = 0;
+            double valorPlano = 0.0;
+            for (int c = 0; c < totalCandidatas; c++) {
+                int i = ordem[c];
+                if (primeiroFaltante(saldo, inicio, material, consumo, i) < 0) {
+                    consumir(saldo, inicio, material, consumo, i);
+                    aceitas[total++] = i;
+                    valorPlano += valor[i];
+                }
+            }
+            if (valorPlano > melhorValor + TOLERANCIA) {
+                melhorValor = valorPlano;
+                melhorTamanho = total;
+                melhorSequencia = aceitas.clone();
+            }
+        }
+
+        // Limitante das recusadas: primeiro material que falta após aplicar o plano escolhido
+        int[] sequencia = new int[fixasAceitas + melhorTamanho];
+        System.arraycopy(sequenciaFixas, 0, sequencia, 0, fixasAceitas);
+        System.arraycopy(saldoBase, 0, saldo, 0, saldo.length);
+        boolean[] aceita = new boolean[n];
+        for (int c = 0; c < melhorTamanho; c++) {
+            int i = melhorSequencia[c];
+            sequencia[fixasAceitas + c] = i;
+            aceita[i] = true;
+            consumir(saldo, inicio, material, consumo, i);
+        }
+        for (int c = 0; c < totalCandidatas; c++) {
+            int i = candidatas[c];
+            if (!aceita[i]) {
+                // Não coube quando havia mais saldo; com o plano aplicado continua sem caber
+                limitante[i] = primeiroFaltante(saldo, inicio, material, consumo, i);
+            }
+        }
+        return new Resultado(sequencia, limitante, valorFixas + Math.max(0.0, melhorValor));
+    }
+
+    private static int primeiroFaltante(double[] saldo, int[] inicio, int[] material, double[] consumo, int i) {
+        for (int k = inicio[i]; k < inicio[i + 1]; k++) {
+            if (consumo[k] > saldo[material[k]] + TOLERANCIA) {
+                return material[k];
+            }
+        }
+        return -1;
+    }
+
+    private static void consumir(double[] saldo, int[] inicio, int[] material, double[] consumo, int i) {
+        for (int k = inicio[i]; k < inicio[i + 1]; k++) {
+            saldo[material[k]] -= consumo[k];
+        }
+    }
+
+    // Merge sort estável dos índices por nota decrescente: empates preservam a ordem de entrada (mais antigas primeiro)
+    private static void ordenarDecrescente(int[] indices, int tamanho, double[] nota, int[] auxiliar) {
+        for (int largura = 1; largura < tamanho; largura *= 2) {
+            for (int esquerda = 0; esquerda < tamanho - largura; esquerda += 2 * largura) {
+                int meio = esquerda + largura;
+                int direita = Math.min(esquerda + 2 * largura, tamanho);
+                int a = esquerda;
+                int b = meio;
+                int destino = esquerda;
+                while (a < meio && b < direita) {
+                    auxiliar[destino++] = nota[indices[b]] > nota[indices[a]] ? indices[b++] : indices[a++];
+                }
+                while (a < meio) {
+                    auxiliar[destino++] = indices[a++];
+                }
+                while (b < direita) {
+                    auxiliar[destino++] = indices[b++];
+                }
+                System.arraycopy(auxiliar, esquerda, indices, esquerda, direita - esquerda);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package br.com.jovvaz.control_system.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursores opacos da paginação por keyset: chave de ordenação + ID do último item entregue, em base64 URL-safe.
+ * O ID nunca contém quebra de linha; a chave (ex.: nome) pode conter, por isso o separador é o último.
+ */
+final class Cursores {
+
+    private Cursores() {
+    }
+
+    static String codificar(String chave, String id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((chave + "\n" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // {chave, id}; IllegalArgumentException para cursores malformados
+    static String[] decodificar(String cursor) {
+        String texto;
+        try {
+            texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
+        int separador = texto.lastIndexOf('\n');
+        if (separador < 0 || separador == texto.length() - 1) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
+        return new String[]{texto.substring(0, separador), texto.substring(separador + 1)};
+    }
+}
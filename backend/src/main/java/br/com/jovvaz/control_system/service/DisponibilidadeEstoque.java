@@ -0,0 +1,189 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.ProdutoEstoqueView;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import br.com.jovvaz.control_system.repository.ReservaEstoqueRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tabela em memória de saldo e quantidade reservada por produto; disponível para prometer = saldo - reservado.
+ * Carregada do banco no primeiro uso e mantida pelos serviços de estoque e de reserva:
+ * movimentações e liberações entram após o commit, reservas entram na hora e são desfeitas se a transação reverter.
+ * Todas as operações são O(componentes) sob um único monitor; consultas de viabilidade não vão ao banco.
+ * O saldo físico continua garantido pelos UPDATEs condicionais; esta tabela só decide o que pode ser prometido.
+ * <p>
+ * A tabela é relida do banco a cada intervalo de reconciliação (o que traz as movimentações de outras instâncias)
+ * ou quando marcada como divergente, pelo {@link Reconciliador}: um produto com delta pendente durante a leitura
+ * mantém o valor em memória e é relido depois, assim que estiver sem deltas pendentes.
+ */
+@Component
+public class DisponibilidadeEstoque {
+
+    private static final int SALDO = 0;
+    private static final int RESERVADO = 1;
+
+    private final ProdutoRepository produtoRepository;
+    private final ReservaEstoqueRepository reservaEstoqueRepository;
+    private final Reconciliador<String, double[]> reconciliador;
+
+    // produtoId -> {saldo, reservado}; guardado por this
+    private Map<String, double[]> posicoes = new HashMap<>();
+
+    public DisponibilidadeEstoque(ProdutoRepository produtoRepository, ReservaEstoqueRepository reservaEstoqueRepository,
+                                  @Value("${app.estoque.disponibilidade.reconciliacao-ms:60000}") long intervaloReconciliacaoMs) {
+        this.produtoRepository = produtoRepository;
+        this.reservaEstoqueRepository = reservaEstoqueRepository;
+        this.reconciliador = new Reconciliador<>(this, TimeUnit.MILLISECONDS.toNanos(intervaloReconciliacaoMs),
+                this::lerDoBanco, this::substituir, this::substituirTodas);
+    }
+
+    public double disponivel(String produtoId) {
+        reconciliador.garantirAtualizado();
+        synchronized (this) {
+            double[] posicao = posicoes.get(produtoId);
+            return posicao != null ? posicao[SALDO] - posicao[RESERVADO] : 0.0;
+        }
+    }
+
+    public double reservado(String produtoId) {
+        reconciliador.garantirAtualizado();
+        synchronized (this) {
+            double[] posicao = posicoes.get(produtoId);
+            return posicao != null ? posicao[RESERVADO] : 0.0;
+        }
+    }
+
+    /**
+     * Reserva todas as quantidades ou nenhuma: se algum produto não tiver disponível suficiente, nada é alterado.
+     * A reserva vale na hora, para que ordens concorrentes a enxerguem, e é desfeita se a transação reverter.
+     */
+    public boolean reservar(String[] produtoIds, double[] quantidades) {
+        reconciliador.garantirAtualizado();
+        synchronized (this) {
+            for (int i = 0; i < produtoIds.length; i++) {
+                if (disponivelSemCarga(produtoIds[i]) < quantidades[i]) {
+                    return false;
+                }
+            }
+            ajustarReservado(produtoIds, quantidades, 1.0);
+            reconciliador.registrar(Arrays.asList(produtoIds), null, () -> ajustarReservado(produtoIds, quantidades, -1.0));
+            return true;
+        }
+    }
+
+    /**
+     * Chamado na transação que apagou as reservas; a liberação entra após o commit.
+     */
+    public void liberarAposCommit(String[] produtoIds, double[] quantidades) {
+        reconciliador.registrar(Arrays.asList(produtoIds), () -> ajustarReservado(produtoIds, quantidades, -1.0), null);
+    }
+
+    /**
+     * Chamado na transação da movimentação de estoque; delta positivo para entradas. Entra após o commit.
+     */
+    public void aplicarMovimentoAposCommit(String produtoId, double delta) {
+        reconciliador.registrar(List.of(produtoId), () -> posicao(produtoId)[SALDO] += delta, null);
+    }
+
+    public void aplicarMovimentosAposCommit(Map<String, Double> deltas) {
+        reconciliador.registrar(List.copyOf(deltas.keySet()),
+                () -> deltas.forEach((produtoId, delta) -> posicao(produtoId)[SALDO] += delta), null);
+    }
+
+    /**
+     * Chamado na transação que exclui o produto; a posição só sai da tabela após o commit.
+     */
+    public void removerAposCommit(String produtoId) {
+        reconciliador.registrar(List.of(produtoId), () -> posicoes.remove(produtoId), null);
+    }
+
+    /**
+     * Recarrega a tabela inteira na próxima consulta.
+     */
+    public void marcarDivergencia() {
+        reconciliador.marcarDivergencia();
+    }
+
+    /**
+     * O banco mostrou um disponível diferente do da tabela para estes produtos: são relidos na próxima consulta.
+     */
+    public void marcarDivergencia(Collection<String> produtoIds) {
+        reconciliador.conferir(produtoIds);
+    }
+
+    /**
+     * Confere o saldo em memória com o lido do banco; se diferirem, o produto é relido.
+     */
+    public synchronized void conferirSaldo(String produtoId, double saldoNoBanco) {
+        if (!reconciliador.carregado()) {
+            return;
+        }
+        double[] posicao = posicoes.get(produtoId);
+        if (Math.abs((posicao != null ? posicao[SALDO] : 0.0) - saldoNoBanco) > 1e-9) {
+            reconciliador.conferir(List.of(produtoId));
+        }
+    }
+
+    private void ajustarReservado(String[] produtoIds, double[] quantidades, double sinal) {
+        for (int i = 0; i < produtoIds.length; i++) {
+            double[] posicao = posicao(produtoIds[i]);
+            posicao[RESERVADO] = Math.max(0.0, posicao[RESERVADO] + sinal * quantidades[i]);
+        }
+    }
+
+    private double disponivelSemCarga(String produtoId) {
+        double[] posicao = posicoes.get(produtoId);
+        return posicao != null ? posicao[SALDO] - posicao[RESERVADO] : 0.0;
+    }
+
+    private double[] posicao(String produtoId) {
+        return posicoes.computeIfAbsent(produtoId, id -> new double[2]);
+    }
+
+    // produtoIds nulo: tabela inteira
+    private Map<String, double[]> lerDoBanco(Set<String> produtoIds) {
+        Map<String, double[]> lidas = new HashMap<>();
+        List<ProdutoEstoqueView> estoques = produtoIds == null
+                ? produtoRepository.findTodosEstoques()
+                : produtoRepository.findEstoques(produtoIds);
+        for (ProdutoEstoqueView estoque : estoques) {
+            lidas.computeIfAbsent(estoque.getId(), id -> new double[2])[SALDO] = estoque.getQuantidadeEmEstoque();
+        }
+        List<Object[]> reservas = produtoIds == null
+                ? reservaEstoqueRepository.findTotaisPorProduto()
+                : reservaEstoqueRepository.findTotaisPorProdutos(produtoIds);
+        for (Object[] linha : reservas) {
+            lidas.computeIfAbsent((String) linha[0], id -> new double[2])[RESERVADO] = ((Number) linha[1]).doubleValue();
+        }
+        return lidas;
+    }
+
+    private void substituir(String produtoId, double[] lida) {
+        if (lida != null) {
+            posicoes.put(produtoId, lida);
+        } else {
+            posicoes.remove(produtoId);
+        }
+    }
+
+    private void substituirTodas(Map<String, double[]> lidas, Set<String> mantidas) {
+        for (String produtoId : mantidas) {
+            double[] atual = posicoes.get(produtoId);
+            if (atual != null) {
+                lidas.put(produtoId, atual);
+            } else {
+                lidas.remove(produtoId);
+            }
+        }
+        posicoes = lidas;
+    }
+}
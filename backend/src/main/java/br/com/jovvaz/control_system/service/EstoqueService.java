@@ -1,30 +1,85 @@
 package br.com.jovvaz.control_system.service;
 
+import br.com.jovvaz.control_system.dto.CacheEstatisticasDTO;
+import br.com.jovvaz.control_system.dto.MovimentacaoLoteItemDTO;
+import br.com.jovvaz.control_system.dto.MovimentacaoLoteResultadoDTO;
+import br.com.jovvaz.control_system.dto.PaginaDTO;
+import br.com.jovvaz.control_system.dto.ProdutoEstoqueView;
 import br.com.jovvaz.control_system.dto.ProdutoRequestDTO;
 import br.com.jovvaz.control_system.model.*;
 import br.com.jovvaz.control_system.repository.FichaTecnicaComponenteRepository;
 import br.com.jovvaz.control_system.repository.FichaTecnicaRepository;
 import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import br.com.jovvaz.control_system.repository.ReservaEstoqueRepository;
+import br.com.jovvaz.control_system.service.VersoesColecoes.Colecao;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 public class EstoqueService {
 
+    // Limites do lançamento em lote: tamanho máximo do lote e quantidade de IDs por SELECT ... FOR UPDATE
+    private static final int LIMITE_LINHAS_LOTE = 5000;
+    private static final int TAMANHO_BLOCO_LOCK = 500;
+    // Tipos aceitos no lote; ENTRADA_PRODUCAO e SAIDA_PRODUCAO só são lançados pela execução de ordens (ProducaoService)
+    private static final Set<TipoMovimentacao> TIPOS_LOTE =
+            EnumSet.of(TipoMovimentacao.ENTRADA, TipoMovimentacao.SAIDA_VENDA, TipoMovimentacao.AJUSTE);
+    // Itens por página na listagem paginada
+    private static final int LIMITE_MAXIMO_PAGINA = 500;
+    // Nome do contador de IDs numéricos de produto em contadores_id
+    private static final String CONTADOR_PRODUTOS = "produtos";
+
     private final ProdutoRepository produtoRepository;
+    private final ReservaEstoqueRepository reservaEstoqueRepository;
     private final FichaTecnicaRepository fichaTecnicaRepository;
     private final FichaTecnicaComponenteRepository fichaTecnicaComponenteRepository;
+    private final MovimentacaoEstoqueService movimentacaoEstoqueService;
+    private final FichaTecnicaCache fichaTecnicaCache;
+    private final DisponibilidadeEstoque disponibilidadeEstoque;
+    private final GeradorIdNumerico geradorIdNumerico;
+    private final ProdutoCache produtoCache;
+    private final VersoesColecoes versoesColecoes;
+    private final MetricasDashboard metricasDashboard;
+    private final ResumoPeriodoService resumoPeriodoService;
 
     public EstoqueService(ProdutoRepository produtoRepository,
+                          ReservaEstoqueRepository reservaEstoqueRepository,
                           FichaTecnicaRepository fichaTecnicaRepository,
-                          FichaTecnicaComponenteRepository fichaTecnicaComponenteRepository) {
+                          FichaTecnicaComponenteRepository fichaTecnicaComponenteRepository,
+                          MovimentacaoEstoqueService movimentacaoEstoqueService,
+                          FichaTecnicaCache fichaTecnicaCache,
+                          DisponibilidadeEstoque disponibilidadeEstoque,
+                          GeradorIdNumerico geradorIdNumerico,
+                          ProdutoCache produtoCache,
+                          VersoesColecoes versoesColecoes,
+                          MetricasDashboard metricasDashboard,
+                          ResumoPeriodoService resumoPeriodoService) {
         this.produtoRepository = produtoRepository;
+        this.reservaEstoqueRepository = reservaEstoqueRepository;
         this.fichaTecnicaRepository = fichaTecnicaRepository;
         this.fichaTecnicaComponenteRepository = fichaTecnicaComponenteRepository;
+        this.movimentacaoEstoqueService = movimentacaoEstoqueService;
+        this.fichaTecnicaCache = fichaTecnicaCache;
+        this.disponibilidadeEstoque = disponibilidadeEstoque;
+        this.geradorIdNumerico = geradorIdNumerico;
+        this.produtoCache = produtoCache;
+        this.versoesColecoes = versoesColecoes;
+        this.metricasDashboard = metricasDashboard;
+        this.resumoPeriodoService = resumoPeriodoService;
     }
 
     @Transactional
@@ -65,7 +120,12 @@ public class EstoqueService {
                 throw new IllegalArgumentException("O estoque recomendado deve ser maior ou igual ao estoque mínimo.");
             }
         }
-        return produtoRepository.save(novoProduto);
+        Produto salvo = produtoRepository.save(novoProduto);
+        produtoCache.atualizarAposCommit(salvo);
+        metricasDashboard.registrarProdutoAposCommit(salvo);
+        resumoPeriodoService.registrarProdutoCriado();
+        versoesColecoes.registrarAlteracao(Colecao.PRODUTOS, Colecao.CADASTRO_PRODUTOS);
+        return salvo;
     }
 
     @Transactional
@@ -74,23 +134,229 @@ public class EstoqueService {
             throw new IllegalArgumentException("Erro: ID do produto '" + id + "' já existe.");
         }
         Produto novoProduto = new Produto(id, nome, desc, tipo, unidadeMedida);
-        return produtoRepository.save(novoProduto);
+        Produto salvo = produtoRepository.save(novoProduto);
+        produtoCache.atualizarAposCommit(salvo);
+        metricasDashboard.registrarProdutoAposCommit(salvo);
+        resumoPeriodoService.registrarProdutoCriado();
+        versoesColecoes.registrarAlteracao(Colecao.PRODUTOS, Colecao.CADASTRO_PRODUTOS);
+        return salvo;
     }
 
     @Transactional
     public Produto darEntrada(String produtoId, double quantidade) {
-        Produto produto = produtoRepository.findById(produtoId)
-                .orElseThrow(() -> new EntityNotFoundException("Produto não encontrado com o ID: " + produtoId));
-        produto.darEntrada(quantidade);
-        return produtoRepository.save(produto);
+        incrementar(produtoId, quantidade);
+        movimentacaoEstoqueService.registrar(produtoId, TipoMovimentacao.ENTRADA, quantidade, null);
+        return relerParaCache(produtoId);
     }
 
     @Transactional
     public Produto darBaixa(String produtoId, double quantidade) {
+        // Venda não consome o que está reservado para ordens de produção abertas
+        decrementar(produtoId, quantidade, true);
+        movimentacaoEstoqueService.registrar(produtoId, TipoMovimentacao.SAIDA_VENDA, -quantidade, null);
+        return relerParaCache(produtoId);
+    }
+
+    // A releitura após o UPDATE traz saldo e versão gravados: o cache é atualizado no lugar.
+    // darEntrada/darBaixa não carregam o produto antes do UPDATE, então findById vai ao banco
+    private Produto relerParaCache(String produtoId) {
         Produto produto = produtoRepository.findById(produtoId)
                 .orElseThrow(() -> new EntityNotFoundException("Produto não encontrado com o ID: " + produtoId));
-        produto.darBaixa(quantidade);
-        return produtoRepository.save(produto);
+        produtoCache.atualizarAposCommit(produto);
+        return produto;
+    }
+
+    /**
+     * Soma a quantidade ao estoque com um único UPDATE condicional, sem ler o produto antes.
+     * Não devolve a entidade nem registra a movimentação; usado por fluxos internos (produção)
+     * que registram seus lançamentos de uma vez ao final.
+     */
+    @Transactional
+    public void aplicarEntrada(String produtoId, double quantidade) {
+        incrementar(produtoId, quantidade);
+        // Sem releitura, a versão gravada é desconhecida: o cache relê o produto no próximo acesso
+        produtoCache.invalidarAposCommit(produtoId);
+    }
+
+    /**
+     * Subtrai a quantidade do estoque somente se houver saldo suficiente, em um único UPDATE.
+     * Requisições concorrentes nunca sobrescrevem a baixa uma da outra.
+     * Baixa de produção: a ordem consome a própria reserva, então o reservado não é descontado aqui.
+     */
+    @Transactional
+    public void aplicarBaixa(String produtoId, double quantidade) {
+        decrementar(produtoId, quantidade, false);
+        produtoCache.invalidarAposCommit(produtoId);
+    }
+
+    private void incrementar(String produtoId, double quantidade) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("Quantidade de entrada deve ser positiva.");
+        }
+        if (produtoRepository.incrementarEstoque(produtoId, quantidade) == 0) {
+            throw new EntityNotFoundException("Produto não encontrado com o ID: " + produtoId);
+        }
+        disponibilidadeEstoque.aplicarMovimentoAposCommit(produtoId, quantidade);
+        metricasDashboard.aplicarMovimentoAposCommit(produtoId, quantidade);
+        versoesColecoes.registrarAlteracao(Colecao.PRODUTOS);
+    }
+
+    // respeitarReservas: saldo - reservado >= quantidade, no mesmo UPDATE condicional
+    private void decrementar(String produtoId, double quantidade, boolean respeitarReservas) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("Quantidade de baixa deve ser positiva.");
+        }
+        int afetados = respeitarReservas
+                ? produtoRepository.decrementarEstoqueNaoReservado(produtoId, quantidade)
+                : produtoRepository.decrementarEstoqueSeDisponivel(produtoId, quantidade);
+        if (afetados == 0) {
+            // Nenhuma linha afetada: ou o produto não existe, ou o saldo (ou o disponível) não basta.
+            // Projeção em vez de findById: uma instância já gerenciada na transação traria o saldo anterior
+            ProdutoEstoqueView estoque = produtoRepository.findEstoques(List.of(produtoId)).stream().findFirst()
+                    .orElseThrow(() -> new EntityNotFoundException("Produto não encontrado com o ID: " + produtoId));
+            // Quem chamou pode ter decidido pela tabela em memória, atrasada em relação a outras instâncias
+            disponibilidadeEstoque.conferirSaldo(produtoId, estoque.getQuantidadeEmEstoque());
+            if (respeitarReservas && estoque.getQuantidadeEmEstoque() >= quantidade) {
+                double reservado = totaisReservados(List.of(produtoId)).getOrDefault(produtoId, 0.0);
+                throw new IllegalStateException(mensagemReservado(estoque.getQuantidadeEmEstoque(), reservado, quantidade));
+            }
+            throw new IllegalStateException("Estoque insuficiente. Disponível: " + estoque.getQuantidadeEmEstoque() + ", Solicitado: " + quantidade);
+        }
+        disponibilidadeEstoque.aplicarMovimentoAposCommit(produtoId, -quantidade);
+        metricasDashboard.aplicarMovimentoAposCommit(produtoId, -quantidade);
+        versoesColecoes.registrarAlteracao(Colecao.PRODUTOS);
+    }
+
+    private Map<String, Double> totaisReservados(Collection<String> produtoIds) {
+        Map<String, Double> totais = new HashMap<>();
+        for (Object[] linha : reservaEstoqueRepository.findTotaisPorProdutos(produtoIds)) {
+            totais.put((String) linha[0], ((Number) linha[1]).doubleValue());
+        }
+        return totais;
+    }
+
+    private static String mensagemReservado(double saldo, double reservado, double quantidade) {
+        return "Estoque reservado para ordens de produção. Saldo: " + saldo + ", Reservado: " + reservado
+                + ", Disponível: " + (saldo - reservado) + ", Solicitado: " + quantidade;
+    }
+
+    /**
+     * Aplica um lote de movimentações em uma única transação.
+     * Os produtos envolvidos são travados uma vez, em ordem de ID, e os saldos finais
+     * são gravados pelo flush com batch do Hibernate. Linhas inválidas não interrompem o lote:
+     * são reportadas no resultado e não alteram o estoque. Aceita ENTRADA, SAIDA_VENDA e AJUSTE;
+     * tipos de produção vêm só da execução de ordens. Saídas (SAIDA_VENDA e AJUSTE negativo)
+     * não podem consumir o que está reservado para ordens de produção abertas.
+     */
+    @Transactional
+    public List<MovimentacaoLoteResultadoDTO> aplicarMovimentacoesEmLote(List<MovimentacaoLoteItemDTO> itens) {
+        if (itens == null || itens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (itens.size() > LIMITE_LINHAS_LOTE) {
+            throw new IllegalArgumentException("O lote deve ter no máximo " + LIMITE_LINHAS_LOTE + " linhas.");
+        }
+
+        // TreeSet: IDs distintos já ordenados para a aquisição dos locks
+        TreeSet<String> ids = new TreeSet<>();
+        Set<String> idsComSaida = new HashSet<>();
+        for (MovimentacaoLoteItemDTO item : itens) {
+            if (item != null && item.getProdutoId() != null) {
+                ids.add(item.getProdutoId());
+                if (ehSaida(item)) {
+                    idsComSaida.add(item.getProdutoId());
+                }
+            }
+        }
+        Map<String, Produto> produtos = new HashMap<>();
+        List<String> idsOrdenados = new ArrayList<>(ids);
+        for (int inicio = 0; inicio < idsOrdenados.size(); inicio += TAMANHO_BLOCO_LOCK) {
+            List<String> bloco = idsOrdenados.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_LOCK, idsOrdenados.size()));
+            for (Produto p : produtoRepository.findAllParaAtualizacao(bloco)) {
+                produtos.put(p.getId(), p);
+            }
+        }
+        // Reservas lidas com os produtos já travados; só para os produtos com linhas de saída
+        Map<String, Double> reservados = new HashMap<>();
+        List<String> idsSaida = new ArrayList<>(idsComSaida);
+        for (int inicio = 0; inicio < idsSaida.size(); inicio += TAMANHO_BLOCO_LOCK) {
+            reservados.putAll(totaisReservados(idsSaida.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_LOCK, idsSaida.size()))));
+        }
+
+        List<MovimentacaoLoteResultadoDTO> resultados = new ArrayList<>(itens.size());
+        List<MovimentacaoEstoque> lancamentos = new ArrayList<>(itens.size());
+        Map<String, Double> deltas = new HashMap<>();
+        LocalDateTime agora = LocalDateTime.now();
+        for (int linha = 0; linha < itens.size(); linha++) {
+            MovimentacaoLoteItemDTO item = itens.get(linha);
+            String produtoId = item != null ? item.getProdutoId() : null;
+            if (item == null || produtoId == null || item.getTipo() == null) {
+                resultados.add(MovimentacaoLoteResultadoDTO.falha(linha, produtoId, "Produto e tipo da movimentação são obrigatórios."));
+                continue;
+            }
+            if (!TIPOS_LOTE.contains(item.getTipo())) {
+                resultados.add(MovimentacaoLoteResultadoDTO.falha(linha, produtoId,
+                        "Tipo de movimentação não permitido no lote: " + item.getTipo() + ". Use ENTRADA, SAIDA_VENDA ou AJUSTE."));
+                continue;
+            }
+            Produto produto = produtos.get(produtoId);
+            if (produto == null) {
+                resultados.add(MovimentacaoLoteResultadoDTO.falha(linha, produtoId, "Produto não encontrado com o ID: " + produtoId));
+                continue;
+            }
+            if (ehSaida(item)) {
+                // Saldo insuficiente fica com a mensagem de Produto.darBaixa; aqui só o que esbarra no reservado
+                double saldo = produto.getQuantidadeEmEstoque();
+                double saida = item.getTipo() == TipoMovimentacao.AJUSTE ? -item.getQuantidade() : item.getQuantidade();
+                double reservado = reservados.getOrDefault(produtoId, 0.0);
+                if (saldo >= saida && saldo - reservado < saida) {
+                    resultados.add(MovimentacaoLoteResultadoDTO.falha(linha, produtoId, mensagemReservado(saldo, reservado, saida)));
+                    continue;
+                }
+            }
+            try {
+                double saldoAnterior = produto.getQuantidadeEmEstoque();
+                aplicarNoProduto(produto, item.getTipo(), item.getQuantidade());
+                double delta = produto.getQuantidadeEmEstoque() - saldoAnterior;
+                deltas.merge(produtoId, delta, Double::sum);
+                lancamentos.add(new MovimentacaoEstoque(produtoId, item.getTipo(), delta, agora, "Lote linha " + linha));
+                resultados.add(MovimentacaoLoteResultadoDTO.sucesso(linha, produtoId, produto.getQuantidadeEmEstoque()));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                resultados.add(MovimentacaoLoteResultadoDTO.falha(linha, produtoId, e.getMessage()));
+            }
+        }
+        movimentacaoEstoqueService.registrarTodas(lancamentos);
+        disponibilidadeEstoque.aplicarMovimentosAposCommit(deltas);
+        deltas.forEach(metricasDashboard::aplicarMovimentoAposCommit);
+        for (String produtoId : deltas.keySet()) {
+            produtoCache.atualizarAposCommit(produtos.get(produtoId));
+        }
+        if (!deltas.isEmpty()) {
+            versoesColecoes.registrarAlteracao(Colecao.PRODUTOS);
+        }
+        // Os produtos alterados são gerenciados: o flush no commit agrupa os UPDATEs e INSERTs em batch
+        return resultados;
+    }
+
+    private static boolean ehSaida(MovimentacaoLoteItemDTO item) {
+        return item.getTipo() == TipoMovimentacao.SAIDA_VENDA
+                || (item.getTipo() == TipoMovimentacao.AJUSTE && item.getQuantidade() < 0);
+    }
+
+    // Só os tipos de TIPOS_LOTE chegam aqui
+    private void aplicarNoProduto(Produto produto, TipoMovimentacao tipo, double quantidade) {
+        switch (tipo) {
+            case ENTRADA -> produto.darEntrada(quantidade);
+            case SAIDA_VENDA -> produto.darBaixa(quantidade);
+            case AJUSTE -> {
+                // Ajuste aceita quantidade com sinal: positiva soma, negativa subtrai
+                if (quantidade >= 0) {
+                    produto.darEntrada(quantidade);
+                } else {
+                    produto.darBaixa(-quantidade);
+                }
+            }
+        }
     }
 
     @Transactional
@@ -104,6 +370,11 @@ public class EstoqueService {
             }
         }
 
+        // Produtos acabados também podem ser subconjuntos de outras fichas
+        if (produto.getTipo() == TipoProduto.PRODUTO_ACABADO && fichaTecnicaComponenteRepository.existsByMateriaPrima(produto)) {
+            throw new IllegalStateException("Não é possível deletar: Produto Acabado está em uso como componente em uma Ficha Técnica.");
+        }
+
         if (produto.getTipo() == TipoProduto.PRODUTO_ACABADO) {
             Optional<FichaTecnica> fichaOpt = fichaTecnicaRepository.findByProdutoAcabado(produto);
             if (fichaOpt.isPresent()) {
@@ -111,16 +382,69 @@ public class EstoqueService {
                 fichaTecnicaComponenteRepository.deleteAll(ficha.getComponentes());
                 fichaTecnicaRepository.delete(ficha);
             }
+            fichaTecnicaCache.invalidar(produto.getId());
+            versoesColecoes.registrarAlteracao(Colecao.FICHAS_TECNICAS);
         }
         produtoRepository.delete(produto);
+        disponibilidadeEstoque.removerAposCommit(id);
+        produtoCache.removerAposCommit(id);
+        metricasDashboard.removerProdutoAposCommit(id);
+        resumoPeriodoService.registrarProdutoExcluido();
+        versoesColecoes.registrarAlteracao(Colecao.PRODUTOS, Colecao.CADASTRO_PRODUTOS);
     }
 
     public Optional<Produto> buscarPorId(String id) {
-        return produtoRepository.findById(id);
+        return produtoCache.buscarPorId(id);
     }
 
     public List<Produto> buscarTodos() {
-        return produtoRepository.findAll();
+        return produtoCache.buscarTodos();
+    }
+
+    // ETag da listagem de produtos: muda a cada alteração de cadastro ou saldo
+    public String etagCatalogo() {
+        return versoesColecoes.etag(Colecao.PRODUTOS);
+    }
+
+    /**
+     * Listagem paginada por cursor. O cursor é opaco para o cliente: carrega a chave de ordenação e o ID
+     * do último item entregue, e só vale para a mesma ordenação em que foi emitido.
+     */
+    public PaginaDTO<Produto> listarPagina(TipoProduto tipo, String prefixoNome, boolean estoqueBaixo,
+                                           String ordenacao, String cursor, int limite) {
+        boolean porNome;
+        if (ordenacao == null || ordenacao.equalsIgnoreCase("nome")) {
+            porNome = true;
+        } else if (ordenacao.equalsIgnoreCase("id")) {
+            porNome = false;
+        } else {
+            throw new IllegalArgumentException("Ordenação inválida: use 'nome' ou 'id'.");
+        }
+        int tamanho = Math.max(1, Math.min(limite, LIMITE_MAXIMO_PAGINA));
+
+        String aposChave = null;
+        String aposId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] partes = Cursores.decodificar(cursor);
+            aposChave = partes[0];
+            aposId = partes[1];
+        }
+
+        // Um item a mais indica se existe próxima página
+        List<Produto> itens = produtoRepository.buscarPagina(tipo, prefixoNome, estoqueBaixo, porNome,
+                aposChave, aposId, tamanho + 1);
+        String proximoCursor = null;
+        if (itens.size() > tamanho) {
+            itens = new ArrayList<>(itens.subList(0, tamanho));
+            Produto ultimo = itens.get(tamanho - 1);
+            String chave = porNome && ultimo.getNome() != null ? ultimo.getNome().toLowerCase(Locale.ROOT) : "";
+            proximoCursor = Cursores.codificar(chave, ultimo.getId());
+        }
+        return new PaginaDTO<>(itens, proximoCursor);
+    }
+
+    public CacheEstatisticasDTO estatisticasCacheProdutos() {
+        return produtoCache.estatisticas();
     }
 
     @Transactional
@@ -139,8 +463,12 @@ public class EstoqueService {
             existente.setUnidadeMedida(dto.getUnidadeMedida().trim());
         }
         // Atualização de tipo é opcional; habilitada aqui, mas pode ser restringida conforme regras de negócio
-        if (dto.getTipo() != null) {
+        if (dto.getTipo() != null && dto.getTipo() != existente.getTipo()) {
             existente.setTipo(dto.getTipo());
+            // Fichas compiladas e explosões guardam se cada componente é subconjunto: as que usam este produto ficam obsoletas,
+            // aqui e, pela versão, nas outras instâncias
+            fichaTecnicaRepository.incrementarVersaoDasFichasComComponente(existente.getId());
+            fichaTecnicaCache.invalidarTodas();
         }
 
         // Atualizar estoque mínimo/recomendado apenas para produto acabado
@@ -157,40 +485,41 @@ public class EstoqueService {
             }
         }
 
-        return produtoRepository.save(existente);
+        Produto salvo = produtoRepository.save(existente);
+        produtoCache.atualizarAposCommit(salvo);
+        metricasDashboard.registrarProdutoAposCommit(salvo);
+        versoesColecoes.registrarAlteracao(Colecao.PRODUTOS, Colecao.CADASTRO_PRODUTOS);
+        return salvo;
     }
 
     // Utilidades internas para IDs numéricos
     private String gerarProximoIdNumerico() {
-        // Busca todos os IDs, encontra o maior numérico e incrementa
-        List<Produto> todos = produtoRepository.findAll();
-        int max = 0;
-        for (Produto p : todos) {
-            String id = p.getId();
-            if (id != null && id.matches("\\d+")) {
-                try {
-                    int val = Integer.parseInt(id);
-                    if (val > max) max = val;
-                } catch (NumberFormatException ignored) {}
-            }
-        }
-        int proximo = max + 1;
-        String candidato = padronizarId(proximo);
-        // Se por algum motivo já existir (concorrência rara), incrementa até achar livre
-        int tentativa = proximo;
-        while (produtoRepository.existsById(candidato)) {
-            tentativa++;
-            candidato = padronizarId(tentativa);
-        }
+        // Valores vêm de blocos arrendados do contador: O(1) e sem colisão entre instâncias.
+        // Só pula valores ocupados por IDs informados manualmente.
+        String candidato;
+        do {
+            candidato = padronizarId(geradorIdNumerico.proximo(CONTADOR_PRODUTOS, this::maiorIdNumericoMaisUm));
+        } while (produtoRepository.existsById(candidato));
         return candidato;
     }
 
-    private String padronizarId(int valor) {
+    // Valor inicial do contador quando ele ainda não existe no banco (varredura única, só na primeira vez)
+    private long maiorIdNumericoMaisUm() {
+        long max = 0;
+        for (String id : produtoRepository.findTodosIds()) {
+            if (id != null && id.matches("\\d{1,18}")) {
+                max = Math.max(max, Long.parseLong(id));
+            }
+        }
+        return max + 1;
+    }
+
+    private String padronizarId(long valor) {
         // Pelo requisito, IDs com pelo menos 2 dígitos, zero à esquerda até 2
         if (valor < 0) valor = 0;
         if (valor < 100) {
             return String.format("%02d", valor);
         }
-        return Integer.toString(valor);
+        return Long.toString(valor);
     }
 }
\ No newline at end of file
@@ -0,0 +1,179 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.ExplosaoEstruturaDTO;
+import br.com.jovvaz.control_system.dto.NecessidadeMateriaPrimaDTO;
+import br.com.jovvaz.control_system.dto.ProdutoEstoqueView;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Explosão de estruturas multinível: achata a ficha de um produto, descendo pelos subconjuntos,
+ * até os itens consumidos do estoque (matérias-primas ou produtos acabados sem ficha).
+ * O resultado por unidade de cada produto, inclusive a ausência de ficha, é memorizado até a próxima
+ * alteração de ficha ou de tipo de produto.
+ */
+@Service
+public class ExplosaoEstruturaService {
+
+    private final FichaTecnicaCache fichaTecnicaCache;
+    private final ProdutoRepository produtoRepository;
+
+    // Estrutura achatada por unidade, por ID de produto, com a geração do cache de fichas em que foi calculada
+    private final ConcurrentHashMap<String, Explosao> explodidas = new ConcurrentHashMap<>();
+    private volatile long geracaoMemorizada = -1;
+
+    public ExplosaoEstruturaService(FichaTecnicaCache fichaTecnicaCache, ProdutoRepository produtoRepository) {
+        this.fichaTecnicaCache = fichaTecnicaCache;
+        this.produtoRepository = produtoRepository;
+    }
+
+    public ExplosaoEstruturaDTO explodir(String produtoAcabadoId, double quantidade) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("Quantidade deve ser maior que zero.");
+        }
+        FichaTecnicaCompilada achatada = explodirPorUnidade(produtoAcabadoId);
+
+        List<String> ids = new ArrayList<>(achatada.tamanho());
+        for (int i = 0; i < achatada.tamanho(); i++) {
+            ids.add(achatada.materiaPrimaId(i));
+        }
+        Map<String, ProdutoEstoqueView> estoques = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (ProdutoEstoqueView estoque : produtoRepository.findEstoques(ids)) {
+                estoques.put(estoque.getId(), estoque);
+            }
+        }
+
+        List<NecessidadeMateriaPrimaDTO> itens = new ArrayList<>(achatada.tamanho());
+        for (int i = 0; i < achatada.tamanho(); i++) {
+            ProdutoEstoqueView estoque = estoques.get(achatada.materiaPrimaId(i));
+            itens.add(new NecessidadeMateriaPrimaDTO(
+                    achatada.materiaPrimaId(i),
+                    estoque != null ? estoque.getNome() : achatada.materiaPrimaId(i),
+                    estoque != null ? estoque.getUnidadeMedida() : null,
+                    achatada.quantidadePorUnidade(i) * quantidade,
+                    estoque != null ? estoque.getQuantidadeEmEstoque() : 0.0
+            ));
+        }
+        return new ExplosaoEstruturaDTO(produtoAcabadoId, quantidade, itens);
+    }
+
+    /**
+     * Estrutura achatada para uma unidade do produto: itens de estoque ordenados por ID e quantidades acumuladas.
+     * Lança IllegalStateException se houver ciclo na estrutura.
+     */
+    public FichaTecnicaCompilada explodirPorUnidade(String produtoAcabadoId) {
+        long geracao = sincronizarGeracao();
+        FichaTecnicaCompilada achatada = explodir(produtoAcabadoId, new LinkedHashSet<>(), geracao);
+        if (achatada == null) {
+            throw new IllegalArgumentException("Ficha técnica não encontrada para o produto ID: " + produtoAcabadoId);
+        }
+        return achatada;
+    }
+
+    /**
+     * Indica se {@code alvoId} aparece em qualquer nível da estrutura de {@code raizId}.
+     * Usado para impedir que uma ficha passe a conter o próprio produto indiretamente.
+     */
+    public boolean contemNaEstrutura(String raizId, String alvoId) {
+        return contem(raizId, alvoId, new HashSet<>());
+    }
+
+    private boolean contem(String produtoId, String alvoId, Set<String> visitados) {
+        if (produtoId.equals(alvoId)) {
+            return true;
+        }
+        if (!visitados.add(produtoId)) {
+            return false;
+        }
+        FichaTecnicaCompilada ficha = fichaTecnicaCache.obter(produtoId).orElse(null);
+        if (ficha == null) {
+            return false;
+        }
+        for (int i = 0; i < ficha.tamanho(); i++) {
+            if (ficha.isSubconjunto(i) && contem(ficha.materiaPrimaId(i), alvoId, visitados)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // null quando o produto não tem ficha; a ausência também é memorizada
+    private FichaTecnicaCompilada explodir(String produtoId, LinkedHashSet<String> caminho, long geracao) {
+        Explosao memorizada = explodidas.get(produtoId);
+        // Entrada de outra geração: gravada por quem viu fichas que já foram invalidadas
+        if (memorizada != null && memorizada.geracao == geracao) {
+            return memorizada.estrutura;
+        }
+        if (!caminho.add(produtoId)) {
+            throw new IllegalStateException("Ciclo na estrutura do produto: " + String.join(" -> ", caminho) + " -> " + produtoId);
+        }
+
+        FichaTecnicaCompilada ficha = fichaTecnicaCache.obter(produtoId).orElse(null);
+        FichaTecnicaCompilada resultado;
+        if (ficha == null || !ficha.possuiSubconjuntos()) {
+            resultado = ficha; // sem ficha, ou já está achatada
+        } else {
+            // TreeMap mantém os itens ordenados por ID, como nas fichas compiladas
+            TreeMap<String, Double> acumulado = new TreeMap<>();
+            for (int i = 0; i < ficha.tamanho(); i++) {
+                String componenteId = ficha.materiaPrimaId(i);
+                double quantidade = ficha.quantidadePorUnidade(i);
+                FichaTecnicaCompilada sub = ficha.isSubconjunto(i) ? explodir(componenteId, caminho, geracao) : null;
+                if (sub != null) {
+                    for (int j = 0; j < sub.tamanho(); j++) {
+                        acumulado.merge(sub.materiaPrimaId(j), quantidade * sub.quantidadePorUnidade(j), Double::sum);
+                    }
+                } else {
+                    // Matéria-prima ou subconjunto sem ficha: consumido direto do estoque
+                    acumulado.merge(componenteId, quantidade, Double::sum);
+                }
+            }
+            String[] ids = new String[acumulado.size()];
+            double[] quantidades = new double[acumulado.size()];
+            int n = 0;
+            for (Map.Entry<String, Double> item : acumulado.entrySet()) {
+                ids[n] = item.getKey();
+                quantidades[n] = item.getValue();
+                n++;
+            }
+            resultado = new FichaTecnicaCompilada(produtoId, ids, quantidades);
+        }
+
+        caminho.remove(produtoId);
+        if (fichaTecnicaCache.geracao() == geracao) {
+            explodidas.put(produtoId, new Explosao(geracao, resultado));
+        }
+        return resultado;
+    }
+
+    // Descarta as explosões memorizadas quando alguma ficha foi invalidada desde a última consulta
+    private long sincronizarGeracao() {
+        long atual = fichaTecnicaCache.geracao();
+        if (geracaoMemorizada != atual) {
+            explodidas.clear();
+            geracaoMemorizada = atual;
+        }
+        return atual;
+    }
+
+    private static final class Explosao {
+        final long geracao;
+        final FichaTecnicaCompilada estrutura; // null: produto sem ficha
+
+        Explosao(long geracao, FichaTecnicaCompilada estrutura) {
+            this.geracao = geracao;
+            this.estrutura = estrutura;
+        }
+    }
+}
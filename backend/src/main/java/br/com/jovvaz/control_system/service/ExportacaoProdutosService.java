@@ -0,0 +1,117 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.ProdutoExportacaoDTO;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportação do catálogo completo (sincronização com o ERP) direto para o stream da resposta.
+ * As linhas são lidas por um cursor do banco e escritas uma a uma: o uso de memória não depende do tamanho do catálogo.
+ */
+@Service
+public class ExportacaoProdutosService {
+
+    public enum Formato { JSONL, CSV }
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+    private static final String CABECALHO_CSV =
+            "id,nome,desc,unidadeMedida,tipo,quantidadeEmEstoque,estoqueMinimo,estoqueRecomendado\n";
+
+    private final ProdutoRepository produtoRepository;
+    private final ObjectWriter escritorJson;
+    private final TransactionTemplate transacaoLeitura;
+
+    public ExportacaoProdutosService(ProdutoRepository produtoRepository, ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager) {
+        this.produtoRepository = produtoRepository;
+        this.escritorJson = objectMapper.writerFor(ProdutoExportacaoDTO.class);
+        // O cursor só funciona dentro de uma transação (no PostgreSQL o fetch size é ignorado em autocommit)
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+    }
+
+    public static Formato formato(String valor) {
+        if (valor == null || valor.equalsIgnoreCase("jsonl")) {
+            return Formato.JSONL;
+        }
+        if (valor.equalsIgnoreCase("csv")) {
+            return Formato.CSV;
+        }
+        throw new IllegalArgumentException("Formato inválido: use 'jsonl' ou 'csv'.");
+    }
+
+    /**
+     * Escreve o catálogo em ordem de ID. Não fecha o stream recebido.
+     */
+    public void exportar(Formato formato, OutputStream destino) throws IOException {
+        BufferedOutputStream saida = new BufferedOutputStream(destino, TAMANHO_BUFFER);
+        if (formato == Formato.CSV) {
+            saida.write(CABECALHO_CSV.getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            transacaoLeitura.executeWithoutResult(status -> {
+                try (Stream<ProdutoExportacaoDTO> linhas = produtoRepository.streamExportacao()) {
+                    Iterator<ProdutoExportacaoDTO> it = linhas.iterator();
+                    while (it.hasNext()) {
+                        ProdutoExportacaoDTO linha = it.next();
+                        if (formato == Formato.CSV) {
+                            saida.write(linhaCsv(linha).getBytes(StandardCharsets.UTF_8));
+                        } else {
+                            saida.write(escritorJson.writeValueAsBytes(linha));
+                            saida.write('\n');
+                        }
+                    }
+                } catch (IOException e) {
+                    // Cliente desconectou: encerra o cursor e a transação
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        saida.flush();
+    }
+
+    private static String linhaCsv(ProdutoExportacaoDTO p) {
+        StringBuilder sb = new StringBuilder(128);
+        campo(sb, p.getId()).append(',');
+        campo(sb, p.getNome()).append(',');
+        campo(sb, p.getDesc()).append(',');
+        campo(sb, p.getUnidadeMedida()).append(',');
+        campo(sb, p.getTipo() != null ? p.getTipo().name() : null).append(',');
+        sb.append(p.getQuantidadeEmEstoque()).append(',');
+        if (p.getEstoqueMinimo() != null) {
+            sb.append(p.getEstoqueMinimo().doubleValue());
+        }
+        sb.append(',');
+        if (p.getEstoqueRecomendado() != null) {
+            sb.append(p.getEstoqueRecomendado().doubleValue());
+        }
+        return sb.append('\n').toString();
+    }
+
+    // RFC 4180: aspas apenas quando o valor contém separador, aspas ou quebra de linha
+    private static StringBuilder campo(StringBuilder sb, String valor) {
+        if (valor == null) {
+            return sb;
+        }
+        boolean precisaAspas = valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0
+                || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0;
+        if (!precisaAspas) {
+            return sb.append(valor);
+        }
+        return sb.append('"').append(valor.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,163 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.CacheEstatisticasDTO;
+import br.com.jovvaz.control_system.model.TipoProduto;
+import br.com.jovvaz.control_system.repository.FichaTecnicaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache das fichas técnicas compiladas, por ID do produto acabado.
+ * Depois de aquecido, as consultas de produção (viabilidade, explosão) não leem fichas no banco.
+ * <p>
+ * Edições feitas por outra instância não passam por invalidar: cada compilação vale no máximo o TTL, e as transações
+ * que gravam a partir da ficha (reserva e execução de ordens) usam {@link #obterConferida}, que compara a versão
+ * compilada com a gravada.
+ */
+@Component
+public class FichaTecnicaCache {
+
+    private final FichaTecnicaRepository fichaTecnicaRepository;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<String, Entrada> fichas = new ConcurrentHashMap<>();
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+
+    // Incrementada a cada invalidação; evita que uma compilação concorrente reinsira uma ficha já obsoleta
+    private final AtomicLong geracao = new AtomicLong();
+
+    public FichaTecnicaCache(FichaTecnicaRepository fichaTecnicaRepository,
+                             @Value("${app.cache.fichas.ttl-ms:60000}") long ttlMs) {
+        this.fichaTecnicaRepository = fichaTecnicaRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    public Optional<FichaTecnicaCompilada> obter(String produtoAcabadoId) {
+        return obter(produtoAcabadoId, false);
+    }
+
+    /**
+     * Como {@link #obter}, mas confere a ficha em cache com a versão gravada (uma leitura pela chave primária)
+     * e recompila se ela foi alterada ou excluída em outra instância. Para uso dentro da transação que grava.
+     */
+    public Optional<FichaTecnicaCompilada> obterConferida(String produtoAcabadoId) {
+        return obter(produtoAcabadoId, true);
+    }
+
+    private Optional<FichaTecnicaCompilada> obter(String produtoAcabadoId, boolean conferirVersao) {
+        Entrada entrada = fichas.get(produtoAcabadoId);
+        if (entrada != null && System.nanoTime() - entrada.compiladaEm() < ttlNanos
+                && (!conferirVersao || versaoConfere(entrada.ficha()))) {
+            acertos.increment();
+            return Optional.of(entrada.ficha());
+        }
+        falhas.increment();
+
+        long geracaoInicial = geracao.get();
+        FichaTecnicaCompilada compilada = compilar(produtoAcabadoId);
+        if (compilada == null) {
+            if (entrada != null) {
+                // Excluída em outra instância
+                remover(produtoAcabadoId);
+            }
+            return Optional.empty();
+        }
+        long geracaoEsperada = geracaoInicial;
+        if (entrada != null && entrada.ficha().getVersao() != compilada.getVersao()) {
+            // Alterada em outra instância: caches derivados (explosão) também se descartam
+            if (!geracao.compareAndSet(geracaoInicial, geracaoInicial + 1)) {
+                geracao.incrementAndGet();
+                fichas.remove(produtoAcabadoId, entrada);
+                return Optional.of(compilada);
+            }
+            geracaoEsperada = geracaoInicial + 1;
+        }
+        Entrada nova = new Entrada(compilada, System.nanoTime());
+        fichas.put(produtoAcabadoId, nova);
+        if (geracao.get() != geracaoEsperada) {
+            // Houve invalidação durante a compilação: descarta o que pode estar desatualizado
+            fichas.remove(produtoAcabadoId, nova);
+        }
+        return Optional.of(compilada);
+    }
+
+    private boolean versaoConfere(FichaTecnicaCompilada ficha) {
+        return fichaTecnicaRepository.findVersaoById(ficha.getFichaId())
+                .map(versao -> versao == ficha.getVersao())
+                .orElse(false);
+    }
+
+    /**
+     * Remove a ficha do cache. Dentro de uma transação, remove de novo após o commit,
+     * para que leitores concorrentes não recoloquem a versão anterior.
+     */
+    public void invalidar(String produtoAcabadoId) {
+        remover(produtoAcabadoId);
+        Transacoes.aposCommit(() -> remover(produtoAcabadoId));
+    }
+
+    /**
+     * Remove todas as fichas: usado quando muda algo que toda ficha compilada pode conter, como o tipo de um componente.
+     */
+    public void invalidarTodas() {
+        removerTodas();
+        Transacoes.aposCommit(this::removerTodas);
+    }
+
+    // Muda a cada invalidação; caches derivados (ex.: explosão de estrutura) usam para se descartar
+    public long geracao() {
+        return geracao.get();
+    }
+
+    public CacheEstatisticasDTO estatisticas() {
+        return new CacheEstatisticasDTO(acertos.sum(), falhas.sum(), fichas.size());
+    }
+
+    private void remover(String produtoAcabadoId) {
+        geracao.incrementAndGet();
+        fichas.remove(produtoAcabadoId);
+    }
+
+    private void removerTodas() {
+        geracao.incrementAndGet();
+        fichas.clear();
+    }
+
+    private FichaTecnicaCompilada compilar(String produtoAcabadoId) {
+        List<Object[]> linhas = fichaTecnicaRepository.findComponentesAgregados(produtoAcabadoId);
+        if (linhas.isEmpty()) {
+            return null; // ficha inexistente
+        }
+        String fichaId = (String) linhas.get(0)[3];
+        long versao = ((Number) linhas.get(0)[4]).longValue();
+        int n = 0;
+        String[] ids = new String[linhas.size()];
+        double[] quantidades = new double[linhas.size()];
+        boolean[] subconjuntos = new boolean[linhas.size()];
+        for (Object[] linha : linhas) {
+            if (linha[0] == null) {
+                continue; // ficha sem componentes
+            }
+            ids[n] = (String) linha[0];
+            subconjuntos[n] = linha[1] == TipoProduto.PRODUTO_ACABADO;
+            quantidades[n] = ((Number) linha[2]).doubleValue();
+            n++;
+        }
+        if (n < ids.length) {
+            ids = Arrays.copyOf(ids, n);
+            quantidades = Arrays.copyOf(quantidades, n);
+            subconjuntos = Arrays.copyOf(subconjuntos, n);
+        }
+        return new FichaTecnicaCompilada(produtoAcabadoId, ids, quantidades, subconjuntos, fichaId, versao);
+    }
+
+    private record Entrada(FichaTecnicaCompilada ficha, long compiladaEm) {}
+}
@@ -0,0 +1,76 @@
+package br.com.jovvaz.control_system.service;
+
+/**
+ * Forma compilada e imutável de uma ficha técnica: arrays paralelos com o ID de cada componente
+ * (ordenados), a quantidade por unidade produzida, já somada quando o componente se repete,
+ * e se o componente é um subconjunto (produto acabado com estrutura própria).
+ */
+public final class FichaTecnicaCompilada {
+
+    private final String produtoAcabadoId;
+    private final String[] materiaPrimaIds;
+    private final double[] quantidadesPorUnidade;
+    private final boolean[] subconjuntos;
+    private final boolean possuiSubconjuntos;
+    // Ficha gravada de onde veio a compilação; nulo nas fichas montadas em memória (explosão de estrutura)
+    private final String fichaId;
+    private final long versao;
+
+    FichaTecnicaCompilada(String produtoAcabadoId, String[] materiaPrimaIds, double[] quantidadesPorUnidade) {
+        this(produtoAcabadoId, materiaPrimaIds, quantidadesPorUnidade, new boolean[materiaPrimaIds.length]);
+    }
+
+    FichaTecnicaCompilada(String produtoAcabadoId, String[] materiaPrimaIds, double[] quantidadesPorUnidade, boolean[] subconjuntos) {
+        this(produtoAcabadoId, materiaPrimaIds, quantidadesPorUnidade, subconjuntos, null, 0L);
+    }
+
+    FichaTecnicaCompilada(String produtoAcabadoId, String[] materiaPrimaIds, double[] quantidadesPorUnidade, boolean[] subconjuntos,
+                          String fichaId, long versao) {
+        if (materiaPrimaIds.length != quantidadesPorUnidade.length || materiaPrimaIds.length != subconjuntos.length) {
+            throw new IllegalArgumentException("Arrays da ficha compilada devem ter o mesmo tamanho.");
+        }
+        this.produtoAcabadoId = produtoAcabadoId;
+        this.materiaPrimaIds = materiaPrimaIds;
+        this.quantidadesPorUnidade = quantidadesPorUnidade;
+        this.subconjuntos = subconjuntos;
+        boolean algum = false;
+        for (boolean subconjunto : subconjuntos) {
+            algum |= subconjunto;
+        }
+        this.possuiSubconjuntos = algum;
+        this.fichaId = fichaId;
+        this.versao = versao;
+    }
+
+    public String getProdutoAcabadoId() {
+        return produtoAcabadoId;
+    }
+
+    public String getFichaId() {
+        return fichaId;
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    public int tamanho() {
+        return materiaPrimaIds.length;
+    }
+
+    public String materiaPrimaId(int i) {
+        return materiaPrimaIds[i];
+    }
+
+    public double quantidadePorUnidade(int i) {
+        return quantidadesPorUnidade[i];
+    }
+
+    public boolean isSubconjunto(int i) {
+        return subconjuntos[i];
+    }
+
+    public boolean possuiSubconjuntos() {
+        return possuiSubconjuntos;
+    }
+}
@@ -0,0 +1,169 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.model.OrdemProducao;
+import br.com.jovvaz.control_system.model.StatusOrdemProducao;
+import br.com.jovvaz.control_system.repository.OrdemProducaoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Executa ordens de produção fora da requisição HTTP, em virtual threads.
+ * Cada execução trava as faixas de lock do produto acabado e de seus componentes, sempre em ordem crescente:
+ * ordens que compartilham matéria-prima rodam em série e as independentes em paralelo.
+ * O número de execuções simultâneas é limitado para não esgotar o pool de conexões.
+ * A fila em si é a coluna execucao_pendente: ordens que estavam na fila quando a aplicação parou são reenfileiradas na subida.
+ */
+@Component
+public class FilaExecucaoProducao {
+
+    private static final Logger log = LoggerFactory.getLogger(FilaExecucaoProducao.class);
+
+    // Potência de 2: índice da faixa = hash & (FAIXAS - 1)
+    private static final int FAIXAS = 256;
+    private static final int TAMANHO_MAXIMO_MOTIVO = 500;
+
+    private final OrdemProducaoRepository ordemRepo;
+    private final ProducaoService producaoService;
+    private final FichaTecnicaCache fichaTecnicaCache;
+    private final VersoesColecoes versoesColecoes;
+    private final MetricasDashboard metricasDashboard;
+    private final TransactionTemplate transactionTemplate;
+    private final Semaphore execucoesSimultaneas;
+    private final ReentrantLock[] faixas = new ReentrantLock[FAIXAS];
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public FilaExecucaoProducao(OrdemProducaoRepository ordemRepo,
+                                ProducaoService producaoService,
+                                FichaTecnicaCache fichaTecnicaCache,
+                                VersoesColecoes versoesColecoes,
+                                MetricasDashboard metricasDashboard,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.producao.execucao.paralelismo:8}") int paralelismo) {
+        this.ordemRepo = ordemRepo;
+        this.producaoService = producaoService;
+        this.fichaTecnicaCache = fichaTecnicaCache;
+        this.versoesColecoes = versoesColecoes;
+        this.metricasDashboard = metricasDashboard;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.execucoesSimultaneas = new Semaphore(Math.max(1, paralelismo));
+        for (int i = 0; i < FAIXAS; i++) {
+            faixas[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Agenda a execução da ordem. Chamado após o commit que marcou a ordem como pendente de execução.
+     */
+    public void enfileirar(String ordemId) {
+        executor.submit(() -> processar(ordemId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void retomarPendentes() {
+        for (String ordemId : ordemRepo.findIdsComExecucaoPendente()) {
+            enfileirar(ordemId);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        // Ordens não concluídas continuam marcadas no banco e voltam à fila na próxima subida
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void processar(String ordemId) {
+        Optional<OrdemProducao> ordemOpt = ordemRepo.findById(ordemId);
+        if (ordemOpt.isEmpty() || !ordemOpt.get().isExecucaoPendente()) {
+            return;
+        }
+        int[] faixasDaOrdem = faixasDe(ordemOpt.get().getProdutoAcabado().getId());
+
+        try {
+            execucoesSimultaneas.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            for (int faixa : faixasDaOrdem) {
+                faixas[faixa].lock();
+            }
+            try {
+                executar(ordemId);
+            } catch (RuntimeException e) {
+                registrarFalha(ordemId, e);
+            } finally {
+                for (int i = faixasDaOrdem.length - 1; i >= 0; i--) {
+                    faixas[faixasDaOrdem[i]].unlock();
+                }
+            }
+        } finally {
+            execucoesSimultaneas.release();
+        }
+    }
+
+    private void executar(String ordemId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            OrdemProducao ordem = ordemRepo.findParaExecucao(ordemId).orElse(null);
+            // Excluída ou já processada enquanto aguardava na fila
+            if (ordem == null || !ordem.isExecucaoPendente()) {
+                return;
+            }
+            producaoService.executarOrdemDeProducao(ordem.getProdutoAcabado().getId(), ordem.getQuantidadeProduzida(), ordem.getId());
+            metricasDashboard.alterarStatusOrdemAposCommit(ordem.getStatus(), StatusOrdemProducao.EXECUTADA);
+            ordem.setStatus(StatusOrdemProducao.EXECUTADA);
+            ordem.setDataExecucao(LocalDateTime.now());
+            ordem.setExecucaoPendente(false);
+            ordem.setMotivoFalha(null);
+            versoesColecoes.registrarAlteracao(VersoesColecoes.Colecao.ORDENS_PRODUCAO);
+        });
+    }
+
+    private void registrarFalha(String ordemId, RuntimeException erro) {
+        log.warn("Falha ao executar a ordem de produção {}: {}", ordemId, erro.getMessage());
+        String motivo = erro.getMessage() != null ? erro.getMessage() : erro.getClass().getSimpleName();
+        String motivoFinal = motivo.length() > TAMANHO_MAXIMO_MOTIVO ? motivo.substring(0, TAMANHO_MAXIMO_MOTIVO) : motivo;
+        transactionTemplate.executeWithoutResult(status -> ordemRepo.findParaExecucao(ordemId).ifPresent(ordem -> {
+            metricasDashboard.alterarStatusOrdemAposCommit(ordem.getStatus(), StatusOrdemProducao.PENDENTE);
+            ordem.setStatus(StatusOrdemProducao.PENDENTE);
+            ordem.setExecucaoPendente(false);
+            ordem.setMotivoFalha(motivoFinal);
+            ordemRepo.save(ordem);
+            versoesColecoes.registrarAlteracao(VersoesColecoes.Colecao.ORDENS_PRODUCAO);
+        }));
+    }
+
+    // Faixas distintas e ordenadas do produto acabado e de seus componentes diretos
+    private int[] faixasDe(String produtoAcabadoId) {
+        FichaTecnicaCompilada ficha = fichaTecnicaCache.obter(produtoAcabadoId).orElse(null);
+        int tamanho = ficha != null ? ficha.tamanho() : 0;
+        int[] indices = new int[tamanho + 1];
+        indices[0] = faixa(produtoAcabadoId);
+        for (int i = 0; i < tamanho; i++) {
+            indices[i + 1] = faixa(ficha.materiaPrimaId(i));
+        }
+        return Arrays.stream(indices).sorted().distinct().toArray();
+    }
+
+    private static int faixa(String produtoId) {
+        int h = produtoId.hashCode();
+        return (h ^ (h >>> 16)) & (FAIXAS - 1);
+    }
+}
@@ -0,0 +1,90 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.repository.ContadorIdRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Gera valores numéricos sequenciais por contador, arrendando blocos da tabela contadores_id.
+ * Dentro do bloco os valores saem de um AtomicLong, sem ir ao banco; só a troca de bloco faz um UPDATE,
+ * em transação própria, para não segurar o lock da linha até o fim da transação de quem pediu o ID.
+ * Valores de um bloco não usado até a aplicação parar são perdidos (o contador nunca volta atrás).
+ */
+@Component
+public class GeradorIdNumerico {
+
+    private final ContadorIdRepository contadorIdRepository;
+    private final TransactionTemplate novaTransacao;
+    private final long tamanhoBloco;
+    private final Map<String, Bloco> blocos = new ConcurrentHashMap<>();
+    // Uma trava por contador: o arrendamento (ida ao banco) de um contador não bloqueia os demais
+    private final Map<String, Object> travas = new ConcurrentHashMap<>();
+
+    public GeradorIdNumerico(ContadorIdRepository contadorIdRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.ids.bloco:20}") long tamanhoBloco) {
+        this.contadorIdRepository = contadorIdRepository;
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanhoBloco = Math.max(1, tamanhoBloco);
+    }
+
+    /**
+     * Próximo valor do contador. {@code valorInicial} só é consultado se o contador ainda não existir no banco.
+     */
+    public long proximo(String contador, LongSupplier valorInicial) {
+        while (true) {
+            Bloco bloco = blocos.get(contador);
+            if (bloco != null) {
+                long valor = bloco.atual.getAndIncrement();
+                if (valor < bloco.fim) {
+                    return valor;
+                }
+            }
+            synchronized (travas.computeIfAbsent(contador, c -> new Object())) {
+                // Outra thread pode já ter trocado o bloco enquanto esperávamos
+                if (blocos.get(contador) == bloco) {
+                    blocos.put(contador, arrendar(contador, valorInicial));
+                }
+            }
+        }
+    }
+
+    private Bloco arrendar(String contador, LongSupplier valorInicial) {
+        try {
+            return novaTransacao.execute(status -> arrendarNaTransacao(contador, valorInicial));
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância criou o contador ao mesmo tempo: agora o UPDATE encontra a linha
+            return novaTransacao.execute(status -> arrendarNaTransacao(contador, valorInicial));
+        }
+    }
+
+    private Bloco arrendarNaTransacao(String contador, LongSupplier valorInicial) {
+        if (contadorIdRepository.avancar(contador, tamanhoBloco) == 0) {
+            long inicio = Math.max(1, valorInicial.getAsLong());
+            contadorIdRepository.criar(contador, inicio + tamanhoBloco);
+            return new Bloco(inicio, inicio + tamanhoBloco);
+        }
+        long fim = contadorIdRepository.findProximo(contador);
+        return new Bloco(fim - tamanhoBloco, fim);
+    }
+
+    private static final class Bloco {
+        private final AtomicLong atual;
+        private final long fim;
+
+        private Bloco(long inicio, long fim) {
+            this.atual = new AtomicLong(inicio);
+            this.fim = fim;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.jovvaz.control_system.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+
+/**
+ * IDs de ordem de produção ordenados pelo momento da criação: "OP-" + 13 caracteres em base32 Crockford.
+ * Os 64 bits são: 42 de milissegundos desde 2024-01-01 (cerca de 139 anos), 10 do nó e 12 de contador
+ * dentro do milissegundo (até 4096 IDs/ms por nó). Largura fixa: a ordem alfabética é a ordem de criação,
+ * então os inserts caem no fim do índice da chave primária e o ID serve de cursor para paginação.
+ * Nós diferentes nunca colidem desde que cada instância tenha um app.ids.no distinto.
+ */
+@Component
+public class GeradorIdOrdem {
+
+    private static final String PREFIXO = "OP-";
+    private static final long EPOCA = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int BITS_NO = 10;
+    private static final int BITS_CONTADOR = 12;
+    private static final long MAXIMO_CONTADOR = (1L << BITS_CONTADOR) - 1;
+    private static final long MAXIMO_NO = (1L << BITS_NO) - 1;
+    // Sem I, L, O e U: evita confusão na leitura e ditado do código
+    private static final char[] ALFABETO = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int TAMANHO = 13;
+
+    private final long no;
+    private long ultimoInstante = -1;
+    private long contador;
+
+    public GeradorIdOrdem(@Value("${app.ids.no:-1}") long no) {
+        this.no = no >= 0 ? (no & MAXIMO_NO) : noPadrao();
+    }
+
+    public synchronized String proximo() {
+        // Relógio que volta no tempo não reordena IDs: seguimos do último instante usado
+        long instante = Math.max(System.currentTimeMillis() - EPOCA, ultimoInstante);
+        if (instante == ultimoInstante) {
+            contador = (contador + 1) & MAXIMO_CONTADOR;
+            if (contador == 0) {
+                // Contador esgotado neste milissegundo: avança para o próximo
+                instante++;
+            }
+        } else {
+            contador = 0;
+        }
+        ultimoInstante = instante;
+        return PREFIXO + codificar((instante << (BITS_NO + BITS_CONTADOR)) | (no << BITS_CONTADOR) | contador);
+    }
+
+    // Base32 de largura fixa, do dígito mais significativo para o menos
+    private static String codificar(long valor) {
+        char[] saida = new char[TAMANHO];
+        for (int i = TAMANHO - 1; i >= 0; i--) {
+            saida[i] = ALFABETO[(int) (valor & 31)];
+            valor >>>= 5;
+        }
+        return new String(saida);
+    }
+
+    // Sem configuração: deriva o nó do host e do processo (colisão possível, mas improvável, entre instâncias)
+    private static long noPadrao() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "desconhecido";
+        }
+        return (host + "/" + ManagementFactory.getRuntimeMXBean().getName()).hashCode() & MAXIMO_NO;
+    }
+}
@@ -0,0 +1,164 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.ProdutoEstoqueView;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retrato imutável de todas as fichas técnicas e do estoque, em arrays primitivos.
+ * Produtos são indexados de 0 a {@link #totalProdutos()} - 1; as fichas ficam em formato de
+ * linhas comprimidas: os componentes da ficha f ocupam as posições [inicio(f), fim(f)).
+ */
+public final class MatrizProducao {
+
+    private final String[] produtoIds;
+    private final String[] produtoNomes;
+    private final String[] unidades;
+    private final double[] estoques;
+    private final Map<String, Integer> indicePorId;
+
+    private final int[] fichaProduto;
+    private final int[] inicioFicha;
+    private final int[] componentes;
+    private final double[] quantidadesPorUnidade;
+    private final int[] fichaPorProduto; // -1 quando o produto não tem ficha
+
+    private MatrizProducao(String[] produtoIds, String[] produtoNomes, String[] unidades, double[] estoques,
+                           Map<String, Integer> indicePorId, int[] fichaProduto, int[] inicioFicha,
+                           int[] componentes, double[] quantidadesPorUnidade, int[] fichaPorProduto) {
+        this.produtoIds = produtoIds;
+        this.produtoNomes = produtoNomes;
+        this.unidades = unidades;
+        this.estoques = estoques;
+        this.indicePorId = indicePorId;
+        this.fichaProduto = fichaProduto;
+        this.inicioFicha = inicioFicha;
+        this.componentes = componentes;
+        this.quantidadesPorUnidade = quantidadesPorUnidade;
+        this.fichaPorProduto = fichaPorProduto;
+    }
+
+    /**
+     * Monta a matriz a partir do estoque de todos os produtos e das linhas (produtoAcabadoId, componenteId, quantidade)
+     * de todas as fichas, ordenadas por produto acabado. Componentes nulos indicam ficha vazia.
+     */
+    static MatrizProducao montar(List<ProdutoEstoqueView> produtos, List<Object[]> linhasFichas) {
+        int n = produtos.size();
+        String[] ids = new String[n];
+        String[] nomes = new String[n];
+        String[] unidades = new String[n];
+        double[] estoques = new double[n];
+        Map<String, Integer> indice = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            ProdutoEstoqueView p = produtos.get(i);
+            ids[i] = p.getId();
+            nomes[i] = p.getNome();
+            unidades[i] = p.getUnidadeMedida();
+            estoques[i] = p.getQuantidadeEmEstoque();
+            indice.put(p.getId(), i);
+        }
+
+        int[] fichaPorProduto = new int[n];
+        Arrays.fill(fichaPorProduto, -1);
+        int[] fichaProduto = new int[linhasFichas.size()];
+        int[] inicio = new int[linhasFichas.size() + 1];
+        int[] componentes = new int[linhasFichas.size()];
+        double[] quantidades = new double[linhasFichas.size()];
+
+        int fichas = 0;
+        int total = 0;
+        String atual = null;
+        for (Object[] linha : linhasFichas) {
+            String produtoAcabadoId = (String) linha[0];
+            Integer produto = indice.get(produtoAcabadoId);
+            if (produto == null) {
+                continue;
+            }
+            if (!produtoAcabadoId.equals(atual)) {
+                atual = produtoAcabadoId;
+                fichaProduto[fichas] = produto;
+                fichaPorProduto[produto] = fichas;
+                inicio[fichas] = total;
+                fichas++;
+            }
+            Integer componente = linha[1] != null ? indice.get((String) linha[1]) : null;
+            if (componente == null) {
+                continue; // ficha sem componentes
+            }
+            componentes[total] = componente;
+            quantidades[total] = ((Number) linha[2]).doubleValue();
+            total++;
+        }
+        inicio[fichas] = total;
+
+        return new MatrizProducao(ids, nomes, unidades, estoques, indice,
+                Arrays.copyOf(fichaProduto, fichas),
+                Arrays.copyOf(inicio, fichas + 1),
+                Arrays.copyOf(componentes, total),
+                Arrays.copyOf(quantidades, total),
+                fichaPorProduto);
+    }
+
+    public int totalProdutos() {
+        return produtoIds.length;
+    }
+
+    public int totalFichas() {
+        return fichaProduto.length;
+    }
+
+    /** Índice do produto, ou -1 se não existir. */
+    public int indiceDe(String produtoId) {
+        Integer i = indicePorId.get(produtoId);
+        return i != null ? i : -1;
+    }
+
+    public String produtoId(int produto) {
+        return produtoIds[produto];
+    }
+
+    public String produtoNome(int produto) {
+        return produtoNomes[produto];
+    }
+
+    public String unidadeMedida(int produto) {
+        return unidades[produto];
+    }
+
+    public double estoque(int produto) {
+        return estoques[produto];
+    }
+
+    /** Cópia dos saldos, para simulações que consomem estoque. */
+    public double[] copiarEstoques() {
+        return estoques.clone();
+    }
+
+    /** Ficha do produto, ou -1 se ele não tiver ficha. */
+    public int fichaDoProduto(int produto) {
+        return fichaPorProduto[produto];
+    }
+
+    public int produtoDaFicha(int ficha) {
+        return fichaProduto[ficha];
+    }
+
+    public int inicio(int ficha) {
+        return inicioFicha[ficha];
+    }
+
+    public int fim(int ficha) {
+        return inicioFicha[ficha + 1];
+    }
+
+    public int componente(int posicao) {
+        return componentes[posicao];
+    }
+
+    public double quantidadePorUnidade(int posicao) {
+        return quantidadesPorUnidade[posicao];
+    }
+}
@@ -0,0 +1,242 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.model.Produto;
+import br.com.jovvaz.control_system.model.StatusOrdemProducao;
+import br.com.jovvaz.control_system.repository.OrdemProducaoRepository;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contadores do dashboard mantidos a cada alteração, em vez de varrer produtos e ordens a cada consulta.
+ * Carregados do banco na subida e atualizados pelos serviços de estoque e de ordens após o commit. Valem por instância.
+ * <p>
+ * Produtos e contagem de ordens por status são reconciliados com o banco cada um pelo seu {@link Reconciliador},
+ * o mesmo de {@link DisponibilidadeEstoque}: relidos a cada intervalo (o que corrige alterações de outras instâncias
+ * e callbacks perdidos), com o item alterado por uma transação em andamento mantido em memória até ser relido sem
+ * pendências, para que o commit não seja contado duas vezes.
+ * <p>
+ * Estoque baixo: saldo até o estoque mínimo do produto, ou até {@link #LIMITE_ESTOQUE_BAIXO_PADRAO} quando não configurado.
+ */
+@Component
+public class MetricasDashboard {
+
+    public static final double LIMITE_ESTOQUE_BAIXO_PADRAO = 10.0;
+
+    private static final int SALDO = 0;
+    private static final int MINIMO = 1;
+
+    private final ProdutoRepository produtoRepository;
+    private final OrdemProducaoRepository ordemRepo;
+    private final Reconciliador<String, double[]> reconciliadorProdutos;
+    private final Reconciliador<StatusOrdemProducao, Long> reconciliadorOrdens;
+
+    // produtoId -> {saldo, estoque mínimo (NaN quando não configurado)}; tudo abaixo é guardado por this
+    private final Map<String, double[]> produtos = new HashMap<>();
+    private final EnumMap<StatusOrdemProducao, Long> ordensPorStatus = new EnumMap<>(StatusOrdemProducao.class);
+    private int produtosEstoqueBaixo;
+    // Soma dos saldos de todos os produtos
+    private double saldoTotal;
+
+    public MetricasDashboard(ProdutoRepository produtoRepository, OrdemProducaoRepository ordemRepo,
+                             @Value("${app.dashboard.metricas.reconciliacao-ms:60000}") long intervaloReconciliacaoMs) {
+        this.produtoRepository = produtoRepository;
+        this.ordemRepo = ordemRepo;
+        long intervaloReconciliacaoNanos = TimeUnit.MILLISECONDS.toNanos(intervaloReconciliacaoMs);
+        this.reconciliadorProdutos = new Reconciliador<>(this, intervaloReconciliacaoNanos,
+                this::lerProdutos, this::substituir, this::substituirProdutos);
+        this.reconciliadorOrdens = new Reconciliador<>(this, intervaloReconciliacaoNanos,
+                chaves -> lerOrdens(), this::substituirContagem, this::substituirContagens);
+    }
+
+    /**
+     * Relê produtos e ordens do banco; na subida, faz a primeira carga.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        reconciliadorProdutos.marcarDivergencia();
+        reconciliadorOrdens.marcarDivergencia();
+        garantirAtualizado();
+    }
+
+    public int totalProdutos() {
+        garantirAtualizado();
+        synchronized (this) {
+            return produtos.size();
+        }
+    }
+
+    public int produtosEstoqueBaixo() {
+        garantirAtualizado();
+        synchronized (this) {
+            return produtosEstoqueBaixo;
+        }
+    }
+
+    public double saldoTotal() {
+        garantirAtualizado();
+        synchronized (this) {
+            return saldoTotal;
+        }
+    }
+
+    // Ordens ainda não concluídas: pendentes e em andamento
+    public long ordensAbertas() {
+        garantirAtualizado();
+        synchronized (this) {
+            return ordensPorStatus.get(StatusOrdemProducao.PENDENTE) + ordensPorStatus.get(StatusOrdemProducao.EM_ANDAMENTO);
+        }
+    }
+
+    public Map<StatusOrdemProducao, Long> ordensPorStatus() {
+        garantirAtualizado();
+        synchronized (this) {
+            return new EnumMap<>(ordensPorStatus);
+        }
+    }
+
+    /**
+     * Produto criado ou com cadastro alterado. O saldo só é usado para produtos ainda não conhecidos:
+     * para os demais, o saldo é mantido pelos movimentos.
+     */
+    public void registrarProdutoAposCommit(Produto produto) {
+        String id = produto.getId();
+        double saldo = produto.getQuantidadeEmEstoque();
+        Double minimo = produto.getEstoqueMinimo();
+        reconciliadorProdutos.registrar(List.of(id), () -> registrarProduto(id, saldo, minimo), null);
+    }
+
+    public void aplicarMovimentoAposCommit(String produtoId, double delta) {
+        reconciliadorProdutos.registrar(List.of(produtoId), () -> aplicarMovimento(produtoId, delta), null);
+    }
+
+    public void removerProdutoAposCommit(String produtoId) {
+        reconciliadorProdutos.registrar(List.of(produtoId), () -> substituir(produtoId, null), null);
+    }
+
+    // Status anterior nulo: ordem criada; novo nulo: ordem excluída
+    public void alterarStatusOrdemAposCommit(StatusOrdemProducao anterior, StatusOrdemProducao novo) {
+        if (anterior == novo) {
+            return;
+        }
+        List<StatusOrdemProducao> alterados = new ArrayList<>(2);
+        if (anterior != null) {
+            alterados.add(anterior);
+        }
+        if (novo != null) {
+            alterados.add(novo);
+        }
+        reconciliadorOrdens.registrar(alterados, () -> alterarStatusOrdem(anterior, novo), null);
+    }
+
+    // Qualquer contador carrega e reconcilia produtos e ordens juntos
+    private void garantirAtualizado() {
+        reconciliadorProdutos.garantirAtualizado();
+        reconciliadorOrdens.garantirAtualizado();
+    }
+
+    private void registrarProduto(String id, double saldo, Double minimo) {
+        double[] atual = produtos.get(id);
+        double[] novo = atual != null ? new double[]{atual[SALDO], Double.NaN} : new double[]{saldo, Double.NaN};
+        novo[MINIMO] = minimo != null ? minimo : Double.NaN;
+        substituir(id, novo);
+    }
+
+    private void aplicarMovimento(String id, double delta) {
+        double[] atual = produtos.get(id);
+        if (atual != null) {
+            substituir(id, new double[]{atual[SALDO] + delta, atual[MINIMO]});
+        }
+    }
+
+    private void alterarStatusOrdem(StatusOrdemProducao anterior, StatusOrdemProducao novo) {
+        if (anterior != null) {
+            ordensPorStatus.merge(anterior, -1L, Long::sum);
+        }
+        if (novo != null) {
+            ordensPorStatus.merge(novo, 1L, Long::sum);
+        }
+    }
+
+    // Troca a posição de um produto (nula: remove) mantendo os totais
+    private void substituir(String id, double[] nova) {
+        double[] anterior = nova != null ? produtos.put(id, nova) : produtos.remove(id);
+        if (anterior != null) {
+            saldoTotal -= anterior[SALDO];
+            if (baixo(anterior)) {
+                produtosEstoqueBaixo--;
+            }
+        }
+        if (nova != null) {
+            saldoTotal += nova[SALDO];
+            if (baixo(nova)) {
+                produtosEstoqueBaixo++;
+            }
+        }
+    }
+
+    private static boolean baixo(double[] posicao) {
+        double limite = Double.isNaN(posicao[MINIMO]) ? LIMITE_ESTOQUE_BAIXO_PADRAO : posicao[MINIMO];
+        return posicao[SALDO] <= limite;
+    }
+
+    // produtoIds nulo: todos os produtos
+    private Map<String, double[]> lerProdutos(Set<String> produtoIds) {
+        List<Object[]> niveis = produtoIds == null
+                ? produtoRepository.findNiveisEstoque()
+                : produtoRepository.findNiveisEstoque(produtoIds);
+        Map<String, double[]> lidos = new HashMap<>();
+        for (Object[] linha : niveis) {
+            Double minimo = (Double) linha[2];
+            lidos.put((String) linha[0], new double[]{((Number) linha[1]).doubleValue(), minimo != null ? minimo : Double.NaN});
+        }
+        return lidos;
+    }
+
+    private void substituirProdutos(Map<String, double[]> lidos, Set<String> mantidos) {
+        // A posição em memória dos mantidos já tem todas as alterações desta instância
+        for (String produtoId : mantidos) {
+            double[] atual = produtos.get(produtoId);
+            if (atual != null) {
+                lidos.put(produtoId, atual);
+            } else {
+                lidos.remove(produtoId);
+            }
+        }
+        produtos.clear();
+        produtosEstoqueBaixo = 0;
+        saldoTotal = 0.0;
+        lidos.forEach(this::substituir);
+    }
+
+    // A contagem é uma consulta só; a conferência de alguns status usa só os que pediu
+    private Map<StatusOrdemProducao, Long> lerOrdens() {
+        Map<StatusOrdemProducao, Long> lidas = new EnumMap<>(StatusOrdemProducao.class);
+        for (Object[] linha : ordemRepo.findContagemPorStatus()) {
+            lidas.put((StatusOrdemProducao) linha[0], ((Number) linha[1]).longValue());
+        }
+        return lidas;
+    }
+
+    private void substituirContagem(StatusOrdemProducao status, Long total) {
+        ordensPorStatus.put(status, total != null ? total : 0L);
+    }
+
+    private void substituirContagens(Map<StatusOrdemProducao, Long> lidas, Set<StatusOrdemProducao> mantidas) {
+        for (StatusOrdemProducao status : StatusOrdemProducao.values()) {
+            if (!mantidas.contains(status)) {
+                substituirContagem(status, lidas.get(status));
+            }
+        }
+    }
+}
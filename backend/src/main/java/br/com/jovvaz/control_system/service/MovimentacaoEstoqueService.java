@@ -0,0 +1,121 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.MovimentacaoEstoqueDTO;
+import br.com.jovvaz.control_system.dto.PaginaDTO;
+import br.com.jovvaz.control_system.model.MovimentacaoEstoque;
+import br.com.jovvaz.control_system.model.TipoMovimentacao;
+import br.com.jovvaz.control_system.repository.MovimentacaoEstoqueRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class MovimentacaoEstoqueService {
+
+    // Itens por página no histórico paginado
+    private static final int LIMITE_MAXIMO_PAGINA = 500;
+
+    private final MovimentacaoEstoqueRepository repository;
+    private final ResumoPeriodoService resumoPeriodoService;
+
+    public MovimentacaoEstoqueService(MovimentacaoEstoqueRepository repository, ResumoPeriodoService resumoPeriodoService) {
+        this.repository = repository;
+        this.resumoPeriodoService = resumoPeriodoService;
+    }
+
+    /**
+     * Registra um lançamento. A quantidade é o efeito no saldo (negativa para saídas).
+     * O insert fica pendente até o flush da transação, sendo agrupado com os demais em batch.
+     * Os resumos por período são somados após o commit e gravados fora desta transação.
+     */
+    @Transactional
+    public void registrar(String produtoId, TipoMovimentacao tipo, double quantidade, String observacao) {
+        MovimentacaoEstoque movimentacao = repository.save(new MovimentacaoEstoque(produtoId, tipo, quantidade, LocalDateTime.now(), observacao));
+        resumoPeriodoService.registrarMovimentacoes(List.of(movimentacao));
+    }
+
+    @Transactional
+    public void registrarTodas(List<MovimentacaoEstoque> movimentacoes) {
+        if (!movimentacoes.isEmpty()) {
+            repository.saveAll(movimentacoes);
+            resumoPeriodoService.registrarMovimentacoes(movimentacoes);
+        }
+    }
+
+    public List<MovimentacaoEstoqueDTO> listarRecentes(int limite) {
+        return repository.findRecentesComNomeProduto(PageRequest.of(0, limite)).stream()
+                .map(linha -> toDTO((MovimentacaoEstoque) linha[0], (String) linha[1]))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Histórico paginado por cursor, do lançamento mais recente para o mais antigo.
+     * O período é inclusivo nas duas pontas; datas são convertidas para o fuso do servidor, o mesmo dos lançamentos.
+     */
+    public PaginaDTO<MovimentacaoEstoqueDTO> listarPagina(String produtoId, List<TipoMovimentacao> tipos,
+                                                         Instant dataInicio, Instant dataFim, String cursor, int limite) {
+        if (dataInicio != null && dataFim != null && dataFim.isBefore(dataInicio)) {
+            throw new IllegalArgumentException("dataFim anterior a dataInicio.");
+        }
+        int tamanho = Math.max(1, Math.min(limite, LIMITE_MAXIMO_PAGINA));
+        LocalDateTime aposData = null;
+        Long aposId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] partes = Cursores.decodificar(cursor);
+            try {
+                aposData = LocalDateTime.parse(partes[0]);
+                aposId = Long.valueOf(partes[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido.");
+            }
+        }
+
+        List<Object[]> linhas = repository.buscarPagina(
+                produtoId != null && !produtoId.isBlank() ? produtoId.trim() : null,
+                tipos,
+                dataInicio != null ? LocalDateTime.ofInstant(dataInicio, ZoneId.systemDefault()) : null,
+                dataFim != null ? LocalDateTime.ofInstant(dataFim, ZoneId.systemDefault()) : null,
+                aposData, aposId, tamanho + 1);
+        int total = Math.min(linhas.size(), tamanho);
+        List<MovimentacaoEstoqueDTO> itens = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            itens.add(toDTO((MovimentacaoEstoque) linhas.get(i)[0], (String) linhas.get(i)[1]));
+        }
+        String proximoCursor = null;
+        if (linhas.size() > tamanho) {
+            MovimentacaoEstoque ultima = (MovimentacaoEstoque) linhas.get(tamanho - 1)[0];
+            proximoCursor = Cursores.codificar(ultima.getData().toString(), String.valueOf(ultima.getId()));
+        }
+        return new PaginaDTO<>(itens, proximoCursor);
+    }
+
+    MovimentacaoEstoqueDTO toDTO(MovimentacaoEstoque m, String produtoNome) {
+        return new MovimentacaoEstoqueDTO(
+                String.valueOf(m.getId()),
+                m.getProdutoId(),
+                produtoNome,
+                categoria(m),
+                Math.abs(m.getQuantidade()),
+                m.getData().atZone(ZoneId.systemDefault()).toInstant(),
+                m.getObservacao()
+        );
+    }
+
+    // O frontend trabalha com três categorias: ENTRADA, SAIDA e PRODUCAO
+    private String categoria(MovimentacaoEstoque m) {
+        return switch (m.getTipo()) {
+            case ENTRADA_PRODUCAO -> "PRODUCAO";
+            case SAIDA_PRODUCAO, SAIDA_VENDA -> "SAIDA";
+            case ENTRADA -> "ENTRADA";
+            case AJUSTE -> m.getQuantidade() >= 0 ? "ENTRADA" : "SAIDA";
+        };
+    }
+}
@@ -2,37 +2,115 @@ package br.com.jovvaz.control_system.service;
 
 import br.com.jovvaz.control_system.dto.OrdemProducaoCreateDTO;
 import br.com.jovvaz.control_system.dto.OrdemProducaoDTO;
+import br.com.jovvaz.control_system.dto.PaginaDTO;
+import br.com.jovvaz.control_system.dto.ProducaoPeriodoDTO;
+import br.com.jovvaz.control_system.model.AgrupamentoPeriodo;
 import br.com.jovvaz.control_system.model.OrdemProducao;
 import br.com.jovvaz.control_system.model.Produto;
 import br.com.jovvaz.control_system.model.StatusOrdemProducao;
 import br.com.jovvaz.control_system.repository.OrdemProducaoRepository;
 import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import br.com.jovvaz.control_system.service.VersoesColecoes.Colecao;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class OrdemProducaoService {
 
+    private static final int LIMITE_MAXIMO_PAGINA = 500;
+
     private final OrdemProducaoRepository ordemRepo;
     private final ProdutoRepository produtoRepo;
     private final ProducaoService producaoService;
+    private final ReservaEstoqueService reservaEstoqueService;
+    private final FilaExecucaoProducao filaExecucao;
+    private final GeradorIdOrdem geradorIdOrdem;
+    private final VersoesColecoes versoesColecoes;
+    private final MetricasDashboard metricasDashboard;
 
     public OrdemProducaoService(OrdemProducaoRepository ordemRepo,
                                 ProdutoRepository produtoRepo,
-                                ProducaoService producaoService) {
+                                ProducaoService producaoService,
+                                ReservaEstoqueService reservaEstoqueService,
+                                FilaExecucaoProducao filaExecucao,
+                                GeradorIdOrdem geradorIdOrdem,
+                                VersoesColecoes versoesColecoes,
+                                MetricasDashboard metricasDashboard) {
         this.ordemRepo = ordemRepo;
         this.produtoRepo = produtoRepo;
         this.producaoService = producaoService;
+        this.reservaEstoqueService = reservaEstoqueService;
+        this.filaExecucao = filaExecucao;
+        this.geradorIdOrdem = geradorIdOrdem;
+        this.versoesColecoes = versoesColecoes;
+        this.metricasDashboard = metricasDashboard;
+    }
+
+    // ETag da listagem de ordens: as ordens exibem o nome do produto
+    public String etagOrdens() {
+        return versoesColecoes.etag(Colecao.ORDENS_PRODUCAO, Colecao.CADASTRO_PRODUTOS);
     }
 
     public List<OrdemProducaoDTO> listar() {
-        return ordemRepo.findAll().stream().map(this::toDTO).collect(Collectors.toList());
+        return ordemRepo.findListagem();
+    }
+
+    /**
+     * Unidades produzidas por produto e período (ordens executadas), agregadas no banco.
+     * O intervalo é inclusivo nas duas pontas e convertido para o fuso do servidor, o mesmo de data_execucao.
+     */
+    public List<ProducaoPeriodoDTO> relatorioProducao(AgrupamentoPeriodo agrupamento, Instant dataInicio, Instant dataFim) {
+        if (dataInicio != null && dataFim != null && dataFim.isBefore(dataInicio)) {
+            throw new IllegalArgumentException("dataFim anterior a dataInicio.");
+        }
+        return ordemRepo.somarProducaoPorPeriodo(
+                agrupamento,
+                dataInicio != null ? LocalDateTime.ofInstant(dataInicio, ZoneId.systemDefault()) : null,
+                dataFim != null ? LocalDateTime.ofInstant(dataFim, ZoneId.systemDefault()) : null);
+    }
+
+    /**
+     * Ordens da mais recente para a mais antiga, filtradas por status e por período de data_execucao
+     * (dataFim inclusiva). O cursor é opaco e carrega a data e o ID do último item entregue.
+     */
+    public PaginaDTO<OrdemProducaoDTO> listarPagina(List<StatusOrdemProducao> status, LocalDate dataInicio,
+                                                    LocalDate dataFim, String cursor, int limite) {
+        if (dataInicio != null && dataFim != null && dataFim.isBefore(dataInicio)) {
+            throw new IllegalArgumentException("dataFim anterior a dataInicio.");
+        }
+        int tamanho = Math.max(1, Math.min(limite, LIMITE_MAXIMO_PAGINA));
+        LocalDateTime aposData = null;
+        String aposId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] partes = Cursores.decodificar(cursor);
+            try {
+                aposData = LocalDateTime.parse(partes[0]);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Cursor inválido.");
+            }
+            aposId = partes[1];
+        }
+
+        List<OrdemProducaoDTO> itens = ordemRepo.buscarPagina(status,
+                dataInicio != null ? dataInicio.atStartOfDay() : null,
+                dataFim != null ? dataFim.plusDays(1).atStartOfDay() : null,
+                aposData, aposId, tamanho + 1);
+        String proximoCursor = null;
+        if (itens.size() > tamanho) {
+            itens = new ArrayList<>(itens.subList(0, tamanho));
+            OrdemProducaoDTO ultima = itens.get(tamanho - 1);
+            proximoCursor = Cursores.codificar(ultima.getDataExecucao().toString(), ultima.getId());
+        }
+        return new PaginaDTO<>(itens, proximoCursor);
     }
 
     @Transactional
@@ -40,7 +118,8 @@ public class OrdemProducaoService {
         Produto produto = produtoRepo.findById(dto.getProdutoAcabadoId())
                 .orElseThrow(() -> new EntityNotFoundException("Produto acabado não encontrado: " + dto.getProdutoAcabadoId()));
 
-        String id = "OP-" + UUID.randomUUID().toString().substring(0, 8);
+        // Ordenado pelo momento da criação: inserts no fim do índice e ID utilizável como cursor
+        String id = geradorIdOrdem.proximo();
         OrdemProducao ordem = new OrdemProducao(
                 id,
                 produto,
@@ -49,6 +128,10 @@ public class OrdemProducaoService {
                 LocalDateTime.now()
         );
         ordem = ordemRepo.save(ordem);
+        // Reserva se houver disponível; sem disponível a ordem fica pendente sem reserva
+        reservaEstoqueService.reservarParaOrdem(ordem.getId(), produto.getId(), ordem.getQuantidadeProduzida(), false);
+        metricasDashboard.alterarStatusOrdemAposCommit(null, StatusOrdemProducao.PENDENTE);
+        versoesColecoes.registrarAlteracao(Colecao.ORDENS_PRODUCAO);
         return toDTO(ordem);
     }
 
@@ -56,28 +139,75 @@ public class OrdemProducaoService {
     public OrdemProducaoDTO atualizarStatus(String id, StatusOrdemProducao novoStatus) {
         OrdemProducao ordem = ordemRepo.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Ordem não encontrada: " + id));
+        if (ordem.isExecucaoPendente()) {
+            throw new IllegalStateException("A ordem " + id + " está na fila de execução.");
+        }
+        StatusOrdemProducao statusAnterior = ordem.getStatus();
+        // Executada e cancelada são estados finais, como em enfileirarExecucao
+        if (statusAnterior == StatusOrdemProducao.EXECUTADA || statusAnterior == StatusOrdemProducao.CANCELADA) {
+            throw new IllegalStateException("A ordem " + id + " está " + statusAnterior.name() + " e não pode mudar para " + novoStatus.name() + ".");
+        }
 
-        // Se executar, integra com a lógica de produção (baixa/entrada)
+        // Se executar, integra com a lógica de produção (baixa/entrada); a reserva da ordem vira baixa
         if (novoStatus == StatusOrdemProducao.EXECUTADA) {
-            producaoService.executarOrdemDeProducao(ordem.getProdutoAcabado().getId(), ordem.getQuantidadeProduzida());
+            producaoService.executarOrdemDeProducao(ordem.getProdutoAcabado().getId(), ordem.getQuantidadeProduzida(), ordem.getId());
             ordem.setDataExecucao(LocalDateTime.now());
+        } else if (novoStatus == StatusOrdemProducao.EM_ANDAMENTO) {
+            // Iniciar exige os componentes reservados
+            reservaEstoqueService.reservarParaOrdem(ordem.getId(), ordem.getProdutoAcabado().getId(), ordem.getQuantidadeProduzida(), true);
+        } else if (novoStatus == StatusOrdemProducao.CANCELADA) {
+            reservaEstoqueService.liberarDaOrdem(ordem.getId());
         }
 
         ordem.setStatus(novoStatus);
         ordem = ordemRepo.save(ordem);
+        metricasDashboard.alterarStatusOrdemAposCommit(statusAnterior, novoStatus);
+        versoesColecoes.registrarAlteracao(Colecao.ORDENS_PRODUCAO);
+        return toDTO(ordem);
+    }
+
+    /**
+     * Coloca a ordem na fila de execução assíncrona: passa para EM_ANDAMENTO e é executada após o commit.
+     * Ao final a ordem fica EXECUTADA, ou volta para PENDENTE com o motivo da falha.
+     */
+    @Transactional
+    public OrdemProducaoDTO enfileirarExecucao(String id) {
+        OrdemProducao ordem = ordemRepo.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Ordem não encontrada: " + id));
+        if (ordem.isExecucaoPendente()) {
+            return toDTO(ordem);
+        }
+        if (ordem.getStatus() == StatusOrdemProducao.EXECUTADA || ordem.getStatus() == StatusOrdemProducao.CANCELADA) {
+            throw new IllegalStateException("A ordem " + id + " está " + ordem.getStatus().name() + " e não pode ser executada.");
+        }
+
+        // Reserva agora, se ainda não houver e existir disponível; a execução confere as faltas de qualquer forma
+        reservaEstoqueService.reservarParaOrdem(ordem.getId(), ordem.getProdutoAcabado().getId(), ordem.getQuantidadeProduzida(), false);
+        metricasDashboard.alterarStatusOrdemAposCommit(ordem.getStatus(), StatusOrdemProducao.EM_ANDAMENTO);
+        ordem.setStatus(StatusOrdemProducao.EM_ANDAMENTO);
+        ordem.setExecucaoPendente(true);
+        ordem.setMotivoFalha(null);
+        ordem = ordemRepo.save(ordem);
+        versoesColecoes.registrarAlteracao(Colecao.ORDENS_PRODUCAO);
+        Transacoes.aposCommit(() -> filaExecucao.enfileirar(id));
         return toDTO(ordem);
     }
 
     @Transactional
     public void deletar(String id) {
-        if (!ordemRepo.existsById(id)) {
-            throw new EntityNotFoundException("Ordem não encontrada: " + id);
+        OrdemProducao ordem = ordemRepo.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Ordem não encontrada: " + id));
+        if (ordem.isExecucaoPendente()) {
+            throw new IllegalStateException("A ordem " + id + " está na fila de execução.");
         }
-        ordemRepo.deleteById(id);
+        reservaEstoqueService.liberarDaOrdem(id);
+        ordemRepo.delete(ordem);
+        metricasDashboard.alterarStatusOrdemAposCommit(ordem.getStatus(), null);
+        versoesColecoes.registrarAlteracao(Colecao.ORDENS_PRODUCAO);
     }
 
     private OrdemProducaoDTO toDTO(OrdemProducao ordem) {
-        return new OrdemProducaoDTO(
+        OrdemProducaoDTO dto = new OrdemProducaoDTO(
                 ordem.getId(),
                 ordem.getProdutoAcabado().getId(),
                 ordem.getProdutoAcabado().getNome(),
@@ -85,5 +215,7 @@ public class OrdemProducaoService {
                 ordem.getStatus().name(),
                 ordem.getDataExecucao()
         );
+        dto.setMotivoFalha(ordem.getMotivoFalha());
+        return dto;
     }
 }
\ No newline at end of file
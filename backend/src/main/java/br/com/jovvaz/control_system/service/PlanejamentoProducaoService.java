@@ -0,0 +1,294 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.AlocacaoOrdemDTO;
+import br.com.jovvaz.control_system.dto.CapacidadeProducaoDTO;
+import br.com.jovvaz.control_system.dto.MrpResultadoDTO;
+import br.com.jovvaz.control_system.dto.NecessidadeMateriaPrimaDTO;
+import br.com.jovvaz.control_system.dto.PlanoAlocacaoDTO;
+import br.com.jovvaz.control_system.model.StatusOrdemProducao;
+import br.com.jovvaz.control_system.repository.FichaTecnicaRepository;
+import br.com.jovvaz.control_system.repository.OrdemProducaoRepository;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cálculos de planejamento sobre todas as fichas de uma vez.
+ * Carrega fichas e estoque em duas consultas e trabalha sobre a {@link MatrizProducao}.
+ */
+@Service
+public class PlanejamentoProducaoService {
+
+    // Ordens consideradas em aberto pelo MRP
+    private static final Set<StatusOrdemProducao> STATUS_ABERTOS = EnumSet.of(StatusOrdemProducao.PENDENTE, StatusOrdemProducao.EM_ANDAMENTO);
+    // A partir deste volume de ordens a agregação é dividida no fork-join pool
+    private static final int LIMIAR_AGREGACAO_PARALELA = 10_000;
+
+    private final ProdutoRepository produtoRepository;
+    private final FichaTecnicaRepository fichaTecnicaRepository;
+    private final OrdemProducaoRepository ordemProducaoRepository;
+
+    public PlanejamentoProducaoService(ProdutoRepository produtoRepository, FichaTecnicaRepository fichaTecnicaRepository,
+                                       OrdemProducaoRepository ordemProducaoRepository) {
+        this.produtoRepository = produtoRepository;
+        this.fichaTecnicaRepository = fichaTecnicaRepository;
+        this.ordemProducaoRepository = ordemProducaoRepository;
+    }
+
+    public MatrizProducao carregarMatriz() {
+        return MatrizProducao.montar(produtoRepository.findTodosEstoques(), fichaTecnicaRepository.findTodosComponentesAgregados());
+    }
+
+    /**
+     * Para cada ficha, a quantidade máxima produzível com o estoque atual:
+     * o menor valor, entre os componentes, de estoque / quantidade por unidade.
+     */
+    public List<CapacidadeProducaoDTO> calcularCapacidades() {
+        MatrizProducao matriz = carregarMatriz();
+        List<CapacidadeProducaoDTO> capacidades = new ArrayList<>(matriz.totalFichas());
+        for (int f = 0; f < matriz.totalFichas(); f++) {
+            double maxima = Double.POSITIVE_INFINITY;
+            int limitante = -1;
+            for (int k = matriz.inicio(f); k < matriz.fim(f); k++) {
+                double porUnidade = matriz.quantidadePorUnidade(k);
+                if (porUnidade <= 0) {
+                    continue;
+                }
+                int componente = matriz.componente(k);
+                double possivel = Math.max(0.0, matriz.estoque(componente)) / porUnidade;
+                if (possivel < maxima) {
+                    maxima = possivel;
+                    limitante = componente;
+                }
+            }
+            int produto = matriz.produtoDaFicha(f);
+            capacidades.add(new CapacidadeProducaoDTO(
+                    matriz.produtoId(produto),
+                    matriz.produtoNome(produto),
+                    limitante >= 0 ? maxima : null,
+                    limitante >= 0 ? matriz.produtoId(limitante) : null,
+                    limitante >= 0 ? matriz.produtoNome(limitante) : null
+            ));
+        }
+        return capacidades;
+    }
+
+    /**
+     * MRP sobre todas as ordens PENDENTE/EM_ANDAMENTO.
+     * As quantidades das ordens são somadas por produto acabado em uma passada (em paralelo quando o volume é grande)
+     * e explodidas pelas fichas em ordem topológica. Subconjuntos com ficha são descontados do próprio estoque
+     * e o restante é explodido; itens sem ficha acumulam a necessidade bruta, confrontada com o estoque no final.
+     */
+    public MrpResultadoDTO calcularMrp(boolean apenasFaltas) {
+        MatrizProducao matriz = carregarMatriz();
+        List<Object[]> ordens = ordemProducaoRepository.findDemandaPorStatus(STATUS_ABERTOS);
+        int n = matriz.totalProdutos();
+
+        double[] aProduzir = ordens.size() >= LIMIAR_AGREGACAO_PARALELA
+                ? ordens.parallelStream().collect(() -> new double[n], (acc, ordem) -> acumularOrdem(matriz, acc, ordem), PlanejamentoProducaoService::somar)
+                : agregarSequencial(matriz, ordens);
+
+        double[] bruto = new double[n];
+        for (int produto : ordemTopologica(matriz)) {
+            int ficha = matriz.fichaDoProduto(produto);
+            // Demanda de subconjunto não coberta pelo estoque dele precisa ser produzida
+            double quantidade = aProduzir[produto] + Math.max(0.0, bruto[produto] - Math.max(0.0, matriz.estoque(produto)));
+            if (quantidade <= 0) {
+                continue;
+            }
+            for (int k = matriz.inicio(ficha); k < matriz.fim(ficha); k++) {
+                bruto[matriz.componente(k)] += quantidade * matriz.quantidadePorUnidade(k);
+            }
+        }
+
+        List<NecessidadeMateriaPrimaDTO> necessidades = new ArrayList<>();
+        for (int produto = 0; produto < n; produto++) {
+            if (bruto[produto] <= 0 || matriz.fichaDoProduto(produto) >= 0) {
+                continue;
+            }
+            NecessidadeMateriaPrimaDTO necessidade = new NecessidadeMateriaPrimaDTO(
+                    matriz.produtoId(produto),
+                    matriz.produtoNome(produto),
+                    matriz.unidadeMedida(produto),
+                    bruto[produto],
+                    matriz.estoque(produto)
+            );
+            if (!apenasFaltas || necessidade.getFaltante() > 0) {
+                necessidades.add(necessidade);
+            }
+        }
+        return new MrpResultadoDTO(ordens.size(), necessidades);
+    }
+
+    /**
+     * Plano de alocação do estoque atual entre as ordens PENDENTE/EM_ANDAMENTO, quando não há material para todas.
+     * Ordens EM_ANDAMENTO já estão comprometidas: entram primeiro, por ordem de criação. Entre as pendentes,
+     * {@link AlocadorMateriais} escolhe o conjunto que maximiza o número de ordens (objetivo ORDENS) ou de unidades
+     * (UNIDADES), cada ordem multiplicada pelo seu peso; peso zero deixa a ordem pendente fora do plano.
+     * A sequência devolvida é a ordem sugerida de execução.
+     * Assim como a execução, considera os componentes diretos de cada ficha; subconjuntos vêm do próprio estoque.
+     */
+    public PlanoAlocacaoDTO planejarAlocacao(String objetivo, Map<String, Double> pesos) {
+        String objetivoNormalizado = objetivo == null || objetivo.isBlank() ? "ORDENS" : objetivo.trim().toUpperCase(Locale.ROOT);
+        if (!objetivoNormalizado.equals("ORDENS") && !objetivoNormalizado.equals("UNIDADES")) {
+            throw new IllegalArgumentException("Objetivo inválido: " + objetivo + ". Use ORDENS ou UNIDADES.");
+        }
+        boolean porUnidades = objetivoNormalizado.equals("UNIDADES");
+        if (pesos != null) {
+            pesos.forEach((ordemId, peso) -> {
+                // Peso nulo, negativo ou não finito distorceria a nota valor / custo do alocador
+                if (peso == null || !Double.isFinite(peso) || peso < 0) {
+                    throw new IllegalArgumentException("Peso inválido para a ordem " + ordemId
+                            + ": use um número maior ou igual a zero (zero deixa a ordem fora do plano).");
+                }
+            });
+        }
+
+        MatrizProducao matriz = carregarMatriz();
+        List<Object[]> ordens = ordemProducaoRepository.findResumoPorStatus(STATUS_ABERTOS);
+
+        // Ordens sem ficha não entram no plano; as demais viram linhas de consumo em CSR
+        int total = ordens.size();
+        int[] produtoDaOrdem = new int[total];
+        int[] planejaveis = new int[total];
+        int n = 0;
+        int linhas = 0;
+        for (int o = 0; o < total; o++) {
+            int produto = matriz.indiceDe((String) ordens.get(o)[1]);
+            produtoDaOrdem[o] = produto;
+            int ficha = produto >= 0 ? matriz.fichaDoProduto(produto) : -1;
+            if (ficha >= 0) {
+                planejaveis[n++] = o;
+                linhas += matriz.fim(ficha) - matriz.inicio(ficha);
+            }
+        }
+
+        int[] inicio = new int[n + 1];
+        int[] material = new int[linhas];
+        double[] consumo = new double[linhas];
+        double[] valor = new double[n];
+        boolean[] fixa = new boolean[n];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            Object[] ordem = ordens.get(planejaveis[i]);
+            double quantidade = ((Number) ordem[2]).doubleValue();
+            int ficha = matriz.fichaDoProduto(produtoDaOrdem[planejaveis[i]]);
+            inicio[i] = k;
+            for (int c = matriz.inicio(ficha); c < matriz.fim(ficha); c++) {
+                material[k] = matriz.componente(c);
+                consumo[k++] = matriz.quantidadePorUnidade(c) * quantidade;
+            }
+            double peso = pesos != null ? pesos.getOrDefault((String) ordem[0], 1.0) : 1.0;
+            valor[i] = porUnidades ? peso * quantidade : peso;
+            fixa[i] = ordem[3] == StatusOrdemProducao.EM_ANDAMENTO;
+        }
+        inicio[n] = k;
+
+        AlocadorMateriais.Resultado resultado = AlocadorMateriais.alocar(matriz.copiarEstoques(), inicio, material, consumo, valor, fixa);
+
+        List<AlocacaoOrdemDTO> sequencia = new ArrayList<>(resultado.sequencia.length);
+        boolean[] aceita = new boolean[n];
+        double unidades = 0.0;
+        for (int posicao = 0; posicao < resultado.sequencia.length; posicao++) {
+            aceita[resultado.sequencia[posicao]] = true;
+            int o = planejaveis[resultado.sequencia[posicao]];
+            sequencia.add(alocacaoOrdem(matriz, ordens.get(o), produtoDaOrdem[o], posicao + 1, -1));
+            unidades += ((Number) ordens.get(o)[2]).doubleValue();
+        }
+        List<AlocacaoOrdemDTO> naoAtendidas = new ArrayList<>();
+        int proxima = 0;
+        for (int o = 0; o < total; o++) {
+            if (proxima < n && planejaveis[proxima] == o) {
+                // Recusada por falta de material, ou deixada de fora pelo peso zero (sem material limitante)
+                if (!aceita[proxima]) {
+                    naoAtendidas.add(alocacaoOrdem(matriz, ordens.get(o), produtoDaOrdem[o], null, resultado.limitante[proxima]));
+                }
+                proxima++;
+            } else {
+                // Sem ficha técnica: não há como planejar
+                naoAtendidas.add(alocacaoOrdem(matriz, ordens.get(o), produtoDaOrdem[o], null, -1));
+            }
+        }
+        return new PlanoAlocacaoDTO(objetivoNormalizado, total, unidades, sequencia, naoAtendidas);
+    }
+
+    private static AlocacaoOrdemDTO alocacaoOrdem(MatrizProducao matriz, Object[] ordem, int produto, Integer posicao, int limitante) {
+        return new AlocacaoOrdemDTO(
+                posicao,
+                (String) ordem[0],
+                (String) ordem[1],
+                produto >= 0 ? matriz.produtoNome(produto) : null,
+                ((Number) ordem[2]).doubleValue(),
+                ((StatusOrdemProducao) ordem[3]).name(),
+                limitante >= 0 ? matriz.produtoId(limitante) : null,
+                limitante >= 0 ? matriz.produtoNome(limitante) : null
+        );
+    }
+
+    private static double[] agregarSequencial(MatrizProducao matriz, List<Object[]> ordens) {
+        double[] acumulado = new double[matriz.totalProdutos()];
+        for (Object[] ordem : ordens) {
+            acumularOrdem(matriz, acumulado, ordem);
+        }
+        return acumulado;
+    }
+
+    private static void acumularOrdem(MatrizProducao matriz, double[] acumulado, Object[] ordem) {
+        int produto = matriz.indiceDe((String) ordem[0]);
+        if (produto >= 0 && matriz.fichaDoProduto(produto) >= 0) {
+            acumulado[produto] += ((Number) ordem[1]).doubleValue();
+        }
+    }
+
+    private static void somar(double[] destino, double[] parcial) {
+        for (int i = 0; i < destino.length; i++) {
+            destino[i] += parcial[i];
+        }
+    }
+
+    /**
+     * Produtos com ficha em ordem topológica (quem consome antes de quem é consumido), pelo algoritmo de Kahn.
+     * Lança IllegalStateException se as fichas formarem ciclo.
+     */
+    private static int[] ordemTopologica(MatrizProducao matriz) {
+        int fichas = matriz.totalFichas();
+        int[] grauEntrada = new int[fichas];
+        for (int f = 0; f < fichas; f++) {
+            for (int k = matriz.inicio(f); k < matriz.fim(f); k++) {
+                int sub = matriz.fichaDoProduto(matriz.componente(k));
+                if (sub >= 0) {
+                    grauEntrada[sub]++;
+                }
+            }
+        }
+        int[] fila = new int[fichas];
+        int cabeca = 0;
+        int cauda = 0;
+        for (int f = 0; f < fichas; f++) {
+            if (grauEntrada[f] == 0) {
+                fila[cauda++] = f;
+            }
+        }
+        int[] ordem = new int[fichas];
+        while (cabeca < cauda) {
+            int f = fila[cabeca++];
+            ordem[cabeca - 1] = matriz.produtoDaFicha(f);
+            for (int k = matriz.inicio(f); k < matriz.fim(f); k++) {
+                int sub = matriz.fichaDoProduto(matriz.componente(k));
+                if (sub >= 0 && --grauEntrada[sub] == 0) {
+                    fila[cauda++] = sub;
+                }
+            }
+        }
+        if (cauda < fichas) {
+            throw new IllegalStateException("As fichas técnicas formam um ciclo; não é possível calcular o MRP.");
+        }
+        return ordem;
+    }
+}
@@ -1,31 +1,70 @@
 package br.com.jovvaz.control_system.service;
 
 import br.com.jovvaz.control_system.dto.ComponenteDTO;
+import br.com.jovvaz.control_system.dto.ComponenteFichaResumoDTO;
+import br.com.jovvaz.control_system.dto.ExplosaoEstruturaDTO;
+import br.com.jovvaz.control_system.dto.CacheEstatisticasDTO;
+import br.com.jovvaz.control_system.dto.FaltaComponenteDTO;
+import br.com.jovvaz.control_system.dto.FichaTecnicaResumoDTO;
 import br.com.jovvaz.control_system.dto.ProdutoAcabadoRequestDTO;
+import br.com.jovvaz.control_system.dto.ProdutoEstoqueView;
+import br.com.jovvaz.control_system.dto.ViabilidadeProducaoDTO;
 import br.com.jovvaz.control_system.model.FichaTecnica;
-import br.com.jovvaz.control_system.model.FichaTecnicaComponente;
+import br.com.jovvaz.control_system.model.MovimentacaoEstoque;
 import br.com.jovvaz.control_system.model.Produto;
+import br.com.jovvaz.control_system.model.TipoMovimentacao;
 import br.com.jovvaz.control_system.model.TipoProduto;
 import br.com.jovvaz.control_system.repository.FichaTecnicaRepository;
 import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import br.com.jovvaz.control_system.service.VersoesColecoes.Colecao;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.List;
 
 @Service
 public class ProducaoService {
 
+    // Diferença entre o disponível em memória e o do banco abaixo da qual não se considera divergência
+    private static final double TOLERANCIA_DISPONIVEL = 1e-9;
+
     private final ProdutoRepository produtoRepository;
     private final FichaTecnicaRepository fichaTecnicaRepository;
     private final EstoqueService estoqueService;
+    private final MovimentacaoEstoqueService movimentacaoEstoqueService;
+    private final FichaTecnicaCache fichaTecnicaCache;
+    private final ExplosaoEstruturaService explosaoEstruturaService;
+    private final DisponibilidadeEstoque disponibilidadeEstoque;
+    private final ReservaEstoqueService reservaEstoqueService;
+    private final ProdutoCache produtoCache;
+    private final VersoesColecoes versoesColecoes;
+    private final MetricasDashboard metricasDashboard;
+    private final ResumoPeriodoService resumoPeriodoService;
 
-    public ProducaoService(ProdutoRepository produtoRepository, FichaTecnicaRepository fichaTecnicaRepository, EstoqueService estoqueService) {
+    public ProducaoService(ProdutoRepository produtoRepository, FichaTecnicaRepository fichaTecnicaRepository, EstoqueService estoqueService,
+                           MovimentacaoEstoqueService movimentacaoEstoqueService, FichaTecnicaCache fichaTecnicaCache,
+                           ExplosaoEstruturaService explosaoEstruturaService, DisponibilidadeEstoque disponibilidadeEstoque,
+                           ReservaEstoqueService reservaEstoqueService, ProdutoCache produtoCache,
+                           VersoesColecoes versoesColecoes, MetricasDashboard metricasDashboard,
+                           ResumoPeriodoService resumoPeriodoService) {
         this.produtoRepository = produtoRepository;
         this.fichaTecnicaRepository = fichaTecnicaRepository;
         this.estoqueService = estoqueService;
+        this.movimentacaoEstoqueService = movimentacaoEstoqueService;
+        this.fichaTecnicaCache = fichaTecnicaCache;
+        this.explosaoEstruturaService = explosaoEstruturaService;
+        this.disponibilidadeEstoque = disponibilidadeEstoque;
+        this.reservaEstoqueService = reservaEstoqueService;
+        this.produtoCache = produtoCache;
+        this.versoesColecoes = versoesColecoes;
+        this.metricasDashboard = metricasDashboard;
+        this.resumoPeriodoService = resumoPeriodoService;
     }
 
     @Transactional
@@ -68,7 +107,9 @@ public class ProducaoService {
                         // Persistir valores opcionais de estoque
                         novo.setEstoqueMinimo(dto.getEstoqueMinimo());
                         novo.setEstoqueRecomendado(dto.getEstoqueRecomendado());
-                        return produtoRepository.save(novo);
+                        Produto salvo = produtoRepository.save(novo);
+                        resumoPeriodoService.registrarProdutoCriado();
+                        return salvo;
                     });
         }
 
@@ -86,6 +127,8 @@ public class ProducaoService {
             throw new IllegalArgumentException("O estoque recomendado deve ser maior ou igual ao estoque mínimo.");
         }
         produtoAcabado = produtoRepository.save(produtoAcabado);
+        produtoCache.invalidarAposCommit(produtoAcabado.getId());
+        metricasDashboard.registrarProdutoAposCommit(produtoAcabado);
 
         // Buscar ficha técnica existente ou criar nova
         Optional<FichaTecnica> fichaExistenteOpt = fichaTecnicaRepository.findByProdutoAcabadoId(produtoAcabado.getId());
@@ -93,6 +136,8 @@ public class ProducaoService {
         
         if (fichaExistenteOpt.isPresent()) {
             ficha = fichaExistenteOpt.get();
+            // Outras instâncias comparam a ficha compilada em memória com esta versão
+            ficha.incrementarVersao();
             // Limpar componentes antigos (orphanRemoval cuidará da remoção no banco)
             ficha.getComponentes().clear();
         } else {
@@ -106,18 +151,36 @@ public class ProducaoService {
 
         // Adicionar novos componentes, se fornecidos
         if (dto.getComponentes() != null) {
+            // Todos os componentes em uma consulta, em vez de uma por componente
+            List<String> idsComponentes = new ArrayList<>(dto.getComponentes().size());
             for (ComponenteDTO compDTO : dto.getComponentes()) {
                 if (compDTO.getMateriaPrimaId() == null || compDTO.getMateriaPrimaId().trim().isEmpty()) {
                     throw new IllegalArgumentException("ID da matéria-prima não pode ser nulo ou vazio.");
                 }
+                idsComponentes.add(compDTO.getMateriaPrimaId());
+            }
+            Map<String, Produto> materiasPrimas = new HashMap<>();
+            for (Produto encontrado : produtoRepository.findAllById(idsComponentes)) {
+                materiasPrimas.put(encontrado.getId(), encontrado);
+            }
 
-                Produto materiaPrima = produtoRepository.findById(compDTO.getMateriaPrimaId())
-                        .orElseThrow(() -> new EntityNotFoundException("Matéria-prima não encontrada com ID: " + compDTO.getMateriaPrimaId()));
+            for (ComponenteDTO compDTO : dto.getComponentes()) {
+                Produto materiaPrima = materiasPrimas.get(compDTO.getMateriaPrimaId());
+                if (materiaPrima == null) {
+                    throw new EntityNotFoundException("Matéria-prima não encontrada com ID: " + compDTO.getMateriaPrimaId());
+                }
 
                 if (compDTO.getQuantidade() <= 0) {
                     throw new IllegalArgumentException("Quantidade do componente deve ser maior que zero.");
                 }
 
+                // Subconjunto: não pode conter, em nenhum nível, o produto que está sendo definido
+                if (materiaPrima.getTipo() == TipoProduto.PRODUTO_ACABADO
+                        && explosaoEstruturaService.contemNaEstrutura(materiaPrima.getId(), produtoAcabado.getId())) {
+                    throw new IllegalArgumentException("O componente " + materiaPrima.getId() + " contém o produto "
+                            + produtoAcabado.getId() + " em sua estrutura (ciclo).");
+                }
+
                 ficha.adicionarComponente(materiaPrima, compDTO.getQuantidade());
             }
         }
@@ -125,61 +188,176 @@ public class ProducaoService {
         // Garantir que o vínculo do produto acabado está correto
         ficha.setProdutoAcabado(produtoAcabado);
 
+        // A versão compilada em cache deixa de valer
+        fichaTecnicaCache.invalidar(produtoAcabado.getId());
+        versoesColecoes.registrarAlteracao(Colecao.PRODUTOS, Colecao.CADASTRO_PRODUTOS, Colecao.FICHAS_TECNICAS);
+
         // Salvar e retornar a ficha técnica
         // O @Transactional garante que tudo será persistido ao final da transação
         return fichaTecnicaRepository.save(ficha);
     }
 
-    public boolean verificarViabilidadeProducao(String produtoAcabadoId, double quantidadeProduzir) {
-        FichaTecnica fichaTecnica = fichaTecnicaRepository.findByProdutoAcabadoId(produtoAcabadoId)
-                .orElseThrow(() -> new IllegalArgumentException("Ficha técnica não encontrada para o produto ID: " + produtoAcabadoId));
+    /**
+     * Verifica se há matéria-prima disponível (saldo menos reservas) para produzir a quantidade informada.
+     * A ficha vem do cache compilado e o disponível da tabela em memória: sem consultas quando não há faltas.
+     * Faltas apontadas pela tabela são confirmadas no banco antes de reportadas, sem lançar exceção por elas.
+     */
+    public ViabilidadeProducaoDTO verificarViabilidadeProducao(String produtoAcabadoId, double quantidadeProduzir) {
+        FichaTecnicaCompilada ficha = obterFichaCompilada(produtoAcabadoId);
+        return new ViabilidadeProducaoDTO(produtoAcabadoId, quantidadeProduzir, calcularFaltas(ficha, quantidadeProduzir, Map.of()));
+    }
+
+    // reservadoPelaOrdem: reservas da própria ordem, que contam como disponíveis para ela
+    private List<FaltaComponenteDTO> calcularFaltas(FichaTecnicaCompilada ficha, double quantidadeProduzir,
+                                                    Map<String, Double> reservadoPelaOrdem) {
+        List<String> idsFaltantes = new ArrayList<>();
+        double[] necessarios = new double[ficha.tamanho()];
+        double[] disponiveis = new double[ficha.tamanho()];
+        for (int i = 0; i < ficha.tamanho(); i++) {
+            String materiaPrimaId = ficha.materiaPrimaId(i);
+            necessarios[i] = ficha.quantidadePorUnidade(i) * quantidadeProduzir;
+            disponiveis[i] = disponibilidadeEstoque.disponivel(materiaPrimaId)
+                    + reservadoPelaOrdem.getOrDefault(materiaPrimaId, 0.0);
+            if (disponiveis[i] < necessarios[i]) {
+                idsFaltantes.add(materiaPrimaId);
+            }
+        }
+
+        List<FaltaComponenteDTO> faltas = new ArrayList<>(idsFaltantes.size());
+        if (idsFaltantes.isEmpty()) {
+            return faltas;
+        }
+        // A tabela em memória pode estar atrasada (movimentações de outras instâncias ainda não reconciliadas):
+        // a falta só vale se o banco, saldo menos reservas, confirmar. Nome e unidade vêm da mesma consulta
+        Map<String, ProdutoEstoqueView> estoques = new HashMap<>();
+        for (ProdutoEstoqueView estoque : produtoRepository.findEstoques(idsFaltantes)) {
+            estoques.put(estoque.getId(), estoque);
+        }
+        Map<String, Double> reservados = reservaEstoqueService.totaisReservados(idsFaltantes);
+        List<String> divergentes = new ArrayList<>();
+        for (int i = 0; i < ficha.tamanho(); i++) {
+            if (disponiveis[i] >= necessarios[i]) {
+                continue;
+            }
+            String materiaPrimaId = ficha.materiaPrimaId(i);
+            ProdutoEstoqueView estoque = estoques.get(materiaPrimaId);
+            double disponivelNoBanco = (estoque != null ? estoque.getQuantidadeEmEstoque() : 0.0)
+                    - reservados.getOrDefault(materiaPrimaId, 0.0)
+                    + reservadoPelaOrdem.getOrDefault(materiaPrimaId, 0.0);
+            if (Math.abs(disponivelNoBanco - disponiveis[i]) > TOLERANCIA_DISPONIVEL) {
+                divergentes.add(materiaPrimaId);
+            }
+            if (disponivelNoBanco >= necessarios[i]) {
+                continue;
+            }
+            faltas.add(new FaltaComponenteDTO(
+                    materiaPrimaId,
+                    estoque != null ? estoque.getNome() : materiaPrimaId,
+                    estoque != null ? estoque.getUnidadeMedida() : null,
+                    necessarios[i],
+                    Math.max(0.0, disponivelNoBanco)
+            ));
+        }
+        if (!divergentes.isEmpty()) {
+            disponibilidadeEstoque.marcarDivergencia(divergentes);
+        }
+        return faltas;
+    }
 
-        for (FichaTecnicaComponente componente : fichaTecnica.getComponentes()) {
-            Produto materiaPrima = componente.getMateriaPrima();
-            double quantidadeNecessariaPorUnidade = componente.getQuantidade();
-            double quantidadeTotalNecessaria = quantidadeNecessariaPorUnidade * quantidadeProduzir;
+    private FichaTecnicaCompilada obterFichaCompilada(String produtoAcabadoId) {
+        return fichaTecnicaCache.obter(produtoAcabadoId)
+                .orElseThrow(() -> new IllegalArgumentException("Ficha técnica não encontrada para o produto ID: " + produtoAcabadoId));
+    }
 
-            System.out.println("Verificando componente: " + materiaPrima.getNome());
-            System.out.println("-> Necessário por unidade: " + quantidadeNecessariaPorUnidade);
-            System.out.println("-> Total Necessário: " + quantidadeTotalNecessaria);
+    public ExplosaoEstruturaDTO explodirEstrutura(String produtoAcabadoId, double quantidade) {
+        return explosaoEstruturaService.explodir(produtoAcabadoId, quantidade);
+    }
 
-            Optional<Produto> materiaPrimaEstoqueOpt = produtoRepository.findById(materiaPrima.getId());
-            Produto materiaPrimaEstoque = materiaPrimaEstoqueOpt
-                    .orElseThrow(() -> new IllegalStateException("Componente " + materiaPrima.getNome() + " não cadastrado no estoque."));
+    public CacheEstatisticasDTO estatisticasCacheFichas() {
+        return fichaTecnicaCache.estatisticas();
+    }
 
-            System.out.println("-> Estoque atual: " + materiaPrimaEstoque.getQuantidadeEmEstoque());
+    // ETag da listagem de fichas: as fichas trazem os produtos completos, inclusive o saldo
+    public String etagFichasTecnicas() {
+        return versoesColecoes.etag(Colecao.FICHAS_TECNICAS, Colecao.PRODUTOS);
+    }
 
-            if (materiaPrimaEstoque.getQuantidadeEmEstoque() < quantidadeTotalNecessaria) {
-                throw new IllegalStateException("Estoque insuficiente para " + materiaPrima.getNome() + ". Necessário: " + quantidadeTotalNecessaria + ", Disponível: " + materiaPrimaEstoque.getQuantidadeEmEstoque());
+    // Duas consultas independentemente da quantidade de fichas; as linhas de componentes são distribuídas por ID da ficha
+    public List<FichaTecnicaResumoDTO> listarFichasTecnicas() {
+        List<FichaTecnicaResumoDTO> fichas = fichaTecnicaRepository.findResumos();
+        Map<String, FichaTecnicaResumoDTO> porId = new HashMap<>(fichas.size() * 2);
+        for (FichaTecnicaResumoDTO ficha : fichas) {
+            porId.put(ficha.getId(), ficha);
+        }
+        for (ComponenteFichaResumoDTO componente : fichaTecnicaRepository.findResumosComponentes()) {
+            FichaTecnicaResumoDTO ficha = porId.get(componente.getFichaTecnicaId());
+            if (ficha != null) {
+                ficha.getComponentes().add(componente);
             }
         }
-        return true;
+        return fichas;
     }
 
-    public List<FichaTecnica> listarFichasTecnicas() {
-        return fichaTecnicaRepository.findAll();
+    // Mesmo formato da listagem; nenhuma entidade chega ao Jackson
+    public Optional<FichaTecnicaResumoDTO> buscarFichaTecnicaPorProdutoId(String produtoAcabadoId) {
+        Optional<FichaTecnicaResumoDTO> ficha = fichaTecnicaRepository.findResumoPorProdutoAcabadoId(produtoAcabadoId);
+        ficha.ifPresent(encontrada -> encontrada.getComponentes()
+                .addAll(fichaTecnicaRepository.findResumosComponentesPorProdutoAcabadoId(produtoAcabadoId)));
+        return ficha;
     }
 
-    public Optional<FichaTecnica> buscarFichaTecnicaPorProdutoId(String produtoAcabadoId) {
-        return fichaTecnicaRepository.findByProdutoAcabadoId(produtoAcabadoId);
+    @Transactional
+    public void executarOrdemDeProducao(String produtoAcabadoId, double quantidadeProduzir) {
+        executarOrdemDeProducao(produtoAcabadoId, quantidadeProduzir, null);
     }
 
     @Transactional
-    public void executarOrdemDeProducao(String produtoAcabadoId, double quantidadeProduzir) {
-        if (!verificarViabilidadeProducao(produtoAcabadoId, quantidadeProduzir)) {
-            return;
+    public void executarOrdemDeProducao(String produtoAcabadoId, double quantidadeProduzir, String ordemId) {
+        // Conferida com a versão gravada: a ficha pode ter sido editada em outra instância
+        FichaTecnicaCompilada ficha = fichaTecnicaCache.obterConferida(produtoAcabadoId)
+                .orElseThrow(() -> new IllegalArgumentException("Ficha técnica não encontrada para o produto ID: " + produtoAcabadoId));
+        // A reserva da própria ordem é convertida em baixa: conta como disponível para ela
+        Map<String, Double> reservadoPelaOrdem = ordemId != null ? reservaEstoqueService.reservasDaOrdem(ordemId) : Map.of();
+        List<FaltaComponenteDTO> faltas = calcularFaltas(ficha, quantidadeProduzir, reservadoPelaOrdem);
+        if (!faltas.isEmpty()) {
+            throw new IllegalStateException(descreverFaltas(faltas));
         }
 
-        FichaTecnica fichaTecnica = fichaTecnicaRepository.findByProdutoAcabadoId(produtoAcabadoId)
-                .orElseThrow(() -> new IllegalArgumentException("Ficha técnica não encontrada para o produto ID: " + produtoAcabadoId));
+        String observacao = ordemId != null ? "Ordem de produção " + ordemId : "Produção avulsa";
+        LocalDateTime agora = LocalDateTime.now();
+        List<MovimentacaoEstoque> lancamentos = new ArrayList<>(ficha.tamanho() + 1);
+
+        // Componentes em ordem de ID: execuções concorrentes travam as linhas sempre na mesma ordem
+        for (int i = 0; i < ficha.tamanho(); i++) {
+            String materiaPrimaId = ficha.materiaPrimaId(i);
+            double quantidadeTotalBaixa = ficha.quantidadePorUnidade(i) * quantidadeProduzir;
+            estoqueService.aplicarBaixa(materiaPrimaId, quantidadeTotalBaixa);
+            lancamentos.add(new MovimentacaoEstoque(materiaPrimaId, TipoMovimentacao.SAIDA_PRODUCAO, -quantidadeTotalBaixa, agora, observacao));
+        }
 
-        for (FichaTecnicaComponente componente : fichaTecnica.getComponentes()) {
-            Produto materiaPrima = componente.getMateriaPrima();
-            double quantidadeNecessariaPorUnidade = componente.getQuantidade();
-            double quantidadeTotalBaixa = quantidadeNecessariaPorUnidade * quantidadeProduzir;
-            estoqueService.darBaixa(materiaPrima.getId(), quantidadeTotalBaixa);
+        estoqueService.aplicarEntrada(produtoAcabadoId, quantidadeProduzir);
+        lancamentos.add(new MovimentacaoEstoque(produtoAcabadoId, TipoMovimentacao.ENTRADA_PRODUCAO, quantidadeProduzir, agora, observacao));
+
+        // Lançamentos gravados depois de todos os UPDATEs, para que os INSERTs saiam juntos em batch
+        movimentacaoEstoqueService.registrarTodas(lancamentos);
+        resumoPeriodoService.registrarProducao(produtoAcabadoId, quantidadeProduzir, agora, ordemId != null);
+
+        // Liberada depois das baixas: após o commit, o saldo cai antes de a reserva sair da tabela em memória
+        if (!reservadoPelaOrdem.isEmpty()) {
+            reservaEstoqueService.liberarDaOrdem(ordemId);
         }
+    }
 
-        estoqueService.darEntrada(produtoAcabadoId, quantidadeProduzir);
+    private String descreverFaltas(List<FaltaComponenteDTO> faltas) {
+        StringBuilder sb = new StringBuilder();
+        for (FaltaComponenteDTO falta : faltas) {
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            sb.append("Estoque insuficiente para ").append(falta.getMateriaPrimaNome())
+                    .append(". Necessário: ").append(falta.getNecessario())
+                    .append(", Disponível: ").append(falta.getDisponivel());
+        }
+        return sb.toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,297 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.CacheEstatisticasDTO;
+import br.com.jovvaz.control_system.model.Produto;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de leitura de produtos, limitado e com descarte LRU, na frente de buscarPorId/buscarTodos.
+ * Guarda cópias desanexadas e devolve cópias: quem lê nunca altera o que está em cache.
+ *
+ * Escritas que conhecem o estado gravado (cadastro, edição, entrada/baixa avulsa, lote) substituem a entrada
+ * após o commit, se a versão for mais nova. Movimentações atômicas sem releitura (produção) apenas marcam o
+ * produto como pendente; a próxima leitura o recarrega. Cargas que começaram antes de uma invalidação
+ * não entram no cache.
+ *
+ * Enquanto o catálogo inteiro couber, a listagem completa sai do cache sem consulta; só os pendentes são relidos.
+ *
+ * Escritas feitas por outra instância não passam por aqui: a cada intervalo de reconciliação, a primeira leitura
+ * consulta só ID e versão de todos os produtos. Cópias com versão mais antiga que a do banco e produtos novos
+ * viram pendentes; produtos que não existem mais saem do cache.
+ */
+@Component
+public class ProdutoCache {
+
+    private final ProdutoRepository produtoRepository;
+    private final boolean habilitado;
+    private final int capacidade;
+    private final long intervaloReconciliacaoNanos;
+
+    // Ordem de acesso: o primeiro elemento é o menos usado recentemente. Guardado por this.
+    private final LinkedHashMap<String, Produto> produtos;
+    // Produtos que existem mas cuja cópia em cache ficou desatualizada
+    private final Set<String> pendentes = new HashSet<>();
+    // Cache contém todo o catálogo (além dos pendentes)
+    private boolean completo;
+    // Incrementada a cada invalidação/remoção
+    private long geracao;
+    private long ultimaReconciliacao = System.nanoTime();
+    // Conferência de versões em andamento; só uma por vez
+    private boolean reconciliando;
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+
+    public ProdutoCache(ProdutoRepository produtoRepository,
+                        @Value("${app.cache.produtos.habilitado:true}") boolean habilitado,
+                        @Value("${app.cache.produtos.capacidade:10000}") int capacidade,
+                        @Value("${app.cache.produtos.reconciliacao-ms:15000}") long intervaloReconciliacaoMs) {
+        this.produtoRepository = produtoRepository;
+        this.habilitado = habilitado;
+        this.capacidade = Math.max(1, capacidade);
+        this.intervaloReconciliacaoNanos = TimeUnit.MILLISECONDS.toNanos(intervaloReconciliacaoMs);
+        this.produtos = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Produto> maisAntigo) {
+                if (size() > ProdutoCache.this.capacidade) {
+                    // Um produto a menos em memória: a listagem completa volta a depender do banco
+                    completo = false;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<Produto> buscarPorId(String id) {
+        if (!habilitado) {
+            return produtoRepository.findById(id);
+        }
+        reconciliarSeVencido();
+        long geracaoInicial;
+        synchronized (this) {
+            Produto emCache = pendentes.contains(id) ? null : produtos.get(id);
+            if (emCache != null) {
+                acertos.increment();
+                return Optional.of(emCache.copia());
+            }
+            geracaoInicial = geracao;
+        }
+        falhas.increment();
+        Optional<Produto> carregado = produtoRepository.findById(id);
+        carregado.ifPresent(produto -> guardarCarregados(List.of(produto), geracaoInicial, false));
+        return carregado.map(Produto::copia);
+    }
+
+    public List<Produto> buscarTodos() {
+        if (!habilitado) {
+            return produtoRepository.findAll();
+        }
+        reconciliarSeVencido();
+        long geracaoInicial;
+        List<String> paraRecarregar;
+        synchronized (this) {
+            if (completo && pendentes.isEmpty()) {
+                acertos.increment();
+                return copiasOrdenadas();
+            }
+            geracaoInicial = geracao;
+            paraRecarregar = completo ? new ArrayList<>(pendentes) : null;
+        }
+        falhas.increment();
+        if (paraRecarregar != null) {
+            List<Produto> recarregados = produtoRepository.findAllById(paraRecarregar);
+            guardarCarregados(recarregados, geracaoInicial, false);
+            descartarAusentes(paraRecarregar, recarregados, geracaoInicial);
+            synchronized (this) {
+                if (completo && pendentes.isEmpty()) {
+                    return copiasOrdenadas();
+                }
+                geracaoInicial = geracao;
+            }
+        }
+        // Catálogo maior que a capacidade, ou corrida com uma invalidação: leitura completa do banco
+        List<Produto> todos = new ArrayList<>(produtoRepository.findAll());
+        guardarCarregados(todos, geracaoInicial, true);
+        todos.sort(Comparator.comparing(Produto::getId));
+        return todos;
+    }
+
+    /**
+     * Substitui a cópia em cache pelo estado gravado, após o commit. Versões mais antigas que a em cache são ignoradas.
+     */
+    public void atualizarAposCommit(Produto produto) {
+        if (!habilitado) {
+            return;
+        }
+        Transacoes.aposCommit(() -> atualizar(produto.copia()));
+    }
+
+    /**
+     * Marca o produto como desatualizado após o commit; a próxima leitura o recarrega.
+     */
+    public void invalidarAposCommit(String id) {
+        if (!habilitado) {
+            return;
+        }
+        Transacoes.aposCommit(() -> invalidar(id));
+    }
+
+    public void removerAposCommit(String id) {
+        if (!habilitado) {
+            return;
+        }
+        Transacoes.aposCommit(() -> remover(id));
+    }
+
+    public CacheEstatisticasDTO estatisticas() {
+        int tamanho;
+        synchronized (this) {
+            tamanho = produtos.size();
+        }
+        return new CacheEstatisticasDTO(acertos.sum(), falhas.sum(), tamanho);
+    }
+
+    private synchronized void atualizar(Produto produto) {
+        // Pendente: há uma alteração mais nova de versão desconhecida; espera a releitura
+        if (pendentes.contains(produto.getId())) {
+            return;
+        }
+        Produto atual = produtos.get(produto.getId());
+        if (atual == null || versao(produto) >= versao(atual)) {
+            produtos.put(produto.getId(), produto);
+        }
+    }
+
+    private synchronized void invalidar(String id) {
+        geracao++;
+        pendentes.add(id);
+        produtos.remove(id);
+    }
+
+    private synchronized void remover(String id) {
+        geracao++;
+        pendentes.remove(id);
+        produtos.remove(id);
+    }
+
+    private void reconciliarSeVencido() {
+        synchronized (this) {
+            if (reconciliando || System.nanoTime() - ultimaReconciliacao < intervaloReconciliacaoNanos) {
+                return;
+            }
+            reconciliando = true;
+        }
+        try {
+            // Leitura fora do monitor: escritas locais seguem entrando no cache durante a consulta
+            Map<String, Long> versoes = new HashMap<>();
+            for (Object[] linha : produtoRepository.findVersoes()) {
+                versoes.put((String) linha[0], linha[1] != null ? (Long) linha[1] : 0L);
+            }
+            conciliar(versoes);
+        } finally {
+            synchronized (this) {
+                reconciliando = false;
+                ultimaReconciliacao = System.nanoTime();
+            }
+        }
+    }
+
+    private synchronized void conciliar(Map<String, Long> versoes) {
+        boolean alterou = false;
+        for (Iterator<Map.Entry<String, Produto>> it = produtos.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Produto> entrada = it.next();
+            Long noBanco = versoes.get(entrada.getKey());
+            // Versões só crescem: uma cópia mais nova que a lida veio de uma escrita local posterior à consulta
+            if (noBanco == null) {
+                // Excluído em outra instância, ou cadastrado aqui depois da consulta: a listagem volta ao banco
+                it.remove();
+                completo = false;
+                alterou = true;
+            } else if (versao(entrada.getValue()) < noBanco) {
+                it.remove();
+                pendentes.add(entrada.getKey());
+                alterou = true;
+            }
+        }
+        if (completo) {
+            // Cadastrados em outra instância: entram na próxima listagem pela releitura dos pendentes
+            for (String id : versoes.keySet()) {
+                if (!produtos.containsKey(id) && pendentes.add(id)) {
+                    alterou = true;
+                }
+            }
+        }
+        if (alterou) {
+            geracao++;
+        }
+    }
+
+    // Pedidos na releitura e não devolvidos foram excluídos em outra instância
+    private synchronized void descartarAusentes(Collection<String> pedidos, List<Produto> carregados, long geracaoInicial) {
+        if (geracao != geracaoInicial) {
+            return;
+        }
+        Set<String> ausentes = new HashSet<>(pedidos);
+        for (Produto produto : carregados) {
+            ausentes.remove(produto.getId());
+        }
+        for (String id : ausentes) {
+            pendentes.remove(id);
+            produtos.remove(id);
+        }
+    }
+
+    private synchronized void guardarCarregados(List<Produto> carregados, long geracaoInicial, boolean catalogoCompleto) {
+        if (geracao != geracaoInicial) {
+            return;
+        }
+        if (catalogoCompleto) {
+            // Vira falso se algum put abaixo descartar uma entrada por capacidade
+            completo = true;
+            // O que não veio na leitura completa não existe mais
+            Set<String> lidos = new HashSet<>();
+            for (Produto produto : carregados) {
+                lidos.add(produto.getId());
+            }
+            produtos.keySet().retainAll(lidos);
+            pendentes.retainAll(lidos);
+        }
+        for (Produto produto : carregados) {
+            pendentes.remove(produto.getId());
+            Produto atual = produtos.get(produto.getId());
+            if (atual == null || versao(produto) >= versao(atual)) {
+                produtos.put(produto.getId(), produto.copia());
+            }
+        }
+    }
+
+    private List<Produto> copiasOrdenadas() {
+        List<Produto> copias = new ArrayList<>(produtos.size());
+        for (Produto produto : produtos.values()) {
+            copias.add(produto.copia());
+        }
+        copias.sort(Comparator.comparing(Produto::getId));
+        return copias;
+    }
+
+    private static long versao(Produto produto) {
+        return produto.getVersao() != null ? produto.getVersao() : 0L;
+    }
+}
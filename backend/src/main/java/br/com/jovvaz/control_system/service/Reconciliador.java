@@ -0,0 +1,225 @@
+package br.com.jovvaz.control_system.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Reconciliação de uma tabela em memória com o banco, usada por {@link DisponibilidadeEstoque} e {@link MetricasDashboard}.
+ * O dono da tabela fornece a leitura do banco e como aplicar o que foi lido; aqui ficam as alterações pendentes,
+ * as leituras em andamento e os itens a conferir.
+ * <p>
+ * Alterações são registradas ainda na transação e aplicadas quando ela termina. A tabela é relida do banco a cada
+ * intervalo de reconciliação (o que traz as alterações de outras instâncias) ou quando marcada como divergente.
+ * A leitura roda fora do monitor: quem registra alterações nunca espera por ela. Um item com alteração pendente
+ * durante a leitura pode ou não ter o commit refletido no que foi lido; ele mantém o valor em memória e é relido
+ * depois, assim que estiver sem alterações pendentes. Os demais recebem o valor lido.
+ * <p>
+ * O estado daqui e a tabela são guardados pelo mesmo monitor, o do dono; os callbacks de aplicação rodam sob ele.
+ */
+final class Reconciliador<K, V> {
+
+    private final Object monitor;
+    private final long intervaloReconciliacaoNanos;
+    // Chaves nulas: tabela inteira. Roda fora do monitor
+    private final Function<Set<K>, Map<K, V>> ler;
+    // Valor nulo: o item não existe mais no banco
+    private final BiConsumer<K, V> substituir;
+    // Troca a tabela inteira pelo que foi lido; as chaves informadas mantêm o valor em memória
+    private final BiConsumer<Map<K, V>, Set<K>> substituirTodas;
+
+    // Tudo abaixo é guardado pelo monitor
+    private boolean carregado;
+    private boolean divergente;
+    private long ultimaCarga;
+    // Reconciliação em andamento (completa ou dos itens a conferir); só uma por vez
+    private boolean reconciliando;
+    // chave -> alterações registradas cujas transações ainda não terminaram
+    private final Map<K, Integer> pendentes = new HashMap<>();
+    // Leituras do banco em andamento
+    private final List<Leitura<K>> leituras = new ArrayList<>();
+    // Itens a reler do banco assim que estiverem sem alterações pendentes
+    private final Set<K> aConferir = new HashSet<>();
+
+    Reconciliador(Object monitor, long intervaloReconciliacaoNanos, Function<Set<K>, Map<K, V>> ler,
+                  BiConsumer<K, V> substituir, BiConsumer<Map<K, V>, Set<K>> substituirTodas) {
+        this.monitor = monitor;
+        this.intervaloReconciliacaoNanos = intervaloReconciliacaoNanos;
+        this.ler = ler;
+        this.substituir = substituir;
+        this.substituirTodas = substituirTodas;
+    }
+
+    /**
+     * Registra uma alteração das chaves na transação atual; a ação correspondente roda quando ela termina.
+     */
+    void registrar(Collection<K> chaves, Runnable aoConfirmar, Runnable aoReverter) {
+        synchronized (monitor) {
+            for (K chave : chaves) {
+                pendentes.merge(chave, 1, Integer::sum);
+            }
+            for (Leitura<K> leitura : leituras) {
+                leitura.incertos.addAll(chaves);
+            }
+        }
+        Transacoes.aoConcluir(confirmada -> concluir(chaves, confirmada ? aoConfirmar : aoReverter));
+    }
+
+    boolean carregado() {
+        synchronized (monitor) {
+            return carregado;
+        }
+    }
+
+    /**
+     * Relê a tabela inteira na próxima consulta.
+     */
+    void marcarDivergencia() {
+        synchronized (monitor) {
+            divergente = true;
+        }
+    }
+
+    /**
+     * Relê estes itens na próxima consulta, assim que estiverem sem alterações pendentes.
+     */
+    void conferir(Collection<K> chaves) {
+        synchronized (monitor) {
+            if (carregado) {
+                aConferir.addAll(chaves);
+            }
+        }
+    }
+
+    // Decide sob o monitor se é preciso ler o banco; a leitura em si roda fora dele
+    void garantirAtualizado() {
+        Leitura<K> leitura;
+        synchronized (monitor) {
+            leitura = proximaLeitura();
+        }
+        if (leitura != null) {
+            ler(leitura);
+        }
+    }
+
+    private void concluir(Collection<K> chaves, Runnable acao) {
+        synchronized (monitor) {
+            for (K chave : chaves) {
+                pendentes.computeIfPresent(chave, (c, n) -> n > 1 ? n - 1 : null);
+            }
+            if (acao != null) {
+                acao.run();
+            }
+        }
+    }
+
+    private Leitura<K> proximaLeitura() {
+        if (!carregado) {
+            // Antes da primeira carga ninguém espera por outra thread: cada uma lê, a primeira a terminar vale
+            return iniciarLeitura(null);
+        }
+        if (reconciliando) {
+            return null;
+        }
+        if (divergente || System.nanoTime() - ultimaCarga >= intervaloReconciliacaoNanos) {
+            ultimaCarga = System.nanoTime();
+            reconciliando = true;
+            return iniciarLeitura(null);
+        }
+        Set<K> chaves = new HashSet<>();
+        for (Iterator<K> it = aConferir.iterator(); it.hasNext(); ) {
+            K chave = it.next();
+            if (!pendentes.containsKey(chave)) {
+                chaves.add(chave);
+                it.remove();
+            }
+        }
+        if (chaves.isEmpty()) {
+            return null;
+        }
+        reconciliando = true;
+        return iniciarLeitura(chaves);
+    }
+
+    // Itens com alteração pendente agora, ou registrada até o fim da leitura, ficam incertos
+    private Leitura<K> iniciarLeitura(Set<K> chaves) {
+        if (chaves == null) {
+            divergente = false;
+        }
+        Leitura<K> leitura = new Leitura<>(chaves, carregado, new HashSet<>(pendentes.keySet()));
+        leituras.add(leitura);
+        return leitura;
+    }
+
+    private void ler(Leitura<K> leitura) {
+        Map<K, V> lidas;
+        try {
+            lidas = ler.apply(leitura.chaves);
+        } catch (RuntimeException e) {
+            synchronized (monitor) {
+                descartar(leitura);
+            }
+            throw e;
+        }
+        synchronized (monitor) {
+            aplicar(leitura, lidas);
+        }
+    }
+
+    private void aplicar(Leitura<K> leitura, Map<K, V> lidas) {
+        leituras.remove(leitura);
+        if (leitura.reconciliacao) {
+            reconciliando = false;
+        }
+        if (leitura.chaves != null) {
+            for (K chave : leitura.chaves) {
+                if (leitura.incertos.contains(chave)) {
+                    aConferir.add(chave);
+                } else {
+                    substituir.accept(chave, lidas.get(chave));
+                }
+            }
+            return;
+        }
+        // O valor em memória dos incertos já tem todas as alterações desta instância e fica como está.
+        // Na primeira carga não há valor confiável em memória e os incertos ficam com o valor lido.
+        // Em ambos os casos são relidos assim que estiverem sem alterações pendentes
+        substituirTodas.accept(lidas, carregado ? leitura.incertos : Set.of());
+        aConferir.addAll(leitura.incertos);
+        carregado = true;
+        ultimaCarga = Math.max(ultimaCarga, leitura.inicio);
+    }
+
+    private void descartar(Leitura<K> leitura) {
+        leituras.remove(leitura);
+        if (leitura.reconciliacao) {
+            reconciliando = false;
+            if (leitura.chaves != null) {
+                aConferir.addAll(leitura.chaves);
+            } else {
+                divergente = true;
+            }
+        }
+    }
+
+    private static final class Leitura<K> {
+        // null: tabela inteira
+        private final Set<K> chaves;
+        private final boolean reconciliacao;
+        private final Set<K> incertos;
+        private final long inicio = System.nanoTime();
+
+        private Leitura(Set<K> chaves, boolean reconciliacao, Set<K> incertos) {
+            this.chaves = chaves;
+            this.reconciliacao = reconciliacao;
+            this.incertos = incertos;
+        }
+    }
+}
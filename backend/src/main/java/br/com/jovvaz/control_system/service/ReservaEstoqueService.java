@@ -0,0 +1,120 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.model.ReservaEstoque;
+import br.com.jovvaz.control_system.repository.ReservaEstoqueRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reservas de componentes por ordem de produção. As linhas em reservas_estoque são a fonte da verdade;
+ * {@link DisponibilidadeEstoque} mantém os totais em memória para as verificações de viabilidade.
+ */
+@Service
+public class ReservaEstoqueService {
+
+    private final ReservaEstoqueRepository reservaEstoqueRepository;
+    private final DisponibilidadeEstoque disponibilidadeEstoque;
+    private final FichaTecnicaCache fichaTecnicaCache;
+
+    public ReservaEstoqueService(ReservaEstoqueRepository reservaEstoqueRepository,
+                                DisponibilidadeEstoque disponibilidadeEstoque,
+                                FichaTecnicaCache fichaTecnicaCache) {
+        this.reservaEstoqueRepository = reservaEstoqueRepository;
+        this.disponibilidadeEstoque = disponibilidadeEstoque;
+        this.fichaTecnicaCache = fichaTecnicaCache;
+    }
+
+    /**
+     * Reserva os componentes diretos da ficha para a ordem. Uma ordem que já possui reserva não reserva de novo.
+     * Com {@code obrigatoria}, falta de ficha ou de disponível vira exceção; sem ela, a ordem apenas fica sem reserva.
+     *
+     * @return true se a ordem terminou com reserva
+     */
+    @Transactional
+    public boolean reservarParaOrdem(String ordemId, String produtoAcabadoId, double quantidade, boolean obrigatoria) {
+        if (reservaEstoqueRepository.existsByOrdemId(ordemId)) {
+            return true;
+        }
+        // Conferida com a versão gravada: reserva os componentes da ficha atual, mesmo editada em outra instância
+        Optional<FichaTecnicaCompilada> fichaOpt = fichaTecnicaCache.obterConferida(produtoAcabadoId);
+        if (fichaOpt.isEmpty()) {
+            if (obrigatoria) {
+                throw new IllegalArgumentException("Ficha técnica não encontrada para o produto ID: " + produtoAcabadoId);
+            }
+            return false;
+        }
+        FichaTecnicaCompilada ficha = fichaOpt.get();
+        if (ficha.tamanho() == 0) {
+            return false;
+        }
+
+        String[] ids = new String[ficha.tamanho()];
+        double[] quantidades = new double[ficha.tamanho()];
+        for (int i = 0; i < ficha.tamanho(); i++) {
+            ids[i] = ficha.materiaPrimaId(i);
+            quantidades[i] = ficha.quantidadePorUnidade(i) * quantidade;
+        }
+        if (!disponibilidadeEstoque.reservar(ids, quantidades)) {
+            if (obrigatoria) {
+                throw new IllegalStateException("Estoque disponível insuficiente para reservar os componentes da ordem " + ordemId + ".");
+            }
+            return false;
+        }
+
+        List<ReservaEstoque> reservas = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            reservas.add(new ReservaEstoque(ordemId, ids[i], quantidades[i]));
+        }
+        reservaEstoqueRepository.saveAll(reservas);
+        return true;
+    }
+
+    /**
+     * Quantidades reservadas pela ordem, por produto. Vazio se a ordem não tem reserva.
+     */
+    public Map<String, Double> reservasDaOrdem(String ordemId) {
+        Map<String, Double> porProduto = new HashMap<>();
+        for (ReservaEstoque reserva : reservaEstoqueRepository.findByOrdemId(ordemId)) {
+            porProduto.merge(reserva.getProdutoId(), reserva.getQuantidade(), Double::sum);
+        }
+        return porProduto;
+    }
+
+    /**
+     * Total reservado por produto, lido do banco. Produtos sem reserva ficam de fora.
+     */
+    public Map<String, Double> totaisReservados(Collection<String> produtoIds) {
+        Map<String, Double> porProduto = new HashMap<>();
+        for (Object[] linha : reservaEstoqueRepository.findTotaisPorProdutos(produtoIds)) {
+            porProduto.put((String) linha[0], ((Number) linha[1]).doubleValue());
+        }
+        return porProduto;
+    }
+
+    /**
+     * Apaga as reservas da ordem (cancelamento, exclusão ou execução). Em memória, a liberação só
+     * acontece após o commit: até lá o disponível fica subestimado, nunca superestimado.
+     */
+    @Transactional
+    public void liberarDaOrdem(String ordemId) {
+        List<ReservaEstoque> reservas = reservaEstoqueRepository.findByOrdemId(ordemId);
+        if (reservas.isEmpty()) {
+            return;
+        }
+        String[] ids = new String[reservas.size()];
+        double[] quantidades = new double[reservas.size()];
+        for (int i = 0; i < reservas.size(); i++) {
+            ids[i] = reservas.get(i).getProdutoId();
+            quantidades[i] = reservas.get(i).getQuantidade();
+        }
+        reservaEstoqueRepository.deleteByOrdemId(ordemId);
+        disponibilidadeEstoque.liberarAposCommit(ids, quantidades);
+    }
+}
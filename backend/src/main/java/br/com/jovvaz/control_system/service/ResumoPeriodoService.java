@@ -0,0 +1,282 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.CrescimentoDTO;
+import br.com.jovvaz.control_system.model.GranularidadeResumo;
+import br.com.jovvaz.control_system.model.MovimentacaoEstoque;
+import br.com.jovvaz.control_system.model.ResumoMovimentacao;
+import br.com.jovvaz.control_system.model.ResumoProducao;
+import br.com.jovvaz.control_system.model.ResumoProdutos;
+import br.com.jovvaz.control_system.repository.ResumoMovimentacaoRepository;
+import br.com.jovvaz.control_system.repository.ResumoProducaoRepository;
+import br.com.jovvaz.control_system.repository.ResumoProdutosRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tabelas de resumo por hora e por dia: unidades movimentadas por produto e tipo, unidades produzidas
+ * por produto acabado e produtos criados/excluídos, com UPDATE incremental (a linha do período é criada no primeiro lançamento).
+ * O dashboard compara períodos somando as linhas de resumo da janela, sem varrer o livro-razão.
+ * <p>
+ * Os resumos ficam fora da transação de estoque: os lançamentos são agrupados em memória após o commit e gravados
+ * a cada intervalo, numa transação própria, um UPDATE por linha de resumo. Os resumos ficam atrasados em até um
+ * intervalo; o que não chegou a ser gravado quando a instância para abruptamente se perde (o livro-razão não).
+ */
+@Service
+public class ResumoPeriodoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumoPeriodoService.class);
+
+    // Janela comparada no dashboard: últimas 24 horas (incluindo a hora corrente) contra as 24 anteriores
+    private static final int HORAS_JANELA = 24;
+
+    private static final int ENTRADAS = 0;
+    private static final int SAIDAS = 1;
+    private static final int LANCAMENTOS = 2;
+
+    private static final int QUANTIDADE = 0;
+    private static final int ORDENS = 1;
+
+    private static final int CRIADOS = 0;
+    private static final int EXCLUIDOS = 1;
+
+    // Linhas atualizadas sempre na mesma ordem: transações concorrentes não entram em deadlock
+    private static final Comparator<ResumoMovimentacao.Chave> ORDEM_CHAVES =
+            Comparator.comparing(ResumoMovimentacao.Chave::getGranularidade)
+                    .thenComparing(ResumoMovimentacao.Chave::getInicio)
+                    .thenComparing(ResumoMovimentacao.Chave::getProdutoId)
+                    .thenComparing(ResumoMovimentacao.Chave::getTipo);
+    private static final Comparator<ResumoProducao.Chave> ORDEM_CHAVES_PRODUCAO =
+            Comparator.comparing(ResumoProducao.Chave::getGranularidade)
+                    .thenComparing(ResumoProducao.Chave::getInicio)
+                    .thenComparing(ResumoProducao.Chave::getProdutoId);
+    private static final Comparator<ResumoProdutos.Chave> ORDEM_CHAVES_PRODUTOS =
+            Comparator.comparing(ResumoProdutos.Chave::getGranularidade)
+                    .thenComparing(ResumoProdutos.Chave::getInicio);
+
+    private final ResumoMovimentacaoRepository movimentacaoRepo;
+    private final ResumoProducaoRepository producaoRepo;
+    private final ResumoProdutosRepository produtosRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("resumos-periodo").daemon().factory());
+
+    // Somas confirmadas ainda não gravadas; guardadas por this
+    private Map<ResumoMovimentacao.Chave, double[]> movimentacoesPendentes = new TreeMap<>(ORDEM_CHAVES);
+    private Map<ResumoProducao.Chave, double[]> producaoPendente = new TreeMap<>(ORDEM_CHAVES_PRODUCAO);
+    private Map<ResumoProdutos.Chave, long[]> produtosPendentes = new TreeMap<>(ORDEM_CHAVES_PRODUTOS);
+
+    public ResumoPeriodoService(ResumoMovimentacaoRepository movimentacaoRepo,
+                                ResumoProducaoRepository producaoRepo,
+                                ResumoProdutosRepository produtosRepo,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.resumos.gravacao-ms:5000}") long intervaloGravacaoMs) {
+        this.movimentacaoRepo = movimentacaoRepo;
+        this.producaoRepo = producaoRepo;
+        this.produtosRepo = produtosRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        long intervalo = Math.max(1, intervaloGravacaoMs);
+        agendador.scheduleWithFixedDelay(this::gravarPendentesComLog, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        agendador.shutdownNow();
+        agendador.awaitTermination(10, TimeUnit.SECONDS);
+        gravarPendentes();
+    }
+
+    /**
+     * Soma os lançamentos aos resumos de cada período, após o commit. Lançamentos do mesmo produto, tipo e período
+     * são agrupados: cada linha de resumo recebe um UPDATE por gravação, não um por lançamento.
+     */
+    public void registrarMovimentacoes(Collection<MovimentacaoEstoque> movimentacoes) {
+        Map<ResumoMovimentacao.Chave, double[]> acumulado = new TreeMap<>(ORDEM_CHAVES);
+        for (MovimentacaoEstoque m : movimentacoes) {
+            for (GranularidadeResumo granularidade : GranularidadeResumo.values()) {
+                ResumoMovimentacao.Chave chave = new ResumoMovimentacao.Chave(
+                        granularidade, granularidade.inicio(m.getData()), m.getProdutoId(), m.getTipo());
+                double[] valores = acumulado.computeIfAbsent(chave, c -> new double[3]);
+                if (m.getQuantidade() >= 0) {
+                    valores[ENTRADAS] += m.getQuantidade();
+                } else {
+                    valores[SAIDAS] -= m.getQuantidade();
+                }
+                valores[LANCAMENTOS]++;
+            }
+        }
+        Transacoes.aposCommit(() -> {
+            synchronized (this) {
+                somar(movimentacoesPendentes, acumulado);
+            }
+        });
+    }
+
+    // Execução de produção; porOrdem distingue ordens de produção de produções avulsas
+    public void registrarProducao(String produtoAcabadoId, double quantidade, LocalDateTime data, boolean porOrdem) {
+        Map<ResumoProducao.Chave, double[]> acumulado = new TreeMap<>(ORDEM_CHAVES_PRODUCAO);
+        for (GranularidadeResumo granularidade : GranularidadeResumo.values()) {
+            acumulado.put(new ResumoProducao.Chave(granularidade, granularidade.inicio(data), produtoAcabadoId),
+                    new double[]{quantidade, porOrdem ? 1 : 0});
+        }
+        Transacoes.aposCommit(() -> {
+            synchronized (this) {
+                somar(producaoPendente, acumulado);
+            }
+        });
+    }
+
+    public void registrarProdutoCriado() {
+        registrarProdutos(1, 0);
+    }
+
+    public void registrarProdutoExcluido() {
+        registrarProdutos(0, 1);
+    }
+
+    /**
+     * Grava as somas pendentes numa transação própria. Se a gravação falhar, as somas voltam a ficar pendentes.
+     */
+    public void gravarPendentes() {
+        Map<ResumoMovimentacao.Chave, double[]> movimentacoes;
+        Map<ResumoProducao.Chave, double[]> producao;
+        Map<ResumoProdutos.Chave, long[]> produtos;
+        synchronized (this) {
+            if (movimentacoesPendentes.isEmpty() && producaoPendente.isEmpty() && produtosPendentes.isEmpty()) {
+                return;
+            }
+            movimentacoes = movimentacoesPendentes;
+            producao = producaoPendente;
+            produtos = produtosPendentes;
+            movimentacoesPendentes = new TreeMap<>(ORDEM_CHAVES);
+            producaoPendente = new TreeMap<>(ORDEM_CHAVES_PRODUCAO);
+            produtosPendentes = new TreeMap<>(ORDEM_CHAVES_PRODUTOS);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                movimentacoes.forEach(this::gravarMovimentacao);
+                producao.forEach(this::gravarProducao);
+                produtos.forEach(this::gravarProdutos);
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                somar(movimentacoesPendentes, movimentacoes);
+                somar(producaoPendente, producao);
+                for (Map.Entry<ResumoProdutos.Chave, long[]> entrada : produtos.entrySet()) {
+                    long[] soma = produtosPendentes.computeIfAbsent(entrada.getKey(), c -> new long[2]);
+                    soma[CRIADOS] += entrada.getValue()[CRIADOS];
+                    soma[EXCLUIDOS] += entrada.getValue()[EXCLUIDOS];
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Variação das últimas 24 horas, lida dos resumos por hora (no máximo 48 períodos por série).
+     * Produtos e estoque comparam o valor atual com o de 24 horas atrás, descontando o que entrou e saiu
+     * na janela; produção compara as unidades produzidas na janela com as da janela anterior.
+     */
+    public CrescimentoDTO crescimentoUltimas24Horas(long totalProdutos, double saldoTotal) {
+        LocalDateTime fim = GranularidadeResumo.HORA.inicio(LocalDateTime.now()).plusHours(1);
+        LocalDateTime inicio = fim.minusHours(HORAS_JANELA);
+        LocalDateTime inicioAnterior = inicio.minusHours(HORAS_JANELA);
+
+        long variacaoProdutos = produtosRepo.somarVariacao(GranularidadeResumo.HORA, inicio, fim);
+        Object[] movimentado = movimentacaoRepo.somarPeriodo(GranularidadeResumo.HORA, inicio, fim).get(0);
+        double variacaoSaldo = ((Number) movimentado[0]).doubleValue() - ((Number) movimentado[1]).doubleValue();
+        double producao = producaoRepo.somarPeriodo(GranularidadeResumo.HORA, inicio, fim);
+        double producaoAnterior = producaoRepo.somarPeriodo(GranularidadeResumo.HORA, inicioAnterior, inicio);
+
+        return new CrescimentoDTO(
+                percentual(totalProdutos, totalProdutos - variacaoProdutos),
+                percentual(saldoTotal, saldoTotal - variacaoSaldo),
+                percentual(producao, producaoAnterior)
+        );
+    }
+
+    // Unidades produzidas hoje, da linha diária de cada produto
+    public double producaoDoDia() {
+        LocalDateTime inicio = GranularidadeResumo.DIA.inicio(LocalDateTime.now());
+        return producaoRepo.somarPeriodo(GranularidadeResumo.DIA, inicio, inicio.plusDays(1));
+    }
+
+    private void registrarProdutos(long criados, long excluidos) {
+        LocalDateTime agora = LocalDateTime.now();
+        Transacoes.aposCommit(() -> {
+            synchronized (this) {
+                for (GranularidadeResumo granularidade : GranularidadeResumo.values()) {
+                    long[] soma = produtosPendentes.computeIfAbsent(
+                            new ResumoProdutos.Chave(granularidade, granularidade.inicio(agora)), c -> new long[2]);
+                    soma[CRIADOS] += criados;
+                    soma[EXCLUIDOS] += excluidos;
+                }
+            }
+        });
+    }
+
+    private void gravarPendentesComLog() {
+        try {
+            gravarPendentes();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar os resumos por período; nova tentativa no próximo intervalo: {}", e.getMessage());
+        }
+    }
+
+    private void gravarMovimentacao(ResumoMovimentacao.Chave chave, double[] valores) {
+        long lancamentos = (long) valores[LANCAMENTOS];
+        if (movimentacaoRepo.acumular(chave.getGranularidade(), chave.getInicio(), chave.getProdutoId(), chave.getTipo(),
+                valores[ENTRADAS], valores[SAIDAS], lancamentos) == 0) {
+            movimentacaoRepo.criarSeAusente(chave.getGranularidade().name(), chave.getInicio(),
+                    chave.getProdutoId(), chave.getTipo().name());
+            movimentacaoRepo.acumular(chave.getGranularidade(), chave.getInicio(), chave.getProdutoId(), chave.getTipo(),
+                    valores[ENTRADAS], valores[SAIDAS], lancamentos);
+        }
+    }
+
+    private void gravarProducao(ResumoProducao.Chave chave, double[] valores) {
+        long ordens = (long) valores[ORDENS];
+        if (producaoRepo.acumular(chave.getGranularidade(), chave.getInicio(), chave.getProdutoId(), valores[QUANTIDADE], ordens) == 0) {
+            producaoRepo.criarSeAusente(chave.getGranularidade().name(), chave.getInicio(), chave.getProdutoId());
+            producaoRepo.acumular(chave.getGranularidade(), chave.getInicio(), chave.getProdutoId(), valores[QUANTIDADE], ordens);
+        }
+    }
+
+    private void gravarProdutos(ResumoProdutos.Chave chave, long[] valores) {
+        if (produtosRepo.acumular(chave.getGranularidade(), chave.getInicio(), valores[CRIADOS], valores[EXCLUIDOS]) == 0) {
+            produtosRepo.criarSeAusente(chave.getGranularidade().name(), chave.getInicio());
+            produtosRepo.acumular(chave.getGranularidade(), chave.getInicio(), valores[CRIADOS], valores[EXCLUIDOS]);
+        }
+    }
+
+    // Soma posição a posição, criando as chaves que faltam
+    private static <K> void somar(Map<K, double[]> destino, Map<K, double[]> parcelas) {
+        parcelas.forEach((chave, valores) -> {
+            double[] soma = destino.computeIfAbsent(chave, c -> new double[valores.length]);
+            for (int i = 0; i < valores.length; i++) {
+                soma[i] += valores[i];
+            }
+        });
+    }
+
+    // Variação percentual com uma casa decimal; sem base de comparação, 0
+    private static double percentual(double atual, double anterior) {
+        if (anterior <= 0) {
+            return 0.0;
+        }
+        return Math.round((atual - anterior) / anterior * 1000.0) / 10.0;
+    }
+}
@@ -0,0 +1,137 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import br.com.jovvaz.control_system.repository.VersaoColecaoRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Versões das coleções, usadas como ETag forte nas listagens. Ficam no banco, então todas as instâncias
+ * respondem com a mesma ETag para o mesmo estado, e uma alteração feita em qualquer instância invalida todas.
+ * <p>
+ * Cadastro de produtos, fichas e ordens têm uma linha em versoes_colecoes. Quem altera uma dessas coleções chama
+ * {@link #registrarAlteracao}: a linha é incrementada uma vez por transação, pouco antes do commit, para que o lock
+ * da linha dure só até o commit. Leituras concorrentes veem a versão antiga junto com os dados antigos.
+ * <p>
+ * O saldo dos produtos muda a cada movimentação; uma linha única seria um ponto de contenção entre todas as baixas.
+ * A versão de PRODUTOS vem dos próprios dados: quantidade de produtos e soma das versões das linhas (toda escrita
+ * de produto incrementa a versão), mais a versão do cadastro, que cobre uma exclusão e um cadastro entre duas leituras.
+ */
+@Component
+public class VersoesColecoes {
+
+    public enum Colecao {
+        // Qualquer alteração de produto, inclusive de saldo; derivada dos dados, sem linha própria
+        PRODUTOS,
+        // Cadastro de produtos (criação, edição, exclusão): afeta listagens que só exibem nome/unidade
+        CADASTRO_PRODUTOS,
+        FICHAS_TECNICAS,
+        ORDENS_PRODUCAO
+    }
+
+    private final VersaoColecaoRepository versaoColecaoRepository;
+    private final ProdutoRepository produtoRepository;
+
+    public VersoesColecoes(VersaoColecaoRepository versaoColecaoRepository, ProdutoRepository produtoRepository) {
+        this.versaoColecaoRepository = versaoColecaoRepository;
+        this.produtoRepository = produtoRepository;
+    }
+
+    public void registrarAlteracao(Colecao... colecoes) {
+        Set<Colecao> gravadas = EnumSet.noneOf(Colecao.class);
+        for (Colecao colecao : colecoes) {
+            if (colecao != Colecao.PRODUTOS) {
+                gravadas.add(colecao);
+            }
+        }
+        if (gravadas.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            incrementar(gravadas);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Colecao> pendentes = (Set<Colecao>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            Set<Colecao> daTransacao = EnumSet.noneOf(Colecao.class);
+            TransactionSynchronizationManager.bindResource(this, daTransacao);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    incrementar(daTransacao);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(VersoesColecoes.this);
+                }
+            });
+            pendentes = daTransacao;
+        }
+        pendentes.addAll(gravadas);
+    }
+
+    /**
+     * ETag (sem aspas) do estado atual das coleções informadas. Deve ser lida antes da consulta que monta a resposta:
+     * um commit entre as duas leituras só faz a próxima requisição receber os dados de novo.
+     */
+    public String etag(Colecao... colecoes) {
+        Set<Colecao> gravadas = EnumSet.noneOf(Colecao.class);
+        boolean produtos = false;
+        for (Colecao colecao : colecoes) {
+            if (colecao == Colecao.PRODUTOS) {
+                produtos = true;
+                gravadas.add(Colecao.CADASTRO_PRODUTOS);
+            } else {
+                gravadas.add(colecao);
+            }
+        }
+        Map<Colecao, Long> versoes = new EnumMap<>(Colecao.class);
+        for (Object[] linha : versaoColecaoRepository.findVersoes(nomes(gravadas))) {
+            versoes.put(Colecao.valueOf((String) linha[0]), ((Number) linha[1]).longValue());
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Colecao colecao : gravadas) {
+            if (sb.length() > 0) {
+                sb.append('-');
+            }
+            sb.append(versoes.getOrDefault(colecao, 0L));
+        }
+        if (produtos) {
+            Object[] assinatura = produtoRepository.findAssinaturaVersoes().get(0);
+            sb.append('-').append(((Number) assinatura[0]).longValue()).append('.').append(((Number) assinatura[1]).longValue());
+        }
+        return sb.toString();
+    }
+
+    private void incrementar(Set<Colecao> colecoes) {
+        if (colecoes.isEmpty()) {
+            return;
+        }
+        List<String> nomes = nomes(colecoes);
+        if (versaoColecaoRepository.incrementar(nomes) < nomes.size()) {
+            // Banco criado sem a migração (ex.: ddl-auto em desenvolvimento): cria as linhas que faltam já incrementadas;
+            // as existentes, já incrementadas acima, não são tocadas
+            for (String nome : nomes) {
+                versaoColecaoRepository.criarSeAusente(nome);
+            }
+        }
+    }
+
+    private static List<String> nomes(Set<Colecao> colecoes) {
+        List<String> nomes = new ArrayList<>(colecoes.size());
+        for (Colecao colecao : colecoes) {
+            nomes.add(colecao.name());
+        }
+        return nomes;
+    }
+}
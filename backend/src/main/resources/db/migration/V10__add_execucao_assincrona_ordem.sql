@@ -0,0 +1,3 @@
+-- Fila de execução assíncrona das ordens de produção
+ALTER TABLE ordem_producao ADD COLUMN IF NOT EXISTS execucao_pendente BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE ordem_producao ADD COLUMN IF NOT EXISTS motivo_falha VARCHAR(500);
@@ -0,0 +1,13 @@
+-- Contadores para IDs numéricos arrendados em blocos pela aplicação
+CREATE TABLE IF NOT EXISTS contadores_id (
+    nome VARCHAR(50) PRIMARY KEY,
+    proximo BIGINT NOT NULL
+);
+
+-- Produtos continuam a partir do maior ID numérico já existente; até 18 dígitos cabem em BIGINT,
+-- o mesmo filtro do cálculo em Java (EstoqueService)
+INSERT INTO contadores_id (nome, proximo)
+SELECT 'produtos', COALESCE(MAX(CAST(id AS BIGINT)), 0) + 1
+FROM produtos
+WHERE id ~ '^[0-9]{1,18}$'
+ON CONFLICT (nome) DO NOTHING;
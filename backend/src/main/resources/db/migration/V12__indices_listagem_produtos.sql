@@ -0,0 +1,10 @@
+-- Índices da listagem paginada de produtos (cursor por nome em minúsculas + id, ou apenas id)
+CREATE INDEX IF NOT EXISTS idx_produtos_nome ON produtos (lower(nome), id);
+CREATE INDEX IF NOT EXISTS idx_produtos_tipo_id ON produtos (tipo, id);
+CREATE INDEX IF NOT EXISTS idx_produtos_tipo_nome ON produtos (tipo, lower(nome), id);
+
+-- Estoque baixo: índices parciais só com os produtos abaixo do mínimo (10 quando não configurado)
+CREATE INDEX IF NOT EXISTS idx_produtos_estoque_baixo_id ON produtos (id)
+    WHERE quant_em_estoque <= COALESCE(estoque_minimo, 10);
+CREATE INDEX IF NOT EXISTS idx_produtos_estoque_baixo_nome ON produtos (lower(nome), id)
+    WHERE quant_em_estoque <= COALESCE(estoque_minimo, 10);
@@ -0,0 +1,3 @@
+-- Listagens de ordens (Kanban por status e histórico por período), paginadas por (data_execucao, id)
+CREATE INDEX IF NOT EXISTS idx_ordem_status_data ON ordem_producao (status, data_execucao, id);
+CREATE INDEX IF NOT EXISTS idx_ordem_data ON ordem_producao (data_execucao, id);
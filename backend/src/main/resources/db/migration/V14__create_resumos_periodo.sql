@@ -0,0 +1,50 @@
+-- Resumos por hora e por dia mantidos pela aplicação a cada lançamento (UPDATE incremental da linha do período)
+CREATE TABLE IF NOT EXISTS resumo_movimentacoes (
+    granularidade VARCHAR(4) NOT NULL,
+    inicio TIMESTAMP NOT NULL,
+    produto_id VARCHAR(255) NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    entradas DOUBLE PRECISION NOT NULL DEFAULT 0,
+    saidas DOUBLE PRECISION NOT NULL DEFAULT 0,
+    lancamentos BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularidade, inicio, produto_id, tipo)
+);
+
+CREATE TABLE IF NOT EXISTS resumo_producao (
+    granularidade VARCHAR(4) NOT NULL,
+    inicio TIMESTAMP NOT NULL,
+    produto_id VARCHAR(255) NOT NULL,
+    quantidade DOUBLE PRECISION NOT NULL DEFAULT 0,
+    ordens BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularidade, inicio, produto_id)
+);
+
+CREATE TABLE IF NOT EXISTS resumo_produtos (
+    granularidade VARCHAR(4) NOT NULL,
+    inicio TIMESTAMP NOT NULL,
+    criados BIGINT NOT NULL DEFAULT 0,
+    excluidos BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularidade, inicio)
+);
+
+-- Carga inicial a partir do livro-razão já existente
+INSERT INTO resumo_movimentacoes (granularidade, inicio, produto_id, tipo, entradas, saidas, lancamentos)
+SELECT g.granularidade, date_trunc(g.unidade, m.data), m.produto_id, m.tipo,
+       SUM(CASE WHEN m.quantidade >= 0 THEN m.quantidade ELSE 0 END),
+       SUM(CASE WHEN m.quantidade < 0 THEN -m.quantidade ELSE 0 END),
+       COUNT(*)
+FROM movimentacoes_estoque m
+CROSS JOIN (VALUES ('HORA', 'hour'), ('DIA', 'day')) AS g (granularidade, unidade)
+GROUP BY g.granularidade, date_trunc(g.unidade, m.data), m.produto_id, m.tipo
+ON CONFLICT DO NOTHING;
+
+-- Produção: entradas de produto acabado do livro-razão (execuções anteriores ao livro-razão não entram)
+INSERT INTO resumo_producao (granularidade, inicio, produto_id, quantidade, ordens)
+SELECT g.granularidade, date_trunc(g.unidade, m.data), m.produto_id,
+       SUM(m.quantidade),
+       SUM(CASE WHEN m.observacao LIKE 'Ordem de produção %' THEN 1 ELSE 0 END)
+FROM movimentacoes_estoque m
+CROSS JOIN (VALUES ('HORA', 'hour'), ('DIA', 'day')) AS g (granularidade, unidade)
+WHERE m.tipo = 'ENTRADA_PRODUCAO'
+GROUP BY g.granularidade, date_trunc(g.unidade, m.data), m.produto_id
+ON CONFLICT DO NOTHING;
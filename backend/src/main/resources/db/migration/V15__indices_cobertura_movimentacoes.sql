@@ -0,0 +1,12 @@
+-- Histórico paginado por (data, id): chaves com o ID como desempate e as demais colunas no INCLUDE,
+-- para que as páginas saiam de index-only scans. O livro-razão só recebe inserts: o autovacuum disparado
+-- por inserts mantém o visibility map em dia e a tabela quase nunca é visitada.
+CREATE INDEX IF NOT EXISTS idx_movimentacoes_produto_data_id
+    ON movimentacoes_estoque (produto_id, data, id) INCLUDE (tipo, quantidade, observacao);
+CREATE INDEX IF NOT EXISTS idx_movimentacoes_data_id
+    ON movimentacoes_estoque (data, id) INCLUDE (produto_id, tipo, quantidade, observacao);
+
+-- Substituídos pelos índices acima (mesmo prefixo)
+DROP INDEX IF EXISTS idx_movimentacoes_produto_data;
+DROP INDEX IF EXISTS idx_movimentacoes_data;
+
@@ -0,0 +1,5 @@
+-- Relatório de produção: ordens EXECUTADA por período agregadas direto do índice (index-only scan).
+-- Mesma chave de antes; produto e quantidade entram no INCLUDE.
+DROP INDEX IF EXISTS idx_ordem_status_data;
+CREATE INDEX IF NOT EXISTS idx_ordem_status_data
+    ON ordem_producao (status, data_execucao, id) INCLUDE (produto_acabado_id, quantidade_produzida);
@@ -0,0 +1,6 @@
+-- Componentes de ficha técnica passam a usar sequence com incremento 50 (allocationSize da entidade),
+-- o que permite gravar os componentes de uma ficha em batch; IDENTITY obrigava um INSERT por linha.
+-- A sequence começa um bloco inteiro acima do maior ID existente, para não reaproveitar IDs.
+CREATE SEQUENCE IF NOT EXISTS ficha_tecnica_componentes_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('ficha_tecnica_componentes_seq', COALESCE((SELECT MAX(id) FROM ficha_tecnica_componentes), 0) + 50);
@@ -0,0 +1,2 @@
+-- Baixas fora da produção descontam o reservado do produto: soma direto do índice
+CREATE INDEX IF NOT EXISTS idx_reservas_produto ON reservas_estoque (produto_id) INCLUDE (quantidade);
@@ -0,0 +1,3 @@
+-- Versão da ficha técnica: a execução de ordens confere a ficha compilada em memória com a gravada.
+-- Incrementada a cada edição da ficha (inclusive só de componentes) e quando muda o tipo de um componente.
+ALTER TABLE fichas_tecnicas ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+-- Versões das coleções usadas nas ETags das listagens, compartilhadas por todas as instâncias.
+-- O saldo dos produtos não passa por aqui: a ETag do catálogo soma as versões das linhas de produtos.
+CREATE TABLE IF NOT EXISTS versoes_colecoes (
+    colecao VARCHAR(50) PRIMARY KEY,
+    versao BIGINT NOT NULL
+);
+
+INSERT INTO versoes_colecoes (colecao, versao) VALUES
+    ('CADASTRO_PRODUTOS', 0),
+    ('FICHAS_TECNICAS', 0),
+    ('ORDENS_PRODUCAO', 0)
+ON CONFLICT (colecao) DO NOTHING;
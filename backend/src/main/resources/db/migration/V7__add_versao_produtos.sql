@@ -0,0 +1,6 @@
+BEGIN;
+
+-- Coluna de versão para lock otimista em produtos (usada pelas atualizações atômicas de estoque)
+ALTER TABLE produtos ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+
+COMMIT;
@@ -0,0 +1,16 @@
+-- Livro-razão de movimentações de estoque (somente inserção)
+-- Sequence com incremento 50 para casar com o allocationSize da entidade (IDs alocados em blocos)
+CREATE SEQUENCE IF NOT EXISTS movimentacoes_estoque_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS movimentacoes_estoque (
+    id BIGINT PRIMARY KEY,
+    produto_id VARCHAR(255) NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    quantidade DOUBLE PRECISION NOT NULL,
+    data TIMESTAMP NOT NULL,
+    observacao VARCHAR(255)
+);
+
+-- Histórico por produto e período vira range scan no índice
+CREATE INDEX IF NOT EXISTS idx_movimentacoes_produto_data ON movimentacoes_estoque (produto_id, data);
+CREATE INDEX IF NOT EXISTS idx_movimentacoes_data ON movimentacoes_estoque (data);
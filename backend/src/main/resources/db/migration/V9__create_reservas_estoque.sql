@@ -0,0 +1,12 @@
+-- Reservas de componentes feitas pelas ordens de produção abertas
+CREATE SEQUENCE IF NOT EXISTS reservas_estoque_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS reservas_estoque (
+    id BIGINT PRIMARY KEY,
+    ordem_id VARCHAR(50) NOT NULL,
+    produto_id VARCHAR(255) NOT NULL,
+    quantidade DOUBLE PRECISION NOT NULL
+);
+
+-- Liberação/consumo localizam as reservas pela ordem
+CREATE INDEX IF NOT EXISTS idx_reservas_ordem ON reservas_estoque (ordem_id);
@@ -0,0 +1,51 @@
+package br.com.jovvaz.control_system.preferences;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Preferences written through another instance (straight to the repository here) are seen once the snapshot expires.
+ */
+class PreferenceCacheTest {
+
+    private final SystemPreferenceRepository systemRepository = mock(SystemPreferenceRepository.class);
+    private final UserPreferenceRepository userRepository = mock(UserPreferenceRepository.class);
+
+    @Test
+    void globalPreferenceIsReloadedAfterTtl() {
+        when(systemRepository.findById("GLOBAL")).thenReturn(Optional.of(new SystemPreference("GLOBAL", true)));
+        SystemPreferenceService cached = new SystemPreferenceService(systemRepository, 60_000);
+        assertThat(cached.getGlobal().isVoiceOnNewOrder()).isTrue();
+
+        when(systemRepository.findById("GLOBAL")).thenReturn(Optional.of(new SystemPreference("GLOBAL", false)));
+        assertThat(cached.getGlobal().isVoiceOnNewOrder()).isTrue();
+        verify(systemRepository, times(1)).findById("GLOBAL");
+
+        SystemPreferenceService expiring = new SystemPreferenceService(systemRepository, 0);
+        assertThat(expiring.getGlobal().isVoiceOnNewOrder()).isFalse();
+        when(systemRepository.findById("GLOBAL")).thenReturn(Optional.of(new SystemPreference("GLOBAL", true)));
+        assertThat(expiring.getGlobal().isVoiceOnNewOrder()).isTrue();
+    }
+
+    @Test
+    void userPreferenceIsReloadedAfterTtl() {
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(new UserPreference("u1", false)));
+        UserPreferenceService cached = new UserPreferenceService(userRepository, 100, 60_000);
+        UserPreferenceService expiring = new UserPreferenceService(userRepository, 100, 0);
+        assertThat(cached.get("u1").isVoiceOnNewOrder()).isFalse();
+        assertThat(expiring.get("u1").isVoiceOnNewOrder()).isFalse();
+
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(new UserPreference("u1", true)));
+        assertThat(cached.get("u1").isVoiceOnNewOrder()).isFalse();
+        assertThat(expiring.get("u1").isVoiceOnNewOrder()).isTrue();
+    }
+}
@@ -0,0 +1,169 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.ProdutoEstoqueView;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import br.com.jovvaz.control_system.repository.ReservaEstoqueRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reconciliação da tabela de disponível com o banco: a leitura não segura o monitor, e só produtos
+ * sem deltas pendentes durante a leitura recebem o valor lido; os demais são relidos depois.
+ */
+class DisponibilidadeEstoqueTest {
+
+    private final ProdutoRepository produtoRepository = mock(ProdutoRepository.class);
+    private final ReservaEstoqueRepository reservaEstoqueRepository = mock(ReservaEstoqueRepository.class);
+    // Saldos confirmados no banco
+    private final Map<String, Double> banco = new ConcurrentHashMap<>(Map.of("1", 10.0, "2", 20.0));
+    private DisponibilidadeEstoque disponibilidade;
+
+    @BeforeEach
+    void preparar() {
+        disponibilidade = new DisponibilidadeEstoque(produtoRepository, reservaEstoqueRepository, 60_000);
+        when(reservaEstoqueRepository.findTotaisPorProduto()).thenReturn(List.of());
+        when(reservaEstoqueRepository.findTotaisPorProdutos(anyCollection())).thenReturn(List.of());
+        when(produtoRepository.findTodosEstoques()).thenAnswer(invocacao -> estoques(banco.keySet()));
+        when(produtoRepository.findEstoques(anyCollection()))
+                .thenAnswer(invocacao -> estoques(invocacao.<Collection<String>>getArgument(0)));
+        assertThat(disponibilidade.disponivel("1")).isEqualTo(10.0);
+    }
+
+    @AfterEach
+    void limpar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void movimentosNaoEsperamPelaLeituraDoBanco() throws Exception {
+        CountDownLatch lendo = new CountDownLatch(1);
+        CountDownLatch liberarLeitura = new CountDownLatch(1);
+        // Outra instância deu entrada em ambos; a leitura não viu a baixa local que acontece durante ela
+        banco.put("1", 15.0);
+        banco.put("2", 25.0);
+        List<ProdutoEstoqueView> lidos = estoques(banco.keySet());
+        when(produtoRepository.findTodosEstoques()).thenAnswer(invocacao -> {
+            lendo.countDown();
+            liberarLeitura.await();
+            return lidos;
+        });
+        disponibilidade.marcarDivergencia();
+        CompletableFuture<Double> consulta = CompletableFuture.supplyAsync(() -> disponibilidade.disponivel("2"));
+        assertThat(lendo.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Com a leitura parada no banco, registrar e concluir um movimento não espera o monitor
+        banco.put("1", 12.0);
+        CompletableFuture.runAsync(() -> disponibilidade.aplicarMovimentoAposCommit("1", -3)).get(5, TimeUnit.SECONDS);
+        liberarLeitura.countDown();
+
+        assertThat(consulta.get(5, TimeUnit.SECONDS)).isEqualTo(25.0);
+        // O produto 1 teve movimento durante a leitura: o valor lido é descartado e o produto, relido
+        assertThat(disponibilidade.disponivel("1")).isEqualTo(12.0);
+        verify(produtoRepository).findEstoques(Set.of("1"));
+    }
+
+    @Test
+    void reconciliaMesmoComDeltasSemprePendentes() {
+        TransactionSynchronizationManager.initSynchronization();
+        disponibilidade.aplicarMovimentoAposCommit("1", 5);
+        banco.put("2", 40.0);
+        disponibilidade.marcarDivergencia();
+
+        // A transação do produto 1 ainda está aberta: o produto 2 é reconciliado assim mesmo,
+        // e o produto 1 não é relido enquanto tiver delta pendente
+        assertThat(disponibilidade.disponivel("2")).isEqualTo(40.0);
+        assertThat(disponibilidade.disponivel("1")).isEqualTo(10.0);
+        verify(produtoRepository, never()).findEstoques(anyCollection());
+
+        banco.put("1", 15.0);
+        concluir(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(disponibilidade.disponivel("1")).isEqualTo(15.0);
+    }
+
+    @Test
+    void divergenciaPontualReleSoOsProdutosIndicados() {
+        // Outra instância deu baixa no produto 2; a verificação de viabilidade percebeu no banco
+        banco.put("2", 5.0);
+        disponibilidade.marcarDivergencia(List.of("2"));
+
+        assertThat(disponibilidade.disponivel("2")).isEqualTo(5.0);
+        verify(produtoRepository).findEstoques(Set.of("2"));
+    }
+
+    @Test
+    void exclusaoRevertidaMantemAPosicao() {
+        TransactionSynchronizationManager.initSynchronization();
+        disponibilidade.removerAposCommit("1");
+        concluir(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(disponibilidade.disponivel("1")).isEqualTo(10.0);
+
+        TransactionSynchronizationManager.initSynchronization();
+        disponibilidade.removerAposCommit("1");
+        banco.remove("1");
+        concluir(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(disponibilidade.disponivel("1")).isZero();
+    }
+
+    private static void concluir(int status) {
+        List<TransactionSynchronization> sincronizacoes = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationManager.clearSynchronization();
+        sincronizacoes.forEach(s -> s.afterCompletion(status));
+    }
+
+    private List<ProdutoEstoqueView> estoques(Collection<String> ids) {
+        List<ProdutoEstoqueView> estoques = new ArrayList<>();
+        for (String id : ids) {
+            Double saldo = banco.get(id);
+            if (saldo != null) {
+                estoques.add(estoque(id, saldo));
+            }
+        }
+        return estoques;
+    }
+
+    private static ProdutoEstoqueView estoque(String id, double quantidade) {
+        return new ProdutoEstoqueView() {
+            @Override
+            public String getId() {
+                return id;
+            }
+
+            @Override
+            public String getNome() {
+                return id;
+            }
+
+            @Override
+            public String getUnidadeMedida() {
+                return "UN";
+            }
+
+            @Override
+            public double getQuantidadeEmEstoque() {
+                return quantidade;
+            }
+        };
+    }
+}
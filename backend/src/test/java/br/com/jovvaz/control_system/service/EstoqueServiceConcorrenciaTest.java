@@ -0,0 +1,111 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.model.Produto;
+import br.com.jovvaz.control_system.model.TipoProduto;
+import br.com.jovvaz.control_system.repository.MovimentacaoEstoqueRepository;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Baixas concorrentes no mesmo produto, cada uma em sua própria transação, como as requisições de /api/produtos/baixa.
+ * Nenhuma baixa se perde nem deixa o saldo negativo, e cada baixa confirmada tem exatamente um lançamento.
+ */
+@DataJpaTest(properties = {
+        // Banco em memória com pool Hikari, como em produção; a espera por lock de linha cobre a fila de baixas
+        "spring.datasource.url=jdbc:h2:mem:estoque-concorrencia;MODE=PostgreSQL;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=16"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EstoqueService.class, MovimentacaoEstoqueService.class, DisponibilidadeEstoque.class, VersoesColecoes.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EstoqueServiceConcorrenciaTest {
+
+    private static final String PRODUTO = "77";
+    private static final double SALDO_INICIAL = 250;
+    private static final double QUANTIDADE = 1;
+    private static final int BAIXAS = 400;
+    private static final int THREADS = 16;
+
+    @MockitoBean
+    private FichaTecnicaCache fichaTecnicaCache;
+    @MockitoBean
+    private GeradorIdNumerico geradorIdNumerico;
+    @MockitoBean
+    private ProdutoCache produtoCache;
+    @MockitoBean
+    private MetricasDashboard metricasDashboard;
+    @MockitoBean
+    private ResumoPeriodoService resumoPeriodoService;
+
+    @Autowired
+    private EstoqueService estoqueService;
+    @Autowired
+    private ProdutoRepository produtoRepository;
+    @Autowired
+    private MovimentacaoEstoqueRepository movimentacaoEstoqueRepository;
+
+    @AfterEach
+    void limpar() {
+        movimentacaoEstoqueRepository.deleteAll();
+        produtoRepository.deleteAll();
+    }
+
+    @Test
+    void baixasConcorrentesNaoPerdemAtualizacoes() throws Exception {
+        Produto produto = new Produto(PRODUTO, "Parafuso", null, TipoProduto.MATERIA_PRIMA, "UN");
+        produto.darEntrada(SALDO_INICIAL);
+        produtoRepository.save(produto);
+
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>(BAIXAS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            Callable<Boolean> baixa = () -> {
+                largada.await();
+                try {
+                    estoqueService.darBaixa(PRODUTO, QUANTIDADE);
+                    return true;
+                } catch (IllegalStateException estoqueInsuficiente) {
+                    return false;
+                }
+            };
+            for (int i = 0; i < BAIXAS; i++) {
+                resultados.add(executor.submit(baixa));
+            }
+            largada.countDown();
+            int sucessos = 0;
+            for (Future<Boolean> resultado : resultados) {
+                if (resultado.get()) {
+                    sucessos++;
+                }
+            }
+
+            double saldoFinal = produtoRepository.findById(PRODUTO).orElseThrow().getQuantidadeEmEstoque();
+            assertThat(saldoFinal).isGreaterThanOrEqualTo(0.0);
+            assertThat(sucessos * QUANTIDADE).isEqualTo(SALDO_INICIAL - saldoFinal);
+            // Mais baixas que saldo: o estoque se esgota exatamente, sem baixa a mais
+            assertThat(sucessos).isEqualTo((int) (SALDO_INICIAL / QUANTIDADE));
+            assertThat(movimentacaoEstoqueRepository.count()).isEqualTo(sucessos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.MovimentacaoLoteItemDTO;
+import br.com.jovvaz.control_system.dto.MovimentacaoLoteResultadoDTO;
+import br.com.jovvaz.control_system.model.MovimentacaoEstoque;
+import br.com.jovvaz.control_system.model.Produto;
+import br.com.jovvaz.control_system.model.ReservaEstoque;
+import br.com.jovvaz.control_system.model.TipoMovimentacao;
+import br.com.jovvaz.control_system.model.TipoProduto;
+import br.com.jovvaz.control_system.repository.MovimentacaoEstoqueRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Lançamento em lote: só ENTRADA, SAIDA_VENDA e AJUSTE; tipos de produção são recusados linha a linha.
+ * Saídas fora da produção, no lote ou avulsas, não consomem o que está reservado para ordens abertas.
+ */
+@DataJpaTest
+@Import({EstoqueService.class, MovimentacaoEstoqueService.class, DisponibilidadeEstoque.class, VersoesColecoes.class})
+class EstoqueServiceLoteTest {
+
+    @MockitoBean
+    private FichaTecnicaCache fichaTecnicaCache;
+    @MockitoBean
+    private GeradorIdNumerico geradorIdNumerico;
+    @MockitoBean
+    private ProdutoCache produtoCache;
+    @MockitoBean
+    private MetricasDashboard metricasDashboard;
+    @MockitoBean
+    private ResumoPeriodoService resumoPeriodoService;
+
+    @Autowired
+    private EstoqueService estoqueService;
+    @Autowired
+    private MovimentacaoEstoqueRepository movimentacaoEstoqueRepository;
+    @Autowired
+    private TestEntityManager em;
+
+    @Test
+    void tiposDeProducaoSaoRecusadosNoLote() {
+        Produto produto = new Produto("40", "Parafuso", null, TipoProduto.MATERIA_PRIMA, "UN");
+        produto.darEntrada(10);
+        em.persistAndFlush(produto);
+
+        List<MovimentacaoLoteResultadoDTO> resultados = estoqueService.aplicarMovimentacoesEmLote(List.of(
+                item(TipoMovimentacao.ENTRADA, 5),
+                item(TipoMovimentacao.ENTRADA_PRODUCAO, 100),
+                item(TipoMovimentacao.SAIDA_PRODUCAO, 3),
+                item(TipoMovimentacao.SAIDA_VENDA, 2),
+                item(TipoMovimentacao.AJUSTE, -1)));
+        em.flush();
+        em.clear();
+
+        assertThat(resultados).extracting(MovimentacaoLoteResultadoDTO::isSucesso)
+                .containsExactly(true, false, false, true, true);
+        assertThat(resultados.get(1).getErro()).contains("não permitido no lote");
+        assertThat(em.find(Produto.class, "40").getQuantidadeEmEstoque()).isEqualTo(12.0);
+        assertThat(movimentacaoEstoqueRepository.findAll()).extracting(MovimentacaoEstoque::getTipo)
+                .containsExactlyInAnyOrder(TipoMovimentacao.ENTRADA, TipoMovimentacao.SAIDA_VENDA, TipoMovimentacao.AJUSTE);
+    }
+
+    @Test
+    void saidasNoLoteNaoConsomemOReservado() {
+        Produto produto = new Produto("40", "Parafuso", null, TipoProduto.MATERIA_PRIMA, "UN");
+        produto.darEntrada(10);
+        em.persist(produto);
+        em.persistAndFlush(new ReservaEstoque("OP-1", "40", 6));
+
+        List<MovimentacaoLoteResultadoDTO> resultados = estoqueService.aplicarMovimentacoesEmLote(List.of(
+                item(TipoMovimentacao.SAIDA_VENDA, 3),
+                item(TipoMovimentacao.AJUSTE, -2),
+                item(TipoMovimentacao.AJUSTE, -1),
+                item(TipoMovimentacao.SAIDA_VENDA, 20)));
+        em.flush();
+        em.clear();
+
+        assertThat(resultados).extracting(MovimentacaoLoteResultadoDTO::isSucesso)
+                .containsExactly(true, false, true, false);
+        assertThat(resultados.get(1).getErro()).contains("reservado");
+        // Saldo menor que a saída: mantém a mensagem de estoque insuficiente
+        assertThat(resultados.get(3).getErro()).doesNotContain("reservado");
+        assertThat(em.find(Produto.class, "40").getQuantidadeEmEstoque()).isEqualTo(6.0);
+    }
+
+    @Test
+    void baixaAvulsaNaoConsomeOReservado() {
+        Produto produto = new Produto("40", "Parafuso", null, TipoProduto.MATERIA_PRIMA, "UN");
+        produto.darEntrada(10);
+        em.persist(produto);
+        em.persistAndFlush(new ReservaEstoque("OP-1", "40", 6));
+
+        assertThatThrownBy(() -> estoqueService.darBaixa("40", 5))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Reservado: 6.0");
+        estoqueService.darBaixa("40", 4);
+        // Produção consome a própria reserva: a baixa interna não desconta o reservado
+        estoqueService.aplicarBaixa("40", 6);
+        em.flush();
+        em.clear();
+
+        assertThat(em.find(Produto.class, "40").getQuantidadeEmEstoque()).isZero();
+    }
+
+    private static MovimentacaoLoteItemDTO item(TipoMovimentacao tipo, double quantidade) {
+        MovimentacaoLoteItemDTO item = new MovimentacaoLoteItemDTO();
+        item.setProdutoId("40");
+        item.setTipo(tipo);
+        item.setQuantidade(quantidade);
+        return item;
+    }
+}
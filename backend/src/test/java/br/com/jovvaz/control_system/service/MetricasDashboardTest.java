@@ -0,0 +1,130 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.model.StatusOrdemProducao;
+import br.com.jovvaz.control_system.repository.OrdemProducaoRepository;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reconciliação dos contadores do dashboard com o banco: um commit em andamento durante a releitura não é
+ * contado duas vezes, e alterações que não passaram por esta instância são corrigidas na reconciliação periódica.
+ */
+class MetricasDashboardTest {
+
+    private final ProdutoRepository produtoRepository = mock(ProdutoRepository.class);
+    private final OrdemProducaoRepository ordemRepo = mock(OrdemProducaoRepository.class);
+    // Saldos confirmados no banco (produto "1" sem estoque mínimo, "2" com mínimo 30) e ordens por status
+    private final Map<String, Double> banco = new ConcurrentHashMap<>(Map.of("1", 5.0, "2", 40.0));
+    private final Map<StatusOrdemProducao, Long> ordensNoBanco = new EnumMap<>(Map.of(StatusOrdemProducao.PENDENTE, 2L));
+
+    @BeforeEach
+    void preparar() {
+        when(produtoRepository.findNiveisEstoque()).thenAnswer(invocacao -> niveis(banco.keySet()));
+        when(produtoRepository.findNiveisEstoque(anyCollection()))
+                .thenAnswer(invocacao -> niveis(invocacao.<Collection<String>>getArgument(0)));
+        when(ordemRepo.findContagemPorStatus()).thenAnswer(invocacao -> {
+            List<Object[]> linhas = new ArrayList<>();
+            ordensNoBanco.forEach((status, total) -> linhas.add(new Object[]{status, total}));
+            return linhas;
+        });
+    }
+
+    @AfterEach
+    void limpar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reconstrucaoDuranteOCommitNaoContaOMovimentoDuasVezes() {
+        MetricasDashboard metricas = new MetricasDashboard(produtoRepository, ordemRepo, 60_000);
+        assertThat(metricas.saldoTotal()).isEqualTo(45.0);
+        assertThat(metricas.produtosEstoqueBaixo()).isEqualTo(1);
+
+        // A transação já gravou a entrada no banco, mas o callback após o commit ainda não rodou
+        TransactionSynchronizationManager.initSynchronization();
+        metricas.aplicarMovimentoAposCommit("1", 20);
+        metricas.alterarStatusOrdemAposCommit(null, StatusOrdemProducao.PENDENTE);
+        banco.put("1", 25.0);
+        ordensNoBanco.put(StatusOrdemProducao.PENDENTE, 3L);
+        metricas.reconstruir();
+
+        // Releitura com a transação aberta: o produto 1 e as ordens mantêm o valor em memória
+        assertThat(metricas.saldoTotal()).isEqualTo(45.0);
+        assertThat(metricas.ordensAbertas()).isEqualTo(2);
+
+        concluir(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(metricas.saldoTotal()).isEqualTo(65.0);
+        assertThat(metricas.produtosEstoqueBaixo()).isZero();
+        assertThat(metricas.ordensAbertas()).isEqualTo(3);
+        // Os itens incertos são conferidos uma vez, já sem pendências, e batem com o banco
+        verify(produtoRepository).findNiveisEstoque(Set.of("1"));
+    }
+
+    @Test
+    void alteracoesDeOutraInstanciaSaoCorrigidasNaReconciliacao() {
+        MetricasDashboard metricas = new MetricasDashboard(produtoRepository, ordemRepo, 0);
+        assertThat(metricas.produtosEstoqueBaixo()).isEqualTo(1);
+
+        // Nenhum callback nesta instância: baixa no produto 2 abaixo do mínimo, produto novo e ordem iniciada
+        banco.put("2", 12.0);
+        banco.put("3", 100.0);
+        ordensNoBanco.put(StatusOrdemProducao.PENDENTE, 1L);
+        ordensNoBanco.put(StatusOrdemProducao.EM_ANDAMENTO, 1L);
+
+        assertThat(metricas.produtosEstoqueBaixo()).isEqualTo(2);
+        assertThat(metricas.totalProdutos()).isEqualTo(3);
+        assertThat(metricas.saldoTotal()).isEqualTo(117.0);
+        assertThat(metricas.ordensPorStatus()).containsEntry(StatusOrdemProducao.PENDENTE, 1L)
+                .containsEntry(StatusOrdemProducao.EM_ANDAMENTO, 1L);
+    }
+
+    @Test
+    void transacaoRevertidaNaoAlteraOsContadores() {
+        MetricasDashboard metricas = new MetricasDashboard(produtoRepository, ordemRepo, 60_000);
+        assertThat(metricas.totalProdutos()).isEqualTo(2);
+
+        TransactionSynchronizationManager.initSynchronization();
+        metricas.removerProdutoAposCommit("2");
+        concluir(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(metricas.totalProdutos()).isEqualTo(2);
+        assertThat(metricas.saldoTotal()).isEqualTo(45.0);
+    }
+
+    private static void concluir(int status) {
+        List<TransactionSynchronization> sincronizacoes = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationManager.clearSynchronization();
+        sincronizacoes.forEach(s -> s.afterCompletion(status));
+    }
+
+    private List<Object[]> niveis(Collection<String> ids) {
+        List<Object[]> linhas = new ArrayList<>();
+        for (String id : ids) {
+            Double saldo = banco.get(id);
+            if (saldo != null) {
+                linhas.add(new Object[]{id, saldo, "2".equals(id) ? 30.0 : null});
+            }
+        }
+        return linhas;
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.model.OrdemProducao;
+import br.com.jovvaz.control_system.model.Produto;
+import br.com.jovvaz.control_system.model.StatusOrdemProducao;
+import br.com.jovvaz.control_system.model.TipoProduto;
+import br.com.jovvaz.control_system.repository.OrdemProducaoRepository;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Transições de status: executada e cancelada são estados finais.
+ */
+class OrdemProducaoServiceTest {
+
+    private final OrdemProducaoRepository ordemRepo = mock(OrdemProducaoRepository.class);
+    private final ProducaoService producaoService = mock(ProducaoService.class);
+    private final ReservaEstoqueService reservaEstoqueService = mock(ReservaEstoqueService.class);
+    private final OrdemProducaoService service = new OrdemProducaoService(ordemRepo, mock(ProdutoRepository.class),
+            producaoService, reservaEstoqueService, mock(FilaExecucaoProducao.class), mock(GeradorIdOrdem.class),
+            mock(VersoesColecoes.class), mock(MetricasDashboard.class));
+
+    @ParameterizedTest
+    @EnumSource(StatusOrdemProducao.class)
+    void ordemExecutadaNaoMudaDeStatus(StatusOrdemProducao novo) {
+        OrdemProducao ordem = ordem(StatusOrdemProducao.EXECUTADA);
+
+        assertThatThrownBy(() -> service.atualizarStatus("1", novo))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("EXECUTADA");
+        assertThat(ordem.getStatus()).isEqualTo(StatusOrdemProducao.EXECUTADA);
+        verifyNoInteractions(producaoService, reservaEstoqueService);
+        verify(ordemRepo, never()).save(any());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StatusOrdemProducao.class)
+    void ordemCanceladaNaoMudaDeStatus(StatusOrdemProducao novo) {
+        OrdemProducao ordem = ordem(StatusOrdemProducao.CANCELADA);
+
+        assertThatThrownBy(() -> service.atualizarStatus("1", novo))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("CANCELADA");
+        assertThat(ordem.getStatus()).isEqualTo(StatusOrdemProducao.CANCELADA);
+        verifyNoInteractions(producaoService, reservaEstoqueService);
+    }
+
+    private OrdemProducao ordem(StatusOrdemProducao status) {
+        Produto produto = new Produto("10", "Mesa", null, TipoProduto.PRODUTO_ACABADO, "UN");
+        OrdemProducao ordem = new OrdemProducao("1", produto, 2, status, LocalDateTime.now());
+        when(ordemRepo.findById("1")).thenReturn(Optional.of(ordem));
+        return ordem;
+    }
+}
@@ -0,0 +1,233 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.AlocacaoOrdemDTO;
+import br.com.jovvaz.control_system.dto.MrpResultadoDTO;
+import br.com.jovvaz.control_system.dto.NecessidadeMateriaPrimaDTO;
+import br.com.jovvaz.control_system.dto.PlanoAlocacaoDTO;
+import br.com.jovvaz.control_system.dto.ProdutoEstoqueView;
+import br.com.jovvaz.control_system.model.StatusOrdemProducao;
+import br.com.jovvaz.control_system.repository.FichaTecnicaRepository;
+import br.com.jovvaz.control_system.repository.OrdemProducaoRepository;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Planejamento sobre fichas, estoque e ordens gerados em memória, com os repositórios simulados.
+ */
+class PlanejamentoProducaoServiceTest {
+
+    private final ProdutoRepository produtoRepository = mock(ProdutoRepository.class);
+    private final FichaTecnicaRepository fichaTecnicaRepository = mock(FichaTecnicaRepository.class);
+    private final OrdemProducaoRepository ordemProducaoRepository = mock(OrdemProducaoRepository.class);
+    private final PlanejamentoProducaoService service =
+            new PlanejamentoProducaoService(produtoRepository, fichaTecnicaRepository, ordemProducaoRepository);
+
+    private final List<ProdutoEstoqueView> produtos = new ArrayList<>();
+    private final List<Object[]> linhasFichas = new ArrayList<>();
+    private final List<Object[]> ordens = new ArrayList<>();
+
+    @Test
+    void pesoNegativoOuNuloEhRecusadoComAMesmaRegraDoPesoZero() {
+        Map<String, Double> comNulo = new HashMap<>();
+        comNulo.put("OP-1", null);
+
+        assertThatThrownBy(() -> service.planejarAlocacao("ORDENS", Map.of("OP-1", -1.0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maior ou igual a zero");
+        assertThatThrownBy(() -> service.planejarAlocacao("ORDENS", comNulo))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maior ou igual a zero");
+    }
+
+    @Test
+    void pesoZeroDeixaAOrdemForaDoPlano() {
+        produto("MP", 10);
+        produto("PA", 0);
+        componente("PA", "MP", 1);
+        ordem("OP-1", "PA", 2, StatusOrdemProducao.PENDENTE);
+        ordem("OP-2", "PA", 3, StatusOrdemProducao.PENDENTE);
+        simularRepositorios();
+
+        PlanoAlocacaoDTO plano = service.planejarAlocacao("ORDENS", Map.of("OP-1", 0.0));
+
+        assertThat(plano.getSequencia()).extracting(AlocacaoOrdemDTO::getOrdemId).containsExactly("OP-2");
+        assertThat(plano.getNaoAtendidas()).singleElement().satisfies(ordem -> {
+            assertThat(ordem.getOrdemId()).isEqualTo("OP-1");
+            assertThat(ordem.getMaterialLimitanteId()).isNull();
+        });
+    }
+
+    /**
+     * Volume do requisito: milhares de ordens e centenas de materiais. O plano precisa caber no estoque
+     * e sair bem abaixo de um segundo.
+     */
+    @Test
+    void planoComMilharesDeOrdensCabeNoEstoqueEmMenosDeUmSegundo() {
+        Random aleatorio = new Random(11);
+        int materiais = 400;
+        int acabados = 300;
+        for (int m = 0; m < materiais; m++) {
+            produto("MP" + m, 500 + aleatorio.nextInt(5_000));
+        }
+        for (int a = 0; a < acabados; a++) {
+            String id = "PA" + a;
+            produto(id, 0);
+            // Componentes distintos por ficha, como vêm da consulta agregada
+            new Random(a).ints(0, materiais).distinct().limit(3 + aleatorio.nextInt(12)).sorted()
+                    .forEach(m -> componente(id, "MP" + m, 0.5 + aleatorio.nextInt(4)));
+        }
+        linhasFichas.sort((x, y) -> ((String) x[0]).compareTo((String) y[0]));
+        for (int o = 0; o < 5_000; o++) {
+            StatusOrdemProducao status = o % 20 == 0 ? StatusOrdemProducao.EM_ANDAMENTO : StatusOrdemProducao.PENDENTE;
+            ordem("OP-" + o, "PA" + aleatorio.nextInt(acabados), 1 + aleatorio.nextInt(20), status);
+        }
+        simularRepositorios();
+
+        for (int aquecimento = 0; aquecimento < 5; aquecimento++) {
+            service.planejarAlocacao("ORDENS", null);
+        }
+        long inicio = System.nanoTime();
+        PlanoAlocacaoDTO plano = service.planejarAlocacao("ORDENS", null);
+        long milissegundos = (System.nanoTime() - inicio) / 1_000_000;
+
+        assertThat(milissegundos).isLessThan(1_000);
+        assertThat(plano.getSequencia()).isNotEmpty();
+        assertThat(plano.getSequencia().size() + plano.getNaoAtendidas().size()).isEqualTo(ordens.size());
+
+        Map<String, Double> saldo = new HashMap<>();
+        produtos.forEach(p -> saldo.put(p.getId(), p.getQuantidadeEmEstoque()));
+        for (AlocacaoOrdemDTO ordem : plano.getSequencia()) {
+            for (Object[] linha : linhasFichas) {
+                if (linha[0].equals(ordem.getProdutoAcabadoId())) {
+                    saldo.merge((String) linha[1], -((Number) linha[2]).doubleValue() * ordem.getQuantidade(), Double::sum);
+                }
+            }
+        }
+        assertThat(saldo.values()).allSatisfy(restante -> assertThat(restante).isGreaterThan(-1e-6));
+    }
+
+    /**
+     * MRP sobre 50 mil ordens abertas e estrutura de três níveis (produto, subconjuntos, subconjuntos de subconjuntos):
+     * a agregação em paralelo, usada a partir de 10 mil ordens, chega às mesmas necessidades que a sequencial
+     * sobre a mesma demanda, e a rodada termina bem abaixo de um segundo.
+     * Quantidades múltiplas de 0,25 mantêm as somas exatas em double, independentemente da ordem de soma.
+     */
+    @Test
+    void mrpEmParaleloSobreMilharesDeOrdensBateComASequencial() {
+        Random aleatorio = new Random(8);
+        for (int m = 0; m < 300; m++) {
+            produto("MP" + m, aleatorio.nextInt(20_000));
+        }
+        // Subconjuntos com estoque próprio, descontado antes da explosão
+        for (int s = 0; s < 40; s++) {
+            produto("SB" + s, aleatorio.nextInt(200));
+            estrutura("SB" + s, "MP", 300, 2 + aleatorio.nextInt(6), aleatorio);
+        }
+        for (int s = 0; s < 40; s++) {
+            produto("SA" + s, aleatorio.nextInt(200));
+            estrutura("SA" + s, "SB", 40, 1 + aleatorio.nextInt(3), aleatorio);
+            estrutura("SA" + s, "MP", 300, 1 + aleatorio.nextInt(4), aleatorio);
+        }
+        for (int a = 0; a < 200; a++) {
+            produto("PA" + a, 0);
+            estrutura("PA" + a, "SA", 40, 1 + aleatorio.nextInt(2), aleatorio);
+            estrutura("PA" + a, "SB", 40, aleatorio.nextInt(2), aleatorio);
+            estrutura("PA" + a, "MP", 300, 2 + aleatorio.nextInt(8), aleatorio);
+        }
+        linhasFichas.sort((x, y) -> ((String) x[0]).compareTo((String) y[0]));
+        List<Object[]> demanda = new ArrayList<>();
+        Map<String, Double> demandaPorProduto = new TreeMap<>();
+        for (int o = 0; o < 50_000; o++) {
+            String produtoAcabadoId = "PA" + aleatorio.nextInt(200);
+            double quantidade = 1 + aleatorio.nextInt(20);
+            demanda.add(new Object[]{produtoAcabadoId, quantidade});
+            demandaPorProduto.merge(produtoAcabadoId, quantidade, Double::sum);
+        }
+        // Mesma demanda em uma linha por produto: abaixo do limiar, passa pela agregação sequencial
+        List<Object[]> demandaAgrupada = new ArrayList<>();
+        demandaPorProduto.forEach((produtoAcabadoId, quantidade) -> demandaAgrupada.add(new Object[]{produtoAcabadoId, quantidade}));
+        when(produtoRepository.findTodosEstoques()).thenReturn(produtos);
+        when(fichaTecnicaRepository.findTodosComponentesAgregados()).thenReturn(linhasFichas);
+        when(ordemProducaoRepository.findDemandaPorStatus(anyCollection())).thenReturn(demanda, demanda, demanda, demanda,
+                demanda, demanda, demandaAgrupada);
+
+        for (int aquecimento = 0; aquecimento < 5; aquecimento++) {
+            service.calcularMrp(false);
+        }
+        long inicio = System.nanoTime();
+        MrpResultadoDTO paralelo = service.calcularMrp(false);
+        long milissegundos = (System.nanoTime() - inicio) / 1_000_000;
+        MrpResultadoDTO sequencial = service.calcularMrp(false);
+
+        assertThat(milissegundos).isLessThan(1_000);
+        assertThat(paralelo.getOrdensAbertas()).isEqualTo(50_000);
+        assertThat(sequencial.getOrdensAbertas()).isEqualTo(demandaPorProduto.size());
+        // Só matérias-primas: subconjuntos são explodidos, não reportados
+        assertThat(paralelo.getNecessidades()).hasSizeGreaterThan(250)
+                .allSatisfy(n -> assertThat(n.getMateriaPrimaId()).startsWith("MP"));
+        assertThat(paralelo.getNecessidades())
+                .extracting(NecessidadeMateriaPrimaDTO::getMateriaPrimaId, NecessidadeMateriaPrimaDTO::getQuantidadeNecessaria,
+                        NecessidadeMateriaPrimaDTO::getFaltante)
+                .containsExactlyElementsOf(sequencial.getNecessidades().stream()
+                        .map(n -> tuple(n.getMateriaPrimaId(), n.getQuantidadeNecessaria(), n.getFaltante()))
+                        .toList());
+    }
+
+    // Componentes distintos, sorteados entre prefixo0..prefixo(total-1), com quantidades múltiplas de 0,25
+    private void estrutura(String produtoAcabadoId, String prefixo, int total, int componentes, Random aleatorio) {
+        aleatorio.ints(0, total).distinct().limit(componentes)
+                .forEach(c -> componente(produtoAcabadoId, prefixo + c, 0.25 * (1 + aleatorio.nextInt(8))));
+    }
+
+    private void simularRepositorios() {
+        when(produtoRepository.findTodosEstoques()).thenReturn(produtos);
+        when(fichaTecnicaRepository.findTodosComponentesAgregados()).thenReturn(linhasFichas);
+        when(ordemProducaoRepository.findResumoPorStatus(anyCollection())).thenReturn(ordens);
+    }
+
+    private void produto(String id, double saldo) {
+        produtos.add(new ProdutoEstoqueView() {
+            @Override
+            public String getId() {
+                return id;
+            }
+
+            @Override
+            public String getNome() {
+                return "Produto " + id;
+            }
+
+            @Override
+            public String getUnidadeMedida() {
+                return "UN";
+            }
+
+            @Override
+            public double getQuantidadeEmEstoque() {
+                return saldo;
+            }
+        });
+    }
+
+    private void componente(String produtoAcabadoId, String materiaPrimaId, double quantidade) {
+        linhasFichas.add(new Object[]{produtoAcabadoId, materiaPrimaId, quantidade});
+    }
+
+    private void ordem(String id, String produtoAcabadoId, double quantidade, StatusOrdemProducao status) {
+        ordens.add(new Object[]{id, produtoAcabadoId, quantidade, status});
+    }
+}
@@ -0,0 +1,349 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.ExplosaoEstruturaDTO;
+import br.com.jovvaz.control_system.dto.FaltaComponenteDTO;
+import br.com.jovvaz.control_system.dto.FichaTecnicaResumoDTO;
+import br.com.jovvaz.control_system.dto.NecessidadeMateriaPrimaDTO;
+import br.com.jovvaz.control_system.dto.ViabilidadeProducaoDTO;
+import br.com.jovvaz.control_system.model.FichaTecnica;
+import br.com.jovvaz.control_system.model.FichaTecnicaComponente;
+import br.com.jovvaz.control_system.model.Produto;
+import br.com.jovvaz.control_system.model.TipoProduto;
+import br.com.jovvaz.control_system.repository.FichaTecnicaRepository;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Quantidade exata de comandos SQL por ponto de entrada de leitura do {@link ProducaoService}
+ * e por grafo de entidade da ficha técnica, contada pelas estatísticas do Hibernate.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ProducaoService.class, FichaTecnicaCache.class, ExplosaoEstruturaService.class,
+        DisponibilidadeEstoque.class, ReservaEstoqueService.class, VersoesColecoes.class})
+class ProducaoServiceConsultasTest {
+
+    @MockitoBean
+    private EstoqueService estoqueService;
+    @MockitoBean
+    private MovimentacaoEstoqueService movimentacaoEstoqueService;
+    @MockitoBean
+    private ProdutoCache produtoCache;
+    @MockitoBean
+    private MetricasDashboard metricasDashboard;
+    @MockitoBean
+    private ResumoPeriodoService resumoPeriodoService;
+
+    @Autowired
+    private ProducaoService producaoService;
+    @Autowired
+    private FichaTecnicaRepository fichaTecnicaRepository;
+    @Autowired
+    private ProdutoRepository produtoRepository;
+    @Autowired
+    private FichaTecnicaCache fichaTecnicaCache;
+    @Autowired
+    private DisponibilidadeEstoque disponibilidadeEstoque;
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void preparar() {
+        Produto farinha = materiaPrima("10", "Farinha", 50);
+        Produto acucar = materiaPrima("11", "Açúcar", 20);
+        Produto recheio = produtoAcabado("20", "Recheio");
+        Produto bolo = produtoAcabado("21", "Bolo");
+        Produto pao = produtoAcabado("22", "Pão");
+
+        FichaTecnica fichaRecheio = new FichaTecnica(recheio);
+        fichaRecheio.adicionarComponente(farinha, 1);
+        FichaTecnica fichaBolo = new FichaTecnica(bolo);
+        fichaBolo.adicionarComponente(recheio, 2);
+        fichaBolo.adicionarComponente(acucar, 0.5);
+        FichaTecnica fichaPao = new FichaTecnica(pao);
+        fichaPao.adicionarComponente(farinha, 3);
+        em.persist(fichaRecheio);
+        em.persist(fichaBolo);
+        em.persist(fichaPao);
+        em.flush();
+        em.clear();
+
+        // Os caches em memória sobrevivem entre os testes do mesmo contexto: todo teste parte frio
+        fichaTecnicaCache.invalidarTodas();
+        disponibilidadeEstoque.marcarDivergencia();
+
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+    }
+
+    @Test
+    void grafoEdicaoTrazFichaProdutoEComponentesEmUmaConsulta() {
+        FichaTecnica ficha = fichaTecnicaRepository.findByProdutoAcabadoId("21").orElseThrow();
+
+        assertThat(ficha.getProdutoAcabado().getNome()).isEqualTo("Bolo");
+        assertThat(ficha.getComponentes()).extracting(c -> c.getMateriaPrima().getNome())
+                .containsExactlyInAnyOrder("Recheio", "Açúcar");
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void grafoListagemTrazFichasEProdutosEmUmaConsulta() {
+        List<FichaTecnica> fichas = fichaTecnicaRepository.findAll();
+
+        assertThat(fichas).extracting(f -> f.getProdutoAcabado().getNome())
+                .containsExactlyInAnyOrder("Recheio", "Bolo", "Pão");
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void grafoComponentesTrazFichaEComponentesEmUmaConsulta() {
+        Produto bolo = em.getEntityManager().getReference(Produto.class, "21");
+
+        Optional<FichaTecnica> ficha = fichaTecnicaRepository.findByProdutoAcabado(bolo);
+
+        assertThat(ficha).isPresent();
+        assertThat(ficha.get().getComponentes()).extracting(FichaTecnicaComponente::getQuantidade)
+                .containsExactlyInAnyOrder(2.0, 0.5);
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void listagemDeFichasUsaDuasConsultas() {
+        List<FichaTecnicaResumoDTO> fichas = producaoService.listarFichasTecnicas();
+
+        assertThat(fichas).hasSize(3);
+        assertThat(fichas).flatExtracting(FichaTecnicaResumoDTO::getComponentes).hasSize(4);
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void fichaIndividualUsaDuasConsultas() {
+        FichaTecnicaResumoDTO ficha = producaoService.buscarFichaTecnicaPorProdutoId("21").orElseThrow();
+
+        assertThat(ficha.getProdutoAcabado().getNome()).isEqualTo("Bolo");
+        assertThat(ficha.getComponentes()).extracting(c -> c.getMateriaPrima().getNome())
+                .containsExactlyInAnyOrder("Recheio", "Açúcar");
+        assertThat(producaoService.buscarFichaTecnicaPorProdutoId("99")).isEmpty();
+        // Ficha e linhas de componentes; produto sem ficha para na primeira
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    /**
+     * O JSON das fichas tem exatamente os campos das projeções: um campo novo, ou uma entidade com associações
+     * lazy no lugar de um DTO, quebra o teste em vez de vazar para a resposta.
+     */
+    @Test
+    void jsonDasFichasTemSoOsCamposDasProjecoes() {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode listagem = mapper.valueToTree(producaoService.listarFichasTecnicas());
+        JsonNode individual = mapper.valueToTree(producaoService.buscarFichaTecnicaPorProdutoId("21").orElseThrow());
+
+        assertThat(listagem).hasSize(3);
+        List<JsonNode> fichas = new ArrayList<>();
+        listagem.forEach(fichas::add);
+        fichas.add(individual);
+        for (JsonNode ficha : fichas) {
+            assertThat(campos(ficha)).containsExactlyInAnyOrder("id", "produtoAcabado", "componentes");
+            assertThat(campos(ficha.get("produtoAcabado"))).containsExactlyInAnyOrder("id", "nome", "desc", "unidadeMedida");
+            assertThat(ficha.get("componentes")).isNotEmpty().allSatisfy(componente -> {
+                assertThat(campos(componente)).containsExactlyInAnyOrder("id", "materiaPrima", "quantidade");
+                assertThat(campos(componente.get("materiaPrima")))
+                        .containsExactlyInAnyOrder("id", "nome", "unidadeMedida", "quantidadeEmEstoque");
+            });
+        }
+    }
+
+    /**
+     * Tamanho do JSON da ficha individual para a mesma ficha (200 componentes): o grafo de entidades servido antes
+     * e a projeção servida hoje. Os dois tamanhos vão para a saída do teste; a projeção tem de ser menor.
+     */
+    @Test
+    void jsonDaProjecaoEMenorQueODoGrafoDeEntidades() throws Exception {
+        Produto grande = produtoAcabado("900", "Kit");
+        FichaTecnica ficha = new FichaTecnica(grande);
+        for (int i = 0; i < 200; i++) {
+            ficha.adicionarComponente(materiaPrima("MP" + i, "Componente " + i, 10), 0.5);
+        }
+        em.persist(ficha);
+        em.flush();
+        em.clear();
+        ObjectMapper mapper = new ObjectMapper();
+
+        byte[] entidade = mapper.writeValueAsBytes(fichaTecnicaRepository.findByProdutoAcabadoId("900").orElseThrow());
+        byte[] projecao = mapper.writeValueAsBytes(producaoService.buscarFichaTecnicaPorProdutoId("900").orElseThrow());
+
+        System.out.printf("JSON da ficha com 200 componentes: entidade %d bytes, projeção %d bytes (%.0f%%)%n",
+                entidade.length, projecao.length, 100.0 * projecao.length / entidade.length);
+        assertThat(mapper.readTree(projecao).get("componentes")).hasSize(200);
+        assertThat(mapper.readTree(entidade).get("componentes")).hasSize(200);
+        assertThat(projecao.length).isLessThan(entidade.length);
+    }
+
+    /**
+     * Ficha editada por outra instância (direto no banco aqui): a consulta segue com a compilada até o TTL, mas o
+     * caminho que grava confere a versão com uma leitura pela chave primária e recompila.
+     */
+    @Test
+    void fichaConferidaRecompilaQuandoAVersaoGravadaMudou() {
+        assertThat(fichaTecnicaCache.obter("22").orElseThrow().quantidadePorUnidade(0)).isEqualTo(3.0);
+        estatisticas.clear();
+        assertThat(fichaTecnicaCache.obterConferida("22").orElseThrow().quantidadePorUnidade(0)).isEqualTo(3.0);
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+
+        em.getEntityManager().createQuery("update FichaTecnicaComponente c set c.quantidade = 4 where c.fichaTecnica.id = 'FT-22'")
+                .executeUpdate();
+        em.getEntityManager().createQuery("update FichaTecnica f set f.versao = f.versao + 1 where f.id = 'FT-22'")
+                .executeUpdate();
+        estatisticas.clear();
+
+        assertThat(fichaTecnicaCache.obter("22").orElseThrow().quantidadePorUnidade(0)).isEqualTo(3.0);
+        assertThat(fichaTecnicaCache.obterConferida("22").orElseThrow().quantidadePorUnidade(0)).isEqualTo(4.0);
+        // Conferência e recompilação; a compilada nova passa a valer também para as consultas
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(fichaTecnicaCache.obter("22").orElseThrow().quantidadePorUnidade(0)).isEqualTo(4.0);
+
+        em.getEntityManager().createQuery("delete from FichaTecnicaComponente c where c.fichaTecnica.id = 'FT-22'").executeUpdate();
+        em.getEntityManager().createQuery("delete from FichaTecnica f where f.id = 'FT-22'").executeUpdate();
+        assertThat(fichaTecnicaCache.obterConferida("22")).isEmpty();
+        assertThat(fichaTecnicaCache.obter("22")).isEmpty();
+    }
+
+    @Test
+    void viabilidadeSemFaltasNaoConsultaOBancoDepoisDeAquecida() {
+        // Frio: compilação da ficha e carga da tabela de disponível (saldos e reservas)
+        ViabilidadeProducaoDTO fria = producaoService.verificarViabilidadeProducao("22", 10);
+        assertThat(fria.isViavel()).isTrue();
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(3);
+
+        estatisticas.clear();
+        ViabilidadeProducaoDTO quente = producaoService.verificarViabilidadeProducao("22", 10);
+        assertThat(quente.isViavel()).isTrue();
+        assertThat(estatisticas.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void viabilidadeComFaltaConfirmaNoBancoComDuasConsultas() {
+        producaoService.verificarViabilidadeProducao("22", 10);
+        estatisticas.clear();
+
+        ViabilidadeProducaoDTO resultado = producaoService.verificarViabilidadeProducao("22", 100);
+
+        assertThat(resultado.isViavel()).isFalse();
+        assertThat(resultado.getFaltas()).singleElement()
+                .satisfies(falta -> assertThat(falta.getDisponivel()).isEqualTo(50.0));
+        // Saldos (com nome e unidade) e totais reservados dos componentes em falta
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    /**
+     * Ficha grande (200 componentes, parte deles sem saldo para a quantidade pedida): a verificação pela ficha
+     * compilada aponta exatamente as mesmas faltas que o caminho antigo, que percorria as entidades da ficha
+     * e buscava cada componente por ID.
+     */
+    @Test
+    void fichaCompiladaApontaAsMesmasFaltasQueOPercursoDasEntidades() {
+        Random aleatorio = new Random(4);
+        Produto grande = produtoAcabado("900", "Kit");
+        FichaTecnica ficha = new FichaTecnica(grande);
+        for (int i = 0; i < 200; i++) {
+            Produto componente = materiaPrima("MP" + i, "Componente " + i, 1 + aleatorio.nextInt(100));
+            ficha.adicionarComponente(componente, 0.25 * (1 + aleatorio.nextInt(8)));
+        }
+        em.persist(ficha);
+        em.flush();
+        em.clear();
+        double quantidade = 40;
+
+        List<FaltaComponenteDTO> esperadas = faltasPercorrendoEntidades("900", quantidade);
+        em.clear();
+        estatisticas.clear();
+        ViabilidadeProducaoDTO resultado = producaoService.verificarViabilidadeProducao("900", quantidade);
+
+        assertThat(esperadas).hasSizeBetween(50, 150);
+        assertThat(resultado.isViavel()).isFalse();
+        assertThat(resultado.getFaltas())
+                .extracting(FaltaComponenteDTO::getMateriaPrimaId, FaltaComponenteDTO::getNecessario,
+                        FaltaComponenteDTO::getDisponivel, FaltaComponenteDTO::getFaltante)
+                .containsExactlyInAnyOrderElementsOf(esperadas.stream()
+                        .map(f -> org.assertj.core.groups.Tuple.tuple(f.getMateriaPrimaId(), f.getNecessario(),
+                                f.getDisponivel(), f.getFaltante()))
+                        .toList());
+        // Frio: compilação da ficha, carga da tabela de disponível (saldos e reservas) e confirmação das faltas
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(5);
+
+        // Quente: só a confirmação das faltas no banco
+        estatisticas.clear();
+        assertThat(producaoService.verificarViabilidadeProducao("900", quantidade).getFaltas()).hasSameSizeAs(esperadas);
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    // Caminho anterior à ficha compilada: ficha com componentes e produtos, e o saldo de cada componente por ID
+    private List<FaltaComponenteDTO> faltasPercorrendoEntidades(String produtoAcabadoId, double quantidade) {
+        FichaTecnica ficha = fichaTecnicaRepository.findByProdutoAcabadoId(produtoAcabadoId).orElseThrow();
+        List<FaltaComponenteDTO> faltas = new ArrayList<>();
+        for (FichaTecnicaComponente componente : ficha.getComponentes()) {
+            double necessario = componente.getQuantidade() * quantidade;
+            Produto materiaPrima = produtoRepository.findById(componente.getMateriaPrima().getId()).orElseThrow();
+            if (materiaPrima.getQuantidadeEmEstoque() < necessario) {
+                faltas.add(new FaltaComponenteDTO(materiaPrima.getId(), materiaPrima.getNome(),
+                        materiaPrima.getUnidadeMedida(), necessario, materiaPrima.getQuantidadeEmEstoque()));
+            }
+        }
+        return faltas;
+    }
+
+    @Test
+    void explosaoMemorizadaSoConsultaOsSaldos() {
+        // Frio: uma compilação por ficha da estrutura (bolo e recheio) e os saldos dos itens
+        ExplosaoEstruturaDTO fria = producaoService.explodirEstrutura("21", 1);
+        assertThat(fria.getItens()).hasSize(2);
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(3);
+
+        estatisticas.clear();
+        ExplosaoEstruturaDTO quente = producaoService.explodirEstrutura("21", 4);
+        assertThat(quente.getItens()).extracting(NecessidadeMateriaPrimaDTO::getQuantidadeNecessaria).containsExactly(8.0, 2.0);
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private static List<String> campos(JsonNode objeto) {
+        List<String> campos = new ArrayList<>();
+        for (Iterator<String> nomes = objeto.fieldNames(); nomes.hasNext(); ) {
+            campos.add(nomes.next());
+        }
+        return campos;
+    }
+
+    private Produto materiaPrima(String id, String nome, double saldo) {
+        Produto produto = new Produto(id, nome, null, TipoProduto.MATERIA_PRIMA, "KG");
+        produto.darEntrada(saldo);
+        return em.persist(produto);
+    }
+
+    private Produto produtoAcabado(String id, String nome) {
+        return em.persist(new Produto(id, nome, null, TipoProduto.PRODUTO_ACABADO, "UN"));
+    }
+}
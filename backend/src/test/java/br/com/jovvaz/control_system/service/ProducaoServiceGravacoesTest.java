@@ -0,0 +1,134 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.dto.ComponenteDTO;
+import br.com.jovvaz.control_system.dto.ProdutoAcabadoRequestDTO;
+import br.com.jovvaz.control_system.model.FichaTecnica;
+import br.com.jovvaz.control_system.model.Produto;
+import br.com.jovvaz.control_system.model.TipoProduto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comandos SQL dos pontos de entrada de gravação do {@link ProducaoService}, contados pelas estatísticas
+ * do Hibernate. Tudo real, inclusive o livro-razão; o flush ao final manda os INSERTs em batch. Os resumos por período
+ * são gravados fora da transação, após o commit, e não entram na contagem.
+ * Com batch, cada INSERT em lote conta um único prepared statement, não um por linha.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ProducaoService.class, EstoqueService.class, MovimentacaoEstoqueService.class, ResumoPeriodoService.class,
+        FichaTecnicaCache.class, ExplosaoEstruturaService.class, DisponibilidadeEstoque.class, ReservaEstoqueService.class,
+        VersoesColecoes.class, ProdutoCache.class, MetricasDashboard.class, GeradorIdNumerico.class})
+class ProducaoServiceGravacoesTest {
+
+    @Autowired
+    private ProducaoService producaoService;
+    @Autowired
+    private FichaTecnicaCache fichaTecnicaCache;
+    @Autowired
+    private DisponibilidadeEstoque disponibilidadeEstoque;
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void preparar() {
+        Produto farinha = materiaPrima("10", "Farinha", 500);
+        Produto acucar = materiaPrima("11", "Açúcar", 200);
+        Produto manteiga = materiaPrima("12", "Manteiga", 100);
+        Produto recheio = produtoAcabado("20", "Recheio");
+        Produto biscoito = produtoAcabado("23", "Biscoito");
+
+        FichaTecnica fichaRecheio = new FichaTecnica(recheio);
+        fichaRecheio.adicionarComponente(acucar, 1);
+        FichaTecnica fichaBiscoito = new FichaTecnica(biscoito);
+        fichaBiscoito.adicionarComponente(farinha, 2);
+        fichaBiscoito.adicionarComponente(acucar, 1);
+        fichaBiscoito.adicionarComponente(manteiga, 0.5);
+        em.persist(fichaRecheio);
+        em.persist(fichaBiscoito);
+        em.flush();
+        em.clear();
+
+        fichaTecnicaCache.invalidarTodas();
+        disponibilidadeEstoque.marcarDivergencia();
+
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+    }
+
+    @Test
+    void execucaoAgrupaOsLancamentosEmUmInsert() {
+        // Aquece a ficha compilada e a tabela de disponível: a contagem fica só com a gravação
+        producaoService.verificarViabilidadeProducao("23", 1);
+        estatisticas.clear();
+
+        producaoService.executarOrdemDeProducao("23", 10);
+        em.flush();
+
+        // 1 leitura da versão da ficha (conferência da compilada em cache),
+        // 4 UPDATEs condicionais de saldo (3 baixas e a entrada), 2 leituras da sequence do livro-razão
+        // (bloco de 50 IDs) e 1 INSERT em batch com os 4 lançamentos
+        assertThat(estatisticas.getEntityInsertCount()).isEqualTo(4);
+        assertThat(estatisticas.getEntityUpdateCount()).isZero();
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1 + 4 + 2 + 1);
+
+        // Segunda execução: versão da ficha, UPDATEs de saldo e o INSERT em batch, com os IDs já no bloco
+        estatisticas.clear();
+        producaoService.executarOrdemDeProducao("23", 10);
+        em.flush();
+
+        assertThat(estatisticas.getEntityInsertCount()).isEqualTo(4);
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1 + 4 + 1);
+    }
+
+    @Test
+    void cadastroDeFichaCarregaOsComponentesEmUmaConsultaEGravaEmBatch() {
+        ProdutoAcabadoRequestDTO dto = new ProdutoAcabadoRequestDTO();
+        dto.setId("30");
+        dto.setNome("Torta");
+        dto.setUnidadeMedida("UN");
+        dto.setComponentes(List.of(componente("10", 3), componente("11", 2), componente("12", 1), componente("20", 1)));
+
+        producaoService.criarProdutoAcabadoComFichaTecnica(dto);
+        em.flush();
+
+        // Produto: busca por ID e INSERT. Ficha: busca da existente, 1 consulta para os 4 componentes,
+        // 1 para o ciclo do subconjunto; sem SELECT de merge para a ficha nova. Gravação: a ficha e 1 INSERT em
+        // batch com os 4 componentes (IDs de sequence, já no bloco alocado pelo cenário)
+        assertThat(estatisticas.getEntityInsertCount()).isEqualTo(1 + 1 + 4);
+        assertThat(estatisticas.getEntityUpdateCount()).isZero();
+        assertThat(estatisticas.getQueryExecutionCount()).isEqualTo(3);
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1 + 1 + 3 + 1 + 1);
+    }
+
+    private static ComponenteDTO componente(String materiaPrimaId, double quantidade) {
+        ComponenteDTO componente = new ComponenteDTO();
+        componente.setMateriaPrimaId(materiaPrimaId);
+        componente.setQuantidade(quantidade);
+        return componente;
+    }
+
+    private Produto materiaPrima(String id, String nome, double saldo) {
+        Produto produto = new Produto(id, nome, null, TipoProduto.MATERIA_PRIMA, "KG");
+        produto.darEntrada(saldo);
+        return em.persist(produto);
+    }
+
+    private Produto produtoAcabado(String id, String nome) {
+        return em.persist(new Produto(id, nome, null, TipoProduto.PRODUTO_ACABADO, "UN"));
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.model.Produto;
+import br.com.jovvaz.control_system.model.TipoProduto;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reconciliação do cache de produtos com o banco: cadastros, movimentações e exclusões feitos por outra instância
+ * (direto no banco aqui) aparecem depois do intervalo, inclusive na listagem completa servida da memória.
+ */
+class ProdutoCacheTest {
+
+    private final ProdutoRepository produtoRepository = mock(ProdutoRepository.class);
+    // Estado confirmado no banco
+    private final Map<String, Produto> banco = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void preparar() {
+        gravar("1", 5, 1);
+        gravar("2", 8, 1);
+        when(produtoRepository.findAll()).thenAnswer(invocacao -> copias(banco.keySet()));
+        when(produtoRepository.findAllById(anyIterable()))
+                .thenAnswer(invocacao -> copias(invocacao.<Collection<String>>getArgument(0)));
+        when(produtoRepository.findById(anyString()))
+                .thenAnswer(invocacao -> Optional.ofNullable(banco.get(invocacao.<String>getArgument(0))).map(Produto::copia));
+        when(produtoRepository.findVersoes()).thenAnswer(invocacao -> {
+            List<Object[]> linhas = new ArrayList<>();
+            banco.forEach((id, produto) -> linhas.add(new Object[]{id, produto.getVersao()}));
+            return linhas;
+        });
+    }
+
+    @Test
+    void alteracoesDeOutraInstanciaAparecemNaReconciliacao() {
+        ProdutoCache cache = new ProdutoCache(produtoRepository, true, 100, 0);
+        assertThat(cache.buscarTodos()).extracting(Produto::getId).containsExactly("1", "2");
+
+        gravar("1", 9, 2);
+        banco.remove("2");
+        gravar("3", 1, 0);
+
+        assertThat(cache.buscarTodos()).extracting(Produto::getId, Produto::getQuantidadeEmEstoque)
+                .containsExactly(tuple("1", 9.0), tuple("3", 1.0));
+        assertThat(cache.buscarPorId("2")).isEmpty();
+
+        gravar("3", 4, 1);
+        assertThat(cache.buscarPorId("3")).get().extracting(Produto::getQuantidadeEmEstoque).isEqualTo(4.0);
+    }
+
+    @Test
+    void dentroDoIntervaloNaoConsultaAsVersoes() {
+        ProdutoCache cache = new ProdutoCache(produtoRepository, true, 100, 60_000);
+        cache.buscarTodos();
+        gravar("1", 9, 2);
+
+        assertThat(cache.buscarPorId("1")).get().extracting(Produto::getQuantidadeEmEstoque).isEqualTo(5.0);
+        verify(produtoRepository, never()).findVersoes();
+    }
+
+    private void gravar(String id, double saldo, long versao) {
+        Produto produto = new Produto(id, "Produto " + id, null, TipoProduto.MATERIA_PRIMA, "UN");
+        produto.darEntrada(saldo);
+        ReflectionTestUtils.setField(produto, "versao", versao);
+        banco.put(id, produto);
+    }
+
+    private List<Produto> copias(Collection<String> ids) {
+        List<Produto> produtos = new ArrayList<>();
+        for (String id : ids) {
+            Produto produto = banco.get(id);
+            if (produto != null) {
+                produtos.add(produto.copia());
+            }
+        }
+        return produtos;
+    }
+}
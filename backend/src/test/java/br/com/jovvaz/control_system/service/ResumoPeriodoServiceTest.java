@@ -0,0 +1,110 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.model.GranularidadeResumo;
+import br.com.jovvaz.control_system.model.MovimentacaoEstoque;
+import br.com.jovvaz.control_system.model.TipoMovimentacao;
+import br.com.jovvaz.control_system.repository.ResumoMovimentacaoRepository;
+import br.com.jovvaz.control_system.repository.ResumoProducaoRepository;
+import br.com.jovvaz.control_system.repository.ResumoProdutosRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Resumos por período fora da transação de estoque: somados após o commit e gravados depois, um UPDATE por linha.
+ */
+class ResumoPeriodoServiceTest {
+
+    private static final LocalDateTime DATA = LocalDateTime.of(2026, 3, 10, 14, 25);
+
+    private final ResumoMovimentacaoRepository movimentacaoRepo = mock(ResumoMovimentacaoRepository.class);
+    private final ResumoProducaoRepository producaoRepo = mock(ResumoProducaoRepository.class);
+    private final ResumoProdutosRepository produtosRepo = mock(ResumoProdutosRepository.class);
+    private final ResumoPeriodoService service = new ResumoPeriodoService(movimentacaoRepo, producaoRepo, produtosRepo,
+            mock(PlatformTransactionManager.class), 60_000);
+
+    @AfterEach
+    void limpar() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        service.encerrar();
+    }
+
+    @Test
+    void transacoesConfirmadasSaoSomadasEGravadasDepois() {
+        when(movimentacaoRepo.acumular(any(), any(), anyString(), any(), anyDouble(), anyDouble(), anyLong())).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.registrarMovimentacoes(List.of(saida("10", 3)));
+        concluir(true);
+        TransactionSynchronizationManager.initSynchronization();
+        service.registrarMovimentacoes(List.of(saida("10", 2)));
+        // Nada é gravado dentro da transação de estoque
+        verifyNoInteractions(movimentacaoRepo);
+        concluir(true);
+        TransactionSynchronizationManager.initSynchronization();
+        service.registrarMovimentacoes(List.of(saida("10", 100)));
+        concluir(false);
+
+        service.gravarPendentes();
+
+        // As duas confirmadas numa linha por granularidade; a revertida não entra
+        for (GranularidadeResumo granularidade : GranularidadeResumo.values()) {
+            verify(movimentacaoRepo).acumular(granularidade, granularidade.inicio(DATA), "10",
+                    TipoMovimentacao.SAIDA_VENDA, 0.0, 5.0, 2L);
+        }
+        verify(movimentacaoRepo, never()).criarSeAusente(anyString(), any(), anyString(), anyString());
+    }
+
+    @Test
+    void falhaNaGravacaoMantemAsSomasPendentes() {
+        when(produtosRepo.acumular(any(), any(), anyLong(), anyLong()))
+                .thenThrow(new IllegalStateException("banco indisponível"))
+                .thenReturn(1);
+
+        service.registrarProdutoCriado();
+        assertThatThrownBy(service::gravarPendentes).isInstanceOf(IllegalStateException.class);
+        service.registrarProdutoCriado();
+        service.gravarPendentes();
+
+        // Uma tentativa que falhou e, na seguinte, as duas criações somadas em cada granularidade
+        verify(produtosRepo, times(1 + GranularidadeResumo.values().length)).acumular(any(), any(), anyLong(), anyLong());
+        verify(produtosRepo, times(GranularidadeResumo.values().length)).acumular(any(), any(), eq(2L), eq(0L));
+    }
+
+    private static MovimentacaoEstoque saida(String produtoId, double quantidade) {
+        return new MovimentacaoEstoque(produtoId, TipoMovimentacao.SAIDA_VENDA, -quantidade, DATA, null);
+    }
+
+    private static void concluir(boolean confirmada) {
+        List<TransactionSynchronization> sincronizacoes = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization sincronizacao : sincronizacoes) {
+            if (confirmada) {
+                sincronizacao.afterCommit();
+            }
+            sincronizacao.afterCompletion(confirmada ? TransactionSynchronization.STATUS_COMMITTED
+                    : TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package br.com.jovvaz.control_system.service;
+
+import br.com.jovvaz.control_system.model.Produto;
+import br.com.jovvaz.control_system.model.TipoProduto;
+import br.com.jovvaz.control_system.repository.ProdutoRepository;
+import br.com.jovvaz.control_system.repository.VersaoColecaoRepository;
+import br.com.jovvaz.control_system.service.VersoesColecoes.Colecao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ETags lidas do banco: duas instâncias (dois VersoesColecoes sobre o mesmo banco) respondem igual para o mesmo estado,
+ * e um commit em uma invalida a ETag da outra. Cada transação do teste é confirmada de verdade.
+ */
+@DataJpaTest(properties = {
+        // Modo PostgreSQL: a linha da coleção ausente é criada com insert ... on conflict do nothing
+        "spring.datasource.url=jdbc:h2:mem:versoes-colecoes;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VersoesColecoesTest {
+
+    @Autowired
+    private VersaoColecaoRepository versaoColecaoRepository;
+    @Autowired
+    private ProdutoRepository produtoRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void limpar() {
+        versaoColecaoRepository.deleteAll();
+        produtoRepository.deleteAll();
+    }
+
+    @Test
+    void alteracaoEmUmaInstanciaMudaAETagDaOutra() {
+        VersoesColecoes instanciaA = new VersoesColecoes(versaoColecaoRepository, produtoRepository);
+        VersoesColecoes instanciaB = new VersoesColecoes(versaoColecaoRepository, produtoRepository);
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        String inicial = instanciaB.etag(Colecao.ORDENS_PRODUCAO, Colecao.CADASTRO_PRODUTOS);
+        assertThat(instanciaA.etag(Colecao.ORDENS_PRODUCAO, Colecao.CADASTRO_PRODUTOS)).isEqualTo(inicial);
+
+        // Revertida: nada muda
+        transacao.executeWithoutResult(status -> {
+            instanciaA.registrarAlteracao(Colecao.ORDENS_PRODUCAO);
+            status.setRollbackOnly();
+        });
+        assertThat(instanciaB.etag(Colecao.ORDENS_PRODUCAO, Colecao.CADASTRO_PRODUTOS)).isEqualTo(inicial);
+
+        // Várias alterações na mesma transação contam uma vez
+        transacao.executeWithoutResult(status -> {
+            instanciaA.registrarAlteracao(Colecao.ORDENS_PRODUCAO);
+            instanciaA.registrarAlteracao(Colecao.ORDENS_PRODUCAO);
+        });
+        String depois = instanciaB.etag(Colecao.ORDENS_PRODUCAO, Colecao.CADASTRO_PRODUTOS);
+        assertThat(depois).isNotEqualTo(inicial).isEqualTo(instanciaA.etag(Colecao.ORDENS_PRODUCAO, Colecao.CADASTRO_PRODUTOS));
+        assertThat(versaoColecaoRepository.findById("ORDENS_PRODUCAO").orElseThrow().getVersao()).isEqualTo(1);
+    }
+
+    @Test
+    void etagDoCatalogoAcompanhaOSaldoSemLinhaPropria() {
+        VersoesColecoes instanciaA = new VersoesColecoes(versaoColecaoRepository, produtoRepository);
+        VersoesColecoes instanciaB = new VersoesColecoes(versaoColecaoRepository, produtoRepository);
+        Produto produto = new Produto("1", "Parafuso", null, TipoProduto.MATERIA_PRIMA, "UN");
+        produto.darEntrada(10);
+        produtoRepository.save(produto);
+        String inicial = instanciaA.etag(Colecao.PRODUTOS);
+
+        // Baixa confirmada por outra instância: só o UPDATE do saldo, que incrementa a versão da linha
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            produtoRepository.decrementarEstoqueSeDisponivel("1", 3);
+            instanciaB.registrarAlteracao(Colecao.PRODUTOS);
+        });
+
+        assertThat(instanciaA.etag(Colecao.PRODUTOS)).isNotEqualTo(inicial).isEqualTo(instanciaB.etag(Colecao.PRODUTOS));
+        assertThat(versaoColecaoRepository.count()).isZero();
+    }
+}
@@ -10,7 +10,8 @@ import type {
   OrdemProducaoStatusUpdateDTO,
   FichaTecnica,
   MovimentacaoEstoque,
-  OrdemProducao
+  OrdemProducao,
+  ProducaoPeriodo
 } from '../types'
 
 // Configuração base do axios
@@ -528,7 +529,8 @@ export const producaoService = {
         produtoNome: String(o.produtoNome ?? o.produtoAcabadoNome ?? o.produtoAcabado?.nome ?? ''),
         quantidadeProduzida: Number(o.quantidadeProduzida ?? o.quantidadeAProduzir ?? 0),
         dataExecucao: o.dataExecucao ? new Date(o.dataExecucao) : new Date(),
-        status: String(o.status ?? 'PENDENTE') as OrdemProducao['status']
+        status: String(o.status ?? 'PENDENTE') as OrdemProducao['status'],
+        motivoFalha: o.motivoFalha ?? undefined
       }))
       return ordens
     } catch (error) {
@@ -583,7 +585,9 @@ export const producaoService = {
         produtoNome: String(o.produtoNome ?? ''),
         quantidadeProduzida: Number(o.quantidadeProduzida ?? 0),
         dataExecucao: o.dataExecucao ? new Date(o.dataExecucao) : new Date(),
-        status: String(o.status ?? status) as OrdemProducao['status']
+        // EXECUTADA é assíncrona: a resposta (202) traz a ordem ainda EM_ANDAMENTO
+        status: String(o.status ?? status) as OrdemProducao['status'],
+        motivoFalha: o.motivoFalha ?? undefined
       }
       return ordem
     } catch (error) {
@@ -631,8 +635,9 @@ export const relatoriosService = {
     if (produtoId) params.append('produtoId', produtoId)
 
     try {
+      // Primeira página do histórico paginado por cursor
       const response = await api.get(`/relatorios/movimentacoes?${params}`)
-      return response.data
+      return response.data.itens
     } catch {
       // Retornar dados mock se API não estiver implementada
       return []
@@ -642,12 +647,14 @@ export const relatoriosService = {
   // Histórico de produção
   historicoProducao: async (
     dataInicio?: Date,
-    dataFim?: Date
-  ): Promise<OrdemProducao[]> => {
+    dataFim?: Date,
+    agrupamento: 'DIA' | 'SEMANA' | 'MES' = 'DIA'
+  ): Promise<ProducaoPeriodo[]> => {
     try {
       const params = new URLSearchParams()
       if (dataInicio) params.append('dataInicio', dataInicio.toISOString())
       if (dataFim) params.append('dataFim', dataFim.toISOString())
+      params.append('agrupamento', agrupamento)
 
       const response = await api.get(`/relatorios/producao?${params}`)
       return response.data
@@ -11,15 +11,16 @@ export interface Produto {
   estoqueRecomendado?: number
 }
 
+// A listagem de fichas traz apenas os campos usados nas telas (projeção no backend)
 export interface FichaTecnica {
   id: string
-  produtoAcabado: Produto
+  produtoAcabado: Pick<Produto, 'id' | 'nome' | 'desc' | 'unidadeMedida'>
   componentes: FichaTecnicaComponente[]
 }
 
 export interface FichaTecnicaComponente {
   id: number
-  materiaPrima: Produto
+  materiaPrima: Pick<Produto, 'id' | 'nome' | 'unidadeMedida' | 'quantidadeEmEstoque'>
   quantidade: number
 }
 
@@ -94,6 +95,8 @@ export interface DashboardMetrics {
   crescimentoValor?: number
   alertasEstoque?: number
   ordensProducao?: number
+  // Contagem de ordens por status (PENDENTE, EM_ANDAMENTO, EXECUTADA, CANCELADA)
+  ordensPorStatus?: Record<string, number>
 }
 
 export interface MovimentacaoEstoque {
@@ -113,6 +116,17 @@ export interface OrdemProducao {
   quantidadeProduzida: number
   dataExecucao: Date
   status: 'PENDENTE' | 'EM_ANDAMENTO' | 'EXECUTADA' | 'CANCELADA'
+  // Preenchido quando a execução assíncrona falha e a ordem volta para PENDENTE
+  motivoFalha?: string
+}
+
+// Unidades produzidas de um produto em um período (dia, semana ou mês iniciado em "periodo")
+export interface ProducaoPeriodo {
+  periodo: string
+  produtoId: string
+  produtoNome: string
+  quantidade: number
+  ordens: number
 }
 
 // Tipos para filtros e paginação